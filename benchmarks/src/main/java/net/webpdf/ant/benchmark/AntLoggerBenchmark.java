@@ -0,0 +1,94 @@
+package net.webpdf.ant.benchmark;
+
+import net.webpdf.ant.task.logging.AntLogger;
+import net.webpdf.ant.task.logging.LogTag;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Location;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the formatting of log messages, as it is done for each processed file and each failure.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AntLoggerBenchmark {
+
+    private AntLogger logger;
+    private BuildException failure;
+    private String message;
+
+    /**
+     * Creates a logger for a task, that keeps the last logged message instead of passing it to the build listeners.
+     */
+    @Setup
+    public void setup() {
+        Task task = new Task() {
+            @Override
+            public void log(String msg, int msgLevel) {
+                message = msg;
+            }
+
+            @Override
+            public void log(String msg, Throwable t, int msgLevel) {
+                message = msg;
+            }
+        };
+        task.setProject(new Project());
+        task.setLocation(new Location("build.xml", 42, 8));
+        logger = new AntLogger(task);
+        failure = new BuildException("The operation failed.",
+            new IOException("The connection to the webPDF server has been reset."));
+    }
+
+    /**
+     * Formats an informational message.
+     *
+     * @return The formatted message.
+     */
+    @Benchmark
+    public String info() {
+        logger.info("Processing source file: /data/documents/document-4711.pdf", LogTag.WEBPDF_TASK);
+        return message;
+    }
+
+    /**
+     * Formats a warning caused by a failure.
+     *
+     * @return The formatted message.
+     */
+    @Benchmark
+    public String warn() {
+        logger.warn("Retrying the webservice call.", failure, LogTag.OPERATION);
+        return message;
+    }
+
+    /**
+     * Formats an error, including the stack trace of it's cause.
+     *
+     * @return The formatted message.
+     */
+    @Benchmark
+    public String error() {
+        logger.error(failure, LogTag.OPERATION);
+        return message;
+    }
+
+}
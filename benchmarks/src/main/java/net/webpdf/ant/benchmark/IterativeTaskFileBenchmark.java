@@ -0,0 +1,114 @@
+package net.webpdf.ant.benchmark;
+
+import net.webpdf.ant.task.files.FinalizeMode;
+import net.webpdf.ant.task.files.IterativeTaskFile;
+import net.webpdf.ant.task.files.TempDir;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the chaining of operation results, as it is done by a group of operations: each step reads the result of
+ * the previous step and writes a new result, until the final result is published to the target file.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IterativeTaskFileBenchmark {
+
+    @Param({"65536", "4194304"})
+    private int documentSize;
+
+    @Param({"1", "5"})
+    private int steps;
+
+    @Param({"0", "16777216"})
+    private int memoryThreshold;
+
+    @Param({"MOVE", "COPY"})
+    private String finalizeMode;
+
+    private File workDirectory;
+    private File sourceFile;
+    private File targetFile;
+    private TempDir tempDir;
+
+    /**
+     * Creates the source document and the temporary directory used by the chain.
+     *
+     * @throws IOException Shall be thrown, if the source document could not be created.
+     */
+    @Setup
+    public void setup() throws IOException {
+        workDirectory = Files.createTempDirectory("webpdf-benchmark-chain").toFile();
+        sourceFile = new File(workDirectory, "source.pdf");
+        targetFile = new File(workDirectory, "target.pdf");
+        byte[] document = new byte[documentSize];
+        new Random(documentSize).nextBytes(document);
+        FileUtils.writeByteArrayToFile(sourceFile, document);
+        tempDir = new TempDir();
+        tempDir.setMemoryThreshold(memoryThreshold);
+    }
+
+    /**
+     * Deletes all temporary files created during the last iteration.
+     */
+    @TearDown(Level.Iteration)
+    public void cleanTemp() {
+        tempDir.cleanTemp();
+    }
+
+    /**
+     * Deletes the source document and the published results.
+     */
+    @TearDown
+    public void tearDown() {
+        tempDir.cleanTemp();
+        FileUtils.deleteQuietly(workDirectory);
+    }
+
+    /**
+     * Passes the source document through the given number of steps and publishes the final result.
+     *
+     * @return The published result.
+     * @throws IOException Shall be thrown, if a step could not read or write it's document.
+     */
+    @Benchmark
+    public File chain() throws IOException {
+        IterativeTaskFile taskFile = new IterativeTaskFile(sourceFile, targetFile.getName(), tempDir);
+        for (int step = 0; step < steps; step++) {
+            try (
+                InputStream source = taskFile.openCurrentSource();
+                OutputStream target = taskFile.openCurrentTarget()
+            ) {
+                IOUtils.copy(source, target);
+            }
+            taskFile.prepareNextOperation();
+        }
+        return taskFile.finalizeAndReset(targetFile, null, FinalizeMode.valueOf(finalizeMode));
+    }
+
+}
@@ -0,0 +1,104 @@
+package net.webpdf.ant.benchmark;
+
+import net.webpdf.ant.task.files.IterativeTaskFile;
+import net.webpdf.ant.task.files.IterativeTaskFileMap;
+import org.apache.commons.io.FileUtils;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.types.FileSet;
+import org.apache.tools.ant.types.resources.FileResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the iteration over large synthetic file sets, as it is done for the source files of a webPDF task.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IterativeTaskFileMapBenchmark {
+
+    private static final int FILES_PER_DIRECTORY = 500;
+
+    @Param({"1000", "10000", "100000"})
+    private int fileCount;
+
+    @Param({"fileset", "directory"})
+    private String collection;
+
+    private Project project;
+    private File sourceDirectory;
+    private File tempDirectory;
+
+    /**
+     * Creates the given number of empty source files, spread over several sub directories.
+     *
+     * @throws IOException Shall be thrown, if a source file could not be created.
+     */
+    @Setup
+    public void setup() throws IOException {
+        project = new Project();
+        sourceDirectory = Files.createTempDirectory("webpdf-benchmark-sources").toFile();
+        tempDirectory = Files.createTempDirectory("webpdf-benchmark-temp").toFile();
+        for (int index = 0; index < fileCount; index++) {
+            File directory = new File(sourceDirectory, "directory-" + index / FILES_PER_DIRECTORY);
+            if (!directory.exists() && !directory.mkdirs()) {
+                throw new IOException("The source directory could not be created: " + directory.getAbsolutePath());
+            }
+            if (!new File(directory, "document-" + index + ".pdf").createNewFile()) {
+                throw new IOException("The source file could not be created for index: " + index);
+            }
+        }
+    }
+
+    /**
+     * Deletes all created source files.
+     */
+    @TearDown
+    public void tearDown() {
+        FileUtils.deleteQuietly(sourceDirectory);
+        FileUtils.deleteQuietly(tempDirectory);
+    }
+
+    /**
+     * Iterates over all entries of a task file map containing the created source files.
+     *
+     * @param blackhole Consumes the iterated entries.
+     */
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        IterativeTaskFileMap taskFileMap = new IterativeTaskFileMap();
+        taskFileMap.setTempDir(tempDirectory);
+        if ("fileset".equals(collection)) {
+            FileSet fileSet = new FileSet();
+            fileSet.setProject(project);
+            fileSet.setDir(sourceDirectory);
+            fileSet.setIncludes("**/*.pdf");
+            taskFileMap.add(fileSet);
+        } else {
+            taskFileMap.add(new FileResource(sourceDirectory));
+        }
+        for (IterativeTaskFile taskFile : taskFileMap) {
+            blackhole.consume(taskFile);
+        }
+    }
+
+}
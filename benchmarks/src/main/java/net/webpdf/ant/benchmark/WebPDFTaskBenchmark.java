@@ -0,0 +1,159 @@
+package net.webpdf.ant.benchmark;
+
+import net.webpdf.ant.GroupTask;
+import net.webpdf.ant.WebPDFTask;
+import net.webpdf.ant.stub.StubWebPDFServer;
+import org.apache.commons.io.FileUtils;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.RuntimeConfigurable;
+import org.apache.tools.ant.UnknownElement;
+import org.apache.tools.ant.types.FileSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a complete run of a webPDF task, processing a set of source files by a group of operations, including the
+ * webservice calls and the publication of the results.
+ * <p>
+ * The webPDF server is selected by the parameter "serverUrl" (e.g. -p serverUrl=http://localhost:8080/webPDF/). By
+ * default a local stub server is started, that echoes all documents after the given latency.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WebPDFTaskBenchmark {
+
+    private static final String STUB_SERVER = "stub";
+
+    @Param({STUB_SERVER})
+    private String serverUrl;
+
+    @Param({"20"})
+    private long stubLatency;
+
+    @Param({"50"})
+    private int documentCount;
+
+    @Param({"65536"})
+    private int documentSize;
+
+    @Param({"1", "8"})
+    private String parallelism;
+
+    @Param({"1", "3"})
+    private int operations;
+
+    private File workDirectory;
+    private File sourceDirectory;
+    private File targetDirectory;
+    private File tempDirectory;
+    private StubWebPDFServer stubServer;
+    private String url;
+
+    /**
+     * Creates the source files processed by each run and starts the stub server, if no webPDF server has been given.
+     *
+     * @throws IOException Shall be thrown, if a source file could not be created.
+     */
+    @Setup
+    public void setup() throws IOException {
+        workDirectory = Files.createTempDirectory("webpdf-benchmark-task").toFile();
+        sourceDirectory = new File(workDirectory, "sources");
+        targetDirectory = new File(workDirectory, "targets");
+        tempDirectory = new File(workDirectory, "temp");
+        if (!targetDirectory.mkdirs() || !tempDirectory.mkdirs()) {
+            throw new IOException("The work directories could not be created in: " + workDirectory.getAbsolutePath());
+        }
+        Random random = new Random(documentSize);
+        byte[] document = new byte[documentSize];
+        for (int index = 0; index < documentCount; index++) {
+            random.nextBytes(document);
+            FileUtils.writeByteArrayToFile(new File(sourceDirectory, "document-" + index + ".pdf"), document);
+        }
+        url = serverUrl;
+        if (STUB_SERVER.equals(serverUrl)) {
+            stubServer = new StubWebPDFServer().setLatency(stubLatency).start();
+            url = stubServer.getURL().toString();
+        }
+    }
+
+    /**
+     * Stops the stub server and deletes the source files and all results.
+     */
+    @TearDown
+    public void tearDown() {
+        if (stubServer != null) {
+            stubServer.close();
+        }
+        FileUtils.deleteQuietly(workDirectory);
+    }
+
+    /**
+     * Processes all source files by a webPDF task.
+     */
+    @Benchmark
+    public void execute() {
+        Project project = new Project();
+        project.init();
+
+        WebPDFTask webPDFTask = new WebPDFTask();
+        webPDFTask.setProject(project);
+        webPDFTask.setServerUrl(url);
+        webPDFTask.setFailOnError(true);
+        webPDFTask.setParallelism(parallelism);
+        webPDFTask.setTempDir(tempDirectory);
+        webPDFTask.setTargetDir(targetDirectory);
+
+        FileSet fileSet = new FileSet();
+        fileSet.setProject(project);
+        fileSet.setDir(sourceDirectory);
+        webPDFTask.add(fileSet);
+
+        GroupTask groupTask = new GroupTask();
+        groupTask.setProject(project);
+        webPDFTask.add(groupTask);
+        for (int index = 0; index < operations; index++) {
+            groupTask.add(createRotation(90 * (index % 3 + 1)));
+        }
+
+        webPDFTask.execute();
+    }
+
+    /**
+     * Creates a toolbox operation rotating all pages by the given degrees.
+     *
+     * @param degrees The degrees the pages shall be rotated by.
+     * @return The created operation.
+     */
+    private static UnknownElement createRotation(int degrees) {
+        UnknownElement operation = new UnknownElement("operation");
+        operation.setRuntimeConfigurableWrapper(new RuntimeConfigurable(operation, "operation"));
+        UnknownElement rotate = new UnknownElement("rotate");
+        RuntimeConfigurable runtimeConfigurable = new RuntimeConfigurable(rotate, "rotate");
+        runtimeConfigurable.setAttribute("pages", "*");
+        runtimeConfigurable.setAttribute("degrees", String.valueOf(degrees));
+        rotate.setRuntimeConfigurableWrapper(runtimeConfigurable);
+        operation.addChild(rotate);
+        return operation;
+    }
+
+}
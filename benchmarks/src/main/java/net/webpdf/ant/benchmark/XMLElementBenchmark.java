@@ -0,0 +1,149 @@
+package net.webpdf.ant.benchmark;
+
+import net.webpdf.ant.task.xml.XMLElement;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.RuntimeConfigurable;
+import org.apache.tools.ant.UnknownElement;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the translation of operation definitions, as they are found in a build file, to the operation XML sent to
+ * the webPDF server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XMLElementBenchmark {
+
+    @Param({"converter", "toolbox", "ocr"})
+    private String operationType;
+
+    private Project project;
+    private Map<String, String> variables;
+    private UnknownElement unknownElement;
+    private XMLElement xmlElement;
+
+    /**
+     * Creates the operation definition and resolves it once, so that the resolution may be measured separately.
+     */
+    @Setup
+    public void setup() {
+        project = new Project();
+        project.setNewProperty("language", "eng");
+        project.setNewProperty("stamp", "CONFIDENTIAL");
+        variables = new HashMap<>();
+        variables.put("pages", "1-5");
+        variables.put("degrees", "90");
+        unknownElement = createOperation(operationType);
+        xmlElement = XMLElement.parseUnknownElement(unknownElement);
+    }
+
+    /**
+     * Parses the operation definition to an XML element.
+     *
+     * @return The parsed XML element.
+     */
+    @Benchmark
+    public XMLElement parseUnknownElement() {
+        return XMLElement.parseUnknownElement(unknownElement);
+    }
+
+    /**
+     * Replaces all properties and variables of the parsed operation and marshals it to the operation XML.
+     *
+     * @return The operation XML.
+     * @throws Exception Shall be thrown, if the operation could not be marshalled.
+     */
+    @Benchmark
+    public String prepareConfiguration() throws Exception {
+        return xmlElement.prepareConfiguration(project, variables);
+    }
+
+    /**
+     * Parses the operation definition and marshals it to the operation XML, as it is done for each operation of a
+     * build file.
+     *
+     * @return The operation XML.
+     * @throws Exception Shall be thrown, if the operation could not be marshalled.
+     */
+    @Benchmark
+    public String parseAndPrepareConfiguration() throws Exception {
+        return XMLElement.parseUnknownElement(unknownElement).prepareConfiguration(project, variables);
+    }
+
+    /**
+     * Creates an operation definition of the given type, resembling the definitions found in typical build files.
+     *
+     * @param operationType The type of the operation, that shall be created.
+     * @return The created operation definition.
+     */
+    @NotNull
+    private static UnknownElement createOperation(@NotNull String operationType) {
+        UnknownElement operation = createElement("operation");
+        switch (operationType) {
+            case "toolbox":
+                operation.addChild(createElement("rotate", "pages", "${pages}", "degrees", "${degrees}"));
+                UnknownElement watermark = createElement("watermark", "pages", "*", "angle", "45");
+                UnknownElement text = createElement("text", "text", "${stamp}");
+                text.addChild(createElement("font", "name", "Helvetica", "size", "48", "color", "#FF0000"));
+                text.addChild(createElement("position", "x", "100", "y", "100", "unit", "mm"));
+                watermark.addChild(text);
+                operation.addChild(watermark);
+                operation.addChild(createElement("compress", "compressImages", "true"));
+                break;
+            case "ocr":
+                UnknownElement ocr = createElement("ocr", "language", "${language}", "outputFormat", "pdf",
+                    "checkResolution", "true", "imageDpi", "200", "forceEachPage", "true");
+                ocr.addChild(createElement("page", "width", "210", "height", "297", "metrics", "mm"));
+                operation.addChild(ocr);
+                break;
+            default:
+                UnknownElement converter = createElement("converter", "pages", "${pages}", "embedFonts", "true",
+                    "jpegQuality", "80", "compression", "true", "reduceResolution", "true", "dpi", "150");
+                converter.addChild(createElement("page", "width", "210", "height", "297", "metrics", "mm",
+                    "top", "20", "bottom", "20", "left", "20", "right", "20"));
+                UnknownElement pdfa = createElement("pdfa");
+                pdfa.addChild(createElement("convert", "level", "3b", "errorReport", "message"));
+                converter.addChild(pdfa);
+                operation.addChild(converter);
+        }
+        return operation;
+    }
+
+    /**
+     * Creates an element having the given attributes.
+     *
+     * @param name       The name of the element.
+     * @param attributes Alternating names and values of the attributes of the element.
+     * @return The created element.
+     */
+    @NotNull
+    private static UnknownElement createElement(@NotNull String name, @NotNull String... attributes) {
+        UnknownElement element = new UnknownElement(name);
+        RuntimeConfigurable runtimeConfigurable = new RuntimeConfigurable(element, name);
+        for (int index = 0; index + 1 < attributes.length; index += 2) {
+            runtimeConfigurable.setAttribute(attributes[index], attributes[index + 1]);
+        }
+        element.setRuntimeConfigurableWrapper(runtimeConfigurable);
+        return element;
+    }
+
+}
@@ -1,30 +1,78 @@
 package net.webpdf.ant;
 
 import net.webpdf.ant.task.AntAccess;
+import net.webpdf.ant.task.Protocol;
 import net.webpdf.ant.task.Task;
 import net.webpdf.ant.task.TaskName;
+import net.webpdf.ant.task.files.BoundedPipe;
+import net.webpdf.ant.task.files.IterativeTaskFile;
 import net.webpdf.ant.task.logging.LogTag;
+import net.webpdf.ant.task.metrics.Metrics;
+import net.webpdf.ant.task.plan.ExecutionContext;
+import net.webpdf.ant.task.server.Endpoint;
+import net.webpdf.ant.task.session.ConcurrencyLimiter;
+import net.webpdf.ant.task.session.RetryPolicy;
+import net.webpdf.ant.task.session.SessionPool;
 import net.webpdf.ant.task.variable.Variable;
 import net.webpdf.ant.task.variable.VariableRole;
 import net.webpdf.ant.task.xml.XMLElement;
+import net.webpdf.wsclient.documents.RestDocument;
+import net.webpdf.wsclient.documents.SoapDocument;
+import net.webpdf.wsclient.session.DocumentManager;
+import net.webpdf.wsclient.session.RestSession;
+import net.webpdf.wsclient.session.Session;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.TaskContainer;
 import org.apache.tools.ant.UnknownElement;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Task mapping the ant <group> tag and all it's options.
  */
 public class GroupTask extends Task implements TaskContainer {
 
+    private static final int PIPE_BUFFER_SIZE = 64 * 1024;
+
     @NotNull
     private List<OperationTask> operations = new ArrayList<>();
+    @Nullable
+    private List<OperationTask> batchedOperations = null;
+    private boolean pipelined = false;
+    private boolean batch = false;
+    private boolean sticky = false;
+    @Nullable
+    private Integer maxAttempts = null;
+    @Nullable
+    private Long retryDelay = null;
+    @Nullable
+    private Long maxRetryDelay = null;
+    @Nullable
+    private Double retryJitter = null;
+    @Nullable
+    private Set<Integer> retryCodes = null;
+    @Nullable
+    private volatile CompiledGroup compiledGroup = null;
 
     /**
      * A Group Task shall be able to contain individual operations, that are bundled to one sequential groups, defining
@@ -41,63 +89,147 @@ public class GroupTask extends Task implements TaskContainer {
      */
     @Override
     public void execute() {
+        if (getFiles() == null) {
+            throw new BuildException("The operation tasks definition is incomplete");
+        }
+        try {
+            execute(new ExecutionContext(getFiles(), getTaskConfiguration().getRetryPolicy()));
+        } finally {
+            getTaskConfiguration().closeStageExecutor();
+        }
+    }
+
+    /**
+     * Executes the compiled group for the source file of the given context. Neither this group nor it's operations are
+     * altered, so that the group may be executed for several source files concurrently. The group is compiled, if it
+     * has not been compiled before.
+     *
+     * @param context The context of the processed source file.
+     */
+    void execute(@NotNull ExecutionContext context) {
         getLogger().info(LogTag.GROUP);
 
-        if (getFiles() == null || getProject() == null) {
+        if (getProject() == null) {
             throw new BuildException("The operation tasks definition is incomplete");
         }
 
+        CompiledGroup group = compiledGroup != null ? compiledGroup : compile();
+        IterativeTaskFile files = context.getFiles();
         File storedSource = null;
-        if (getVariables().getVar(VariableRole.OUTPUT) != null) {
-            storedSource = getFiles().getCurrentSource();
-            getFiles().preserveCurrentSource();
+        try {
+            if (group.output != null) {
+                storedSource = files.getCurrentSource();
+                files.preserveCurrentSource();
+            }
+
+            initialize(group, files);
+            Metrics metrics = getTaskConfiguration().getMetrics();
+            long startTime = System.nanoTime();
+            try {
+                processOperations(group, context);
+            } finally {
+                if (metrics != null) {
+                    metrics.recordPhase(Metrics.PHASE_GROUP, startTime);
+                }
+            }
+            publishResult(group, files, storedSource);
+        } catch (IOException ex) {
+            throw new BuildException("Intermediate result could not be written to temporary file.", ex);
         }
+    }
 
-        initialize();
-        processOperations();
-        publishResult(storedSource);
+    /**
+     * Compiles the definition of this group: The operations are batched (if requested) and bound to the task
+     * configuration, the retry policy is resolved and the input and output variables are bound. The compiled group is
+     * used by all following executions - it shall be compiled again, if the definition has been changed.
+     *
+     * @return The compiled group.
+     */
+    @NotNull
+    synchronized CompiledGroup compile() {
+        List<OperationTask> compiledOperations = new ArrayList<>(getOperations());
+        for (OperationTask operation : compiledOperations) {
+            operation.setTaskConfiguration(getTaskConfiguration());
+        }
+        compiledGroup = new CompiledGroup(
+            Collections.unmodifiableList(compiledOperations),
+            getRetryPolicy(),
+            getVariables().getVar(VariableRole.INPUT),
+            getVariables().getVar(VariableRole.OUTPUT),
+            getTaskConfiguration().isFailOnError(),
+            getTaskConfiguration().getProtocol() == Protocol.REST && !compiledOperations.isEmpty(),
+            pipelined,
+            sticky);
+        if (pipelined && !compiledGroup.stored && compiledOperations.size() > 1) {
+            getTaskConfiguration().requirePipelineWidth(compiledOperations.size());
+        }
+        return compiledGroup;
     }
 
     /**
      * Prepare variables and sources for processing.
+     *
+     * @param group The compiled group.
+     * @param files The files of the processed source file.
      */
-    private void initialize() {
+    private void initialize(@NotNull CompiledGroup group, @NotNull IterativeTaskFile files) {
         //Init file iteration and source
-        if (getVariables().isRoleTaken(VariableRole.INPUT)) {
-            Variable input = getVariables().getVar(VariableRole.INPUT);
-            if (input != null) {
-                input.execute();
-                File srcFile = new File(getProject().replaceProperties(getProject().getProperty(input.getName())));
-                if (!srcFile.exists() || !srcFile.isFile() || !srcFile.canRead()) {
-                    if (getTaskConfiguration().isFailOnError()) {
-                        throw new BuildException("The set source file can not be read: " + input);
-                    }
-                    getLogger().warn("The group is skipped, as the set source file can not be read: " + input, LogTag.GROUP);
-                    return;
-                }
-                if (getFiles() != null) {
-                    getFiles().setCurrentSource(srcFile, true);
+        Variable input = group.input;
+        if (input != null) {
+            input.execute();
+            String srcPath = files.replaceVariables(getProject().getProperty(input.getName()));
+            File srcFile = new File(getProject().replaceProperties(srcPath));
+            if (!srcFile.exists() || !srcFile.isFile() || !srcFile.canRead()) {
+                if (group.failOnError) {
+                    throw new BuildException("The set source file can not be read: " + input);
                 }
+                getLogger().warn("The group is skipped, as the set source file can not be read: " + input, LogTag.GROUP);
+                return;
             }
+            files.setCurrentSource(srcFile, true);
         }
     }
 
     /**
      * Execute operation sequence.
+     *
+     * @param group   The compiled group.
+     * @param context The context of the processed source file.
      */
-    private void processOperations() {
+    private void processOperations(@NotNull CompiledGroup group, @NotNull ExecutionContext context) {
+        List<OperationTask> operations = group.operations;
+        IterativeTaskFile files = context.getFiles();
+        Endpoint stickyEndpoint = group.sticky ? selectEndpoint() : null;
+        if (group.stored || group.pipelined && operations.size() > 1) {
+            try {
+                OperationTask.executeWithRetry(this, group.retryPolicy, files, LogTag.GROUP, stickyEndpoint,
+                    endpoint -> {
+                        if (group.stored) {
+                            processStored(endpoint, group, files);
+                        } else {
+                            processPipelined(endpoint, group, files);
+                        }
+                    });
+            } catch (BuildException ex) {
+                if (group.failOnError) {
+                    throw ex;
+                } else {
+                    getLogger().warn(ex.getMessage(), ex, LogTag.GROUP);
+                }
+            }
+            return;
+        }
+        ExecutionContext operationContext = context.withRetryPolicy(group.retryPolicy).withEndpoint(stickyEndpoint);
         Iterator<OperationTask> iter = operations.iterator();
         while (iter.hasNext()) {
             OperationTask operation = iter.next();
             try {
-                operation.setFiles(getFiles());
-                operation.setTaskConfiguration(getTaskConfiguration());
-                operation.execute();
-                if (getFiles() != null && (!getVariables().isRoleTaken(VariableRole.OUTPUT) || iter.hasNext())) {
-                    getFiles().prepareNextOperation();
+                operation.execute(operationContext);
+                if (group.output == null || iter.hasNext()) {
+                    files.prepareNextOperation();
                 }
             } catch (BuildException ex) {
-                if (getTaskConfiguration().isFailOnError()) {
+                if (group.failOnError) {
                     throw ex;
                 } else {
                     getLogger().warn(ex.getMessage(), ex, LogTag.GROUP);
@@ -106,15 +238,381 @@ public class GroupTask extends Task implements TaskContainer {
         }
     }
 
+    /**
+     * Selects the webPDF server, all operations of this group shall stick to for the currently processed source file.
+     *
+     * @return The webPDF server, the operations shall stick to.
+     * @throws BuildException Shall be thrown, if a given server url is invalid.
+     */
+    @NotNull
+    private Endpoint selectEndpoint() throws BuildException {
+        try {
+            return getTaskConfiguration().getLoadBalancer(getLogger()).select();
+        } catch (MalformedURLException ex) {
+            throw new BuildException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Executes all operations at the same time, streaming the result of each operation directly to the request of the
+     * following operation, using a bounded buffer. The intermediate results are never stored entirely. If any of the
+     * operations fails, the whole sequence fails - the caller shall drop or discard it's partial result.
+     *
+     * @param endpoint The webPDF server all operations shall be sent to.
+     * @param group    The compiled group, that shall be executed.
+     * @param files    The files of the currently processed source file.
+     * @throws BuildException Shall be thrown, if any of the operations failed.
+     */
+    private void processPipelined(@NotNull Endpoint endpoint, @NotNull CompiledGroup group,
+        @NotNull IterativeTaskFile files) throws BuildException {
+        List<OperationTask> operations = group.operations;
+        int stages = operations.size();
+        List<byte[]> configurations = new ArrayList<>(stages);
+        for (OperationTask operation : operations) {
+            configurations.add(operation.renderConfiguration(files));
+        }
+
+        ConcurrencyLimiter concurrencyLimiter = getTaskConfiguration().getConcurrencyLimiter();
+        SessionPool sessionPool = endpoint.getSessionPool();
+        List<Session> sessions;
+        long startTime = 0;
+        try {
+            if (sessionPool.getMaxSessions() < stages) {
+                throw new BuildException(String.format(
+                    "The pipelined group requires %d connections, but only %d connections may be opened.",
+                    stages, sessionPool.getMaxSessions()));
+            }
+            if (concurrencyLimiter != null) {
+                startTime = concurrencyLimiter.acquire(stages);
+            }
+            try {
+                sessions = sessionPool.borrow(stages);
+            } catch (IOException | InterruptedException | RuntimeException ex) {
+                if (concurrencyLimiter != null) {
+                    concurrencyLimiter.release(stages, startTime, ConcurrencyLimiter.Outcome.IGNORED);
+                }
+                throw ex;
+            }
+        } catch (IOException ex) {
+            throw new BuildException(ex.getMessage(), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("The group has been interrupted.", ex);
+        }
+
+        boolean[] reusable = new boolean[stages];
+        Arrays.fill(reusable, true);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        ExecutorService executor = getTaskConfiguration().getStageExecutor();
+        List<Future<?>> running = new ArrayList<>(stages - 1);
+        try {
+            InputStream[] inputs = new InputStream[stages];
+            OutputStream[] outputs = new OutputStream[stages];
+            try {
+                inputs[0] = files.openCurrentSource();
+                for (int stage = 0; stage < stages - 1; stage++) {
+                    BoundedPipe pipe = new BoundedPipe(PIPE_BUFFER_SIZE);
+                    outputs[stage] = pipe.getOutputStream();
+                    inputs[stage + 1] = pipe.getInputStream();
+                }
+                outputs[stages - 1] = files.openCurrentTarget();
+            } catch (IOException ex) {
+                closeQuietly(inputs);
+                closeQuietly(outputs);
+                throw new BuildException(ex.getMessage(), ex);
+            }
+
+            for (int stage = 0; stage < stages; stage++) {
+                int index = stage;
+                Runnable process = () -> {
+                    try (InputStream input = inputs[index]; OutputStream output = outputs[index];
+                         SoapDocument soapDocument = new SoapDocument(input, output)) {
+                        operations.get(index).process(sessions.get(index), configurations.get(index), soapDocument);
+                    } catch (BuildException ex) {
+                        failure.compareAndSet(null, ex);
+                    } catch (IOException ex) {
+                        reusable[index] = false;
+                        failure.compareAndSet(null, ex);
+                    }
+                };
+                if (index < stages - 1) {
+                    running.add(executor.submit(process));
+                } else {
+                    process.run();
+                }
+            }
+            for (Future<?> stage : running) {
+                stage.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, ex);
+        } catch (ExecutionException ex) {
+            failure.compareAndSet(null, ex);
+        } finally {
+            //THE EXECUTOR IS SHARED - ONLY THE STAGES OF THIS SOURCE FILE SHALL BE INTERRUPTED.
+            for (Future<?> stage : running) {
+                stage.cancel(true);
+            }
+            for (int stage = 0; stage < stages; stage++) {
+                sessionPool.release(sessions.get(stage), reusable[stage]);
+            }
+            if (concurrencyLimiter != null) {
+                concurrencyLimiter.release(stages, startTime, failure.get() == null ? ConcurrencyLimiter.Outcome.SUCCESS :
+                    ConcurrencyLimiter.isOverload(failure.get()) ? ConcurrencyLimiter.Outcome.OVERLOAD :
+                        ConcurrencyLimiter.Outcome.IGNORED);
+            }
+        }
+
+        Exception cause = failure.get();
+        if (cause != null) {
+            if (cause instanceof BuildException) {
+                throw (BuildException) cause;
+            }
+            throw new BuildException(cause.getMessage(), cause);
+        }
+        if (group.output == null) {
+            files.prepareNextOperation();
+        }
+    }
+
+    /**
+     * Executes all operations on a copy of the current source, that is stored by the webPDF server. The source is
+     * uploaded once, each operation processes the stored result of the previous operation and only the final result is
+     * downloaded to the current target. The stored documents are deleted afterwards. If any of the operations fails,
+     * the whole sequence fails - the caller shall drop or discard it's partial result.
+     *
+     * @param endpoint The webPDF server all operations shall be sent to.
+     * @param group    The compiled group, that shall be executed.
+     * @param files    The files of the currently processed source file.
+     * @throws BuildException Shall be thrown, if any of the operations failed.
+     */
+    private void processStored(@NotNull Endpoint endpoint, @NotNull CompiledGroup group,
+        @NotNull IterativeTaskFile files) throws BuildException {
+        List<OperationTask> operations = group.operations;
+        List<byte[]> configurations = new ArrayList<>(operations.size());
+        for (OperationTask operation : operations) {
+            configurations.add(operation.renderConfiguration(files));
+        }
+
+        ConcurrencyLimiter concurrencyLimiter = getTaskConfiguration().getConcurrencyLimiter();
+        SessionPool sessionPool = endpoint.getSessionPool();
+        Session session;
+        long startTime = 0;
+        try {
+            if (concurrencyLimiter != null) {
+                startTime = concurrencyLimiter.acquire(1);
+            }
+            try {
+                session = sessionPool.borrow();
+            } catch (IOException | InterruptedException | RuntimeException ex) {
+                if (concurrencyLimiter != null) {
+                    concurrencyLimiter.release(1, startTime, ConcurrencyLimiter.Outcome.IGNORED);
+                }
+                throw ex;
+            }
+        } catch (IOException ex) {
+            throw new BuildException(ex.getMessage(), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("The group has been interrupted.", ex);
+        }
+
+        ConcurrencyLimiter.Outcome outcome = ConcurrencyLimiter.Outcome.IGNORED;
+        boolean reusable = true;
+        try {
+            if (!(session instanceof RestSession)) {
+                throw new BuildException("The session does not provide a document storage.");
+            }
+            processStoredDocument(new SessionDocumentStorage((RestSession) session), operations, configurations, files);
+            outcome = ConcurrencyLimiter.Outcome.SUCCESS;
+        } catch (BuildException ex) {
+            outcome = ConcurrencyLimiter.isOverload(ex) ? ConcurrencyLimiter.Outcome.OVERLOAD : outcome;
+            throw ex;
+        } catch (IOException ex) {
+            outcome = ConcurrencyLimiter.isOverload(ex) ? ConcurrencyLimiter.Outcome.OVERLOAD : outcome;
+            reusable = false;
+            throw new BuildException(ex.getMessage(), ex);
+        } finally {
+            sessionPool.release(session, reusable);
+            if (concurrencyLimiter != null) {
+                concurrencyLimiter.release(1, startTime, outcome);
+            }
+        }
+        if (group.output == null) {
+            files.prepareNextOperation();
+        }
+    }
+
+    /**
+     * Uploads the current source to the given document storage, processes the stored document by all given operations
+     * one after another and downloads the final result to the current target. All stored documents shall be deleted
+     * afterwards - unless the storage itself failed, as the session is discarded then and the documents of a discarded
+     * session are discarded by the webPDF server anyway.
+     *
+     * @param storage        The document storage of the session, the operations shall be executed by.
+     * @param operations     The operations, that shall process the stored document.
+     * @param configurations The rendered XML configurations of the operations.
+     * @param files          The files of the currently processed source.
+     * @throws BuildException Shall be thrown, if a webservice rejected the call.
+     * @throws IOException    Shall be thrown, if the communication with the document storage failed.
+     */
+    void processStoredDocument(@NotNull DocumentStorage storage, @NotNull List<OperationTask> operations,
+        @NotNull List<byte[]> configurations, @NotNull IterativeTaskFile files) throws BuildException, IOException {
+        Metrics metrics = getTaskConfiguration().getMetrics();
+        Set<String> storedDocuments = new LinkedHashSet<>();
+        boolean deleteStoredDocuments = true;
+        try {
+            long sourceSize = files.getCurrentSourceSize();
+            RestDocument document = storage.upload(files.getCurrentSource());
+            storedDocuments.add(document.getSourceDocumentId());
+            for (int index = 0; index < operations.size(); index++) {
+                OperationTask operation = operations.get(index);
+                long operationStart = System.nanoTime();
+                try {
+                    document = storage.process(operation, configurations.get(index), document);
+                } finally {
+                    if (metrics != null) {
+                        metrics.recordPhase(Metrics.PHASE_OPERATION + operation.getOperationType(), operationStart);
+                    }
+                }
+                storedDocuments.add(document.getSourceDocumentId());
+            }
+            try (OutputStream targetStream = files.openCurrentTarget()) {
+                storage.download(document, targetStream);
+            }
+            if (metrics != null) {
+                metrics.recordTransfer(sourceSize, files.getCurrentResultSize(), !files.isCurrentResultInMemory());
+            }
+        } catch (IOException ex) {
+            //THE DOCUMENTS OF A DISCARDED SESSION ARE DISCARDED BY THE SERVER ANYWAY.
+            deleteStoredDocuments = false;
+            throw ex;
+        } finally {
+            if (deleteStoredDocuments) {
+                deleteStoredDocuments(storage, storedDocuments);
+            }
+        }
+    }
+
+    /**
+     * Attempts to delete the given documents from the document storage of the webPDF server.
+     *
+     * @param storage     The document storage, the documents have been stored in.
+     * @param documentIds The IDs of the stored documents.
+     */
+    private void deleteStoredDocuments(@NotNull DocumentStorage storage, @NotNull Set<String> documentIds) {
+        for (String documentId : documentIds) {
+            if (documentId == null) {
+                continue;
+            }
+            try {
+                storage.delete(documentId);
+            } catch (IOException | RuntimeException ex) {
+                getLogger().warn("The stored document could not be deleted: " + documentId, ex, LogTag.GROUP);
+            }
+        }
+    }
+
+    /**
+     * Adds the configuration of all operations of this group to the given digest. The digest shall change, whenever a
+     * change of the group could change the result.
+     *
+     * @param digest The digest the configuration shall be added to.
+     * @throws BuildException Shall be thrown if the configuration of an operation could not be rendered.
+     */
+    void digestConfiguration(@NotNull MessageDigest digest) throws BuildException {
+        for (VariableRole role : VariableRole.values()) {
+            Variable variable = getVariables().getVar(role);
+            if (variable != null && variable.getName() != null) {
+                digest.update((role.name() + "=" + variable.getName() + ";").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        for (OperationTask operation : operations) {
+            operation.digestConfiguration(digest);
+        }
+    }
+
+    /**
+     * Returns the operations, that shall be executed for each source file. If batching is enabled, adjacent toolbox
+     * operations are combined to one operation, so that they are processed by one call of the toolbox webservice.
+     *
+     * @return The operations, that shall be executed.
+     */
+    @NotNull
+    private synchronized List<OperationTask> getOperations() {
+        if (!batch) {
+            return operations;
+        }
+        if (batchedOperations == null) {
+            List<OperationTask> batched = new ArrayList<>();
+            List<OperationTask> toolboxOperations = new ArrayList<>();
+            for (OperationTask operation : operations) {
+                if (operation.isToolboxOperation()) {
+                    toolboxOperations.add(operation);
+                    continue;
+                }
+                batchToolboxOperations(toolboxOperations, batched);
+                batched.add(operation);
+            }
+            batchToolboxOperations(toolboxOperations, batched);
+            batchedOperations = batched;
+        }
+        return batchedOperations;
+    }
+
+    /**
+     * Combines the given toolbox operations to one operation, that is appended to the given batched operations.
+     *
+     * @param toolboxOperations The adjacent toolbox operations, that shall be combined. (Cleared afterwards.)
+     * @param batched           The operations the combined operation shall be appended to.
+     */
+    private void batchToolboxOperations(@NotNull List<OperationTask> toolboxOperations, @NotNull List<OperationTask> batched) {
+        if (toolboxOperations.size() == 1) {
+            batched.add(toolboxOperations.get(0));
+        } else if (toolboxOperations.size() > 1) {
+            List<XMLElement> xmlElements = new ArrayList<>();
+            for (OperationTask operation : toolboxOperations) {
+                xmlElements.add(operation.getXMLElement());
+            }
+            OperationTask operationTask = new OperationTask(XMLElement.mergeToolboxOperations(xmlElements), getProject());
+            operationTask.setLocation(toolboxOperations.get(0).getLocation());
+            batched.add(operationTask);
+            getLogger().info(String.format("%d toolbox operations have been combined to one call.", toolboxOperations.size()), LogTag.GROUP);
+        }
+        toolboxOperations.clear();
+    }
+
+    /**
+     * Attempts to close the given streams, ignoring all failures.
+     *
+     * @param streams The streams, that shall be closed.
+     */
+    private static void closeQuietly(@NotNull Closeable[] streams) {
+        for (Closeable stream : streams) {
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (IOException ignore) {
+                    //A FAILURE TO CLOSE AN UNUSED STREAM IS IRRELEVANT.
+                }
+            }
+        }
+    }
+
     /**
      * Publish result if needed and cleanup.
      *
+     * @param group        The compiled group.
+     * @param files        The files of the processed source file.
      * @param storedSource A source file, that shall be restored, after the execution of the current group.
+     * @throws IOException Shall be thrown if the result held in memory could not be written to a temporary file.
      */
-    private void publishResult(@Nullable File storedSource) {
-        if (getFiles() != null && getVariables().isRoleTaken(VariableRole.OUTPUT) && storedSource != null) {
-            getFiles().tryPublish(getVariables().getVar(VariableRole.OUTPUT));
-            getFiles().setCurrentSource(storedSource, false);
+    private void publishResult(@NotNull CompiledGroup group, @NotNull IterativeTaskFile files,
+        @Nullable File storedSource) throws IOException {
+        if (group.output != null && storedSource != null) {
+            files.tryPublish(group.output);
+            files.setCurrentSource(storedSource, false);
         }
     }
 
@@ -144,8 +642,202 @@ public class GroupTask extends Task implements TaskContainer {
         if (task != null) {
             OperationTask operationTask = new OperationTask(XMLElement.parseUnknownElement(task), getProject());
             operationTask.setLocation(task.getLocation());
-            operations.add(operationTask);
+            synchronized (this) {
+                operations.add(operationTask);
+                batchedOperations = null;
+            }
+        }
+    }
+
+    /**
+     * When set to true, all operations of this group shall be executed at the same time for a source file - the result
+     * of each operation is streamed directly to the following operation, instead of being stored in between. This
+     * requires one connection to the webPDF server per operation - unless a maximum number of connections has been set,
+     * the connections are provided accordingly. If any operation fails, the whole group fails.
+     * (DEFAULT is false)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param pipelined True, if the operations of this group shall be pipelined.
+     */
+    @AntAccess
+    public void setPipelined(boolean pipelined) {
+        this.pipelined = pipelined;
+    }
+
+    /**
+     * When set to true, adjacent operations of this group, that solely consist of toolbox actions, shall be combined to
+     * one call of the toolbox webservice. If such a combined call fails, none of it's actions is applied.
+     * (DEFAULT is false)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param batch True, if adjacent toolbox operations shall be combined.
+     */
+    @AntAccess
+    public synchronized void setBatch(boolean batch) {
+        this.batch = batch;
+        this.batchedOperations = null;
+    }
+
+    /**
+     * When set to true, all operations of this group shall be sent to the same webPDF server for a source file, instead
+     * of spreading each call across all servers. (DEFAULT is false)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param sticky True, if all operations of this group shall stick to one webPDF server.
+     */
+    @AntAccess
+    public void setSticky(boolean sticky) {
+        this.sticky = sticky;
+    }
+
+    /**
+     * This will set the maximum number of attempts for a single webservice call of this group, overriding the setting
+     * of the webPDF task. A pipelined group is repeated as a whole.
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param maxAttempts The maximum number of attempts for a single webservice call.
+     */
+    @AntAccess
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * This will set the delay (in milliseconds) before the first retry of a failed webservice call of this group,
+     * overriding the setting of the webPDF task.
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param retryDelay The delay before the first retry.
+     */
+    @AntAccess
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * This will set the maximum delay (in milliseconds) between two attempts of a webservice call of this group,
+     * overriding the setting of the webPDF task.
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param maxRetryDelay The maximum delay between two attempts.
+     */
+    @AntAccess
+    public void setMaxRetryDelay(long maxRetryDelay) {
+        this.maxRetryDelay = maxRetryDelay;
+    }
+
+    /**
+     * This will set the fraction (0 to 1) by which the delay between two attempts may randomly be shortened,
+     * overriding the setting of the webPDF task.
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param retryJitter The jitter of the delays.
+     */
+    @AntAccess
+    public void setRetryJitter(double retryJitter) {
+        this.retryJitter = retryJitter;
+    }
+
+    /**
+     * This will set a comma separated list of webservice error codes (EC), that shall be retried, overriding the
+     * setting of the webPDF task.
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param retryCodes The comma separated error codes, that shall be retried.
+     */
+    @AntAccess
+    public void setRetryCodes(@Nullable String retryCodes) {
+        try {
+            this.retryCodes = RetryPolicy.parseRetryCodes(retryCodes);
+        } catch (NumberFormatException ex) {
+            String errorMessage = String.format("The given retry codes are invalid: %s", retryCodes);
+            getLogger().error(errorMessage, LogTag.GROUP);
+            throw new BuildException(errorMessage, getLocation());
+        }
+    }
+
+    /**
+     * Returns the retry policy of the webPDF task, overridden by the retry settings of this group.
+     *
+     * @return The retry policy of this group.
+     */
+    @NotNull
+    private RetryPolicy getRetryPolicy() {
+        RetryPolicy inherited = getTaskConfiguration().getRetryPolicy();
+        if (maxAttempts == null && retryDelay == null && maxRetryDelay == null && retryJitter == null
+            && retryCodes == null) {
+            return inherited;
+        }
+        return new RetryPolicy(
+            maxAttempts != null ? maxAttempts : inherited.getMaxAttempts(),
+            retryDelay != null ? retryDelay : inherited.getRetryDelay(),
+            maxRetryDelay != null ? maxRetryDelay : inherited.getMaxRetryDelay(),
+            retryJitter != null ? retryJitter : inherited.getRetryJitter(),
+            retryCodes != null ? retryCodes : inherited.getRetryCodes());
+    }
+
+    /**
+     * Returns true, if this group branches off the currently processed source file: It publishes it's result to an
+     * output variable, so that the source of the following groups remains unchanged.
+     *
+     * @return True, if this group branches off the currently processed source file.
+     */
+    boolean isBranch() {
+        return getVariables().isRoleTaken(VariableRole.OUTPUT);
+    }
+
+    /**
+     * Returns the name of the variable this group reads it's source from.
+     *
+     * @return The name of the input variable, or null if the group processes the current source file.
+     */
+    @Nullable
+    String getInputName() {
+        Variable input = getVariables().getVar(VariableRole.INPUT);
+        return input != null ? input.getName() : null;
+    }
+
+    /**
+     * Returns the name of the variable this group publishes it's result to.
+     *
+     * @return The name of the output variable, or null if no output variable has been set.
+     */
+    @Nullable
+    String getOutputName() {
+        Variable output = getVariables().getVar(VariableRole.OUTPUT);
+        return output != null ? output.getName() : null;
+    }
+
+    /**
+     * Returns true, if the input variable or any operation of this group references the variable of the given name.
+     *
+     * @param name The name of the variable.
+     * @return True, if the variable is referenced by this group.
+     */
+    boolean referencesVariable(@Nullable String name) {
+        if (name == null) {
+            return false;
+        }
+        Variable input = getVariables().getVar(VariableRole.INPUT);
+        if (input != null && (name.equals(input.getName())
+                                  || input.getValue() != null && input.getValue().contains("${" + name + "}"))) {
+            return true;
+        }
+        for (OperationTask operation : operations) {
+            XMLElement xmlElement = operation.getXMLElement();
+            if (xmlElement != null && xmlElement.referencesVariable(name)) {
+                return true;
+            }
         }
+        return false;
     }
 
     /**
@@ -161,4 +853,145 @@ public class GroupTask extends Task implements TaskContainer {
         }
     }
 
+    /**
+     * The document storage of a webPDF server, a source shall be uploaded to, processed in by a chain of operations and
+     * downloaded from.
+     */
+    interface DocumentStorage {
+
+        /**
+         * Uploads the given file to the document storage.
+         *
+         * @param source The file, that shall be uploaded.
+         * @return The stored document.
+         * @throws IOException Shall be thrown, if the upload failed.
+         */
+        @NotNull
+        RestDocument upload(@NotNull File source) throws IOException;
+
+        /**
+         * Processes the given stored document by the given operation. The result shall be stored as well.
+         *
+         * @param operation     The operation, that shall process the document.
+         * @param configuration The rendered XML configuration of the operation.
+         * @param document      The stored document, that shall be processed.
+         * @return The stored result.
+         * @throws BuildException Shall be thrown, if the webservice rejected the call.
+         * @throws IOException    Shall be thrown, if the communication with the webservice failed.
+         */
+        @NotNull
+        RestDocument process(@NotNull OperationTask operation, @NotNull byte[] configuration,
+            @NotNull RestDocument document) throws BuildException, IOException;
+
+        /**
+         * Downloads the given stored document to the given stream.
+         *
+         * @param document The stored document, that shall be downloaded.
+         * @param target   The stream the document shall be written to.
+         * @throws IOException Shall be thrown, if the download failed.
+         */
+        void download(@NotNull RestDocument document, @NotNull OutputStream target) throws IOException;
+
+        /**
+         * Deletes the given document from the document storage.
+         *
+         * @param documentId The ID of the stored document.
+         * @throws IOException Shall be thrown, if the document could not be deleted.
+         */
+        void delete(@NotNull String documentId) throws IOException;
+
+    }
+
+    /**
+     * The document storage of a logged in REST session.
+     */
+    private static class SessionDocumentStorage implements DocumentStorage {
+
+        @NotNull
+        private final RestSession session;
+        @NotNull
+        private final DocumentManager documentManager;
+
+        /**
+         * Creates the document storage of the given REST session.
+         *
+         * @param session The REST session, the documents shall be stored by.
+         */
+        private SessionDocumentStorage(@NotNull RestSession session) {
+            this.session = session;
+            this.documentManager = session.getDocumentManager();
+        }
+
+        @NotNull
+        @Override
+        public RestDocument upload(@NotNull File source) throws IOException {
+            return documentManager.uploadDocument(source);
+        }
+
+        @NotNull
+        @Override
+        public RestDocument process(@NotNull OperationTask operation, @NotNull byte[] configuration,
+            @NotNull RestDocument document) throws BuildException, IOException {
+            return operation.process(session, configuration, document);
+        }
+
+        @Override
+        public void download(@NotNull RestDocument document, @NotNull OutputStream target) throws IOException {
+            documentManager.downloadDocument(document, target);
+        }
+
+        @Override
+        public void delete(@NotNull String documentId) throws IOException {
+            documentManager.deleteDocument(documentId);
+        }
+
+    }
+
+    /**
+     * The compiled definition of a group: The operations, the variable bindings and the error policy. A compiled group
+     * is never altered and may therefore be executed for several source files concurrently.
+     */
+    private static class CompiledGroup {
+
+        @NotNull
+        private final List<OperationTask> operations;
+        @NotNull
+        private final RetryPolicy retryPolicy;
+        @Nullable
+        private final Variable input;
+        @Nullable
+        private final Variable output;
+        private final boolean failOnError;
+        private final boolean stored;
+        private final boolean pipelined;
+        private final boolean sticky;
+
+        /**
+         * Creates the compiled definition of a group.
+         *
+         * @param operations  The operations, that shall be executed.
+         * @param retryPolicy The policy defining whether and when failed webservice calls shall be repeated.
+         * @param input       The variable the source shall be read from, or null if the current source shall be used.
+         * @param output      The variable the result shall be published to, or null if the result shall become the
+         *                    current source.
+         * @param failOnError True, if a failed operation shall fail the group.
+         * @param stored      True, if the operations shall be executed on a document stored by the webPDF server.
+         * @param pipelined   True, if the operations shall be pipelined.
+         * @param sticky      True, if all operations shall stick to one webPDF server.
+         */
+        private CompiledGroup(@NotNull List<OperationTask> operations, @NotNull RetryPolicy retryPolicy,
+            @Nullable Variable input, @Nullable Variable output, boolean failOnError, boolean stored, boolean pipelined,
+            boolean sticky) {
+            this.operations = operations;
+            this.retryPolicy = retryPolicy;
+            this.input = input;
+            this.output = output;
+            this.failOnError = failOnError;
+            this.stored = stored;
+            this.pipelined = pipelined;
+            this.sticky = sticky;
+        }
+
+    }
+
 }
@@ -2,25 +2,41 @@ package net.webpdf.ant;
 
 import net.webpdf.ant.task.Task;
 import net.webpdf.ant.task.TaskName;
+import net.webpdf.ant.task.cache.ResultCache;
+import net.webpdf.ant.task.files.IterativeTaskFile;
 import net.webpdf.ant.task.logging.LogTag;
+import net.webpdf.ant.task.metrics.Metrics;
+import net.webpdf.ant.task.plan.ExecutionContext;
+import net.webpdf.ant.task.server.Endpoint;
+import net.webpdf.ant.task.server.LoadBalancer;
+import net.webpdf.ant.task.session.ConcurrencyLimiter;
+import net.webpdf.ant.task.session.RetryPolicy;
+import net.webpdf.ant.task.session.SessionPool;
+import net.webpdf.ant.task.xml.OperationTemplate;
 import net.webpdf.ant.task.xml.XMLElement;
 import net.webpdf.wsclient.WebService;
 import net.webpdf.wsclient.WebServiceFactory;
-import net.webpdf.wsclient.WebServiceProtocol;
+import net.webpdf.wsclient.documents.RestDocument;
 import net.webpdf.wsclient.documents.SoapDocument;
 import net.webpdf.wsclient.exception.ResultException;
 import net.webpdf.wsclient.session.Session;
-import net.webpdf.wsclient.session.SessionFactory;
-import org.apache.http.auth.Credentials;
+import org.apache.commons.io.IOUtils;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
-import org.apache.tools.ant.filters.StringInputStream;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import javax.xml.bind.JAXBException;
 import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
+import java.security.MessageDigest;
+import java.util.Collections;
 
 /**
  * Task mapping the ant <operation> tag and all it's options.
@@ -29,15 +45,20 @@ public class OperationTask extends Task {
 
     @Nullable
     private final XMLElement xmlElement;
+    @Nullable
+    private final OperationTemplate operationTemplate;
 
     /**
      * Each operation task shall represent one call to a webPDF webservice and therefore shall contain all necessary
      * options in a XML substructure, that is conforming to the XSD schema defined by the webPDF server.
      * Unknown sub elements of this task shall be treated as pure XML content and shall not be wrapped in Task instances.
+     * The XML substructure is compiled once and shall be reused for each execution of this operation.
+     * If intermediate results may be held in memory, source and result shall be streamed from and to memory.
      */
     OperationTask(@Nullable XMLElement xmlElement, @Nullable Project project) {
         super(TaskName.OPERATION);
         this.xmlElement = xmlElement;
+        this.operationTemplate = xmlElement != null ? new OperationTemplate(xmlElement) : null;
         setProject(project);
     }
 
@@ -48,31 +69,367 @@ public class OperationTask extends Task {
      */
     @Override
     public void execute() throws BuildException {
+        if (getFiles() == null) {
+            throw new BuildException("The operation tasks definition is incomplete");
+        }
+        execute(new ExecutionContext(getFiles(), getTaskConfiguration().getRetryPolicy()));
+    }
+
+    /**
+     * Executes the operation for the source file of the given context. This operation itself is not altered, so that
+     * it may be executed for several source files concurrently.
+     *
+     * @param context The context of the processed source file.
+     * @throws BuildException Shall be thrown, if the operation failed.
+     */
+    void execute(@NotNull ExecutionContext context) throws BuildException {
+        if (operationTemplate == null || xmlElement == null || getProject() == null) {
+            throw new BuildException("The operation tasks definition is incomplete");
+        }
+        Metrics metrics = getTaskConfiguration().getMetrics();
+        long startTime = System.nanoTime();
+        try {
+            executeOperation(context);
+        } finally {
+            if (metrics != null) {
+                metrics.recordPhase(Metrics.PHASE_OPERATION + getOperationType(), startTime);
+            }
+        }
+    }
+
+    /**
+     * Executes the operation for the current source, reusing a cached result if possible.
+     *
+     * @param context The context of the processed source file.
+     * @throws BuildException Shall be thrown, if the operation failed.
+     */
+    private void executeOperation(@NotNull ExecutionContext context) throws BuildException {
+        IterativeTaskFile files = context.getFiles();
+        byte[] configuration = renderConfiguration(files);
+        ResultCache resultCache;
+        String cacheKey = null;
+        try {
+            resultCache = getTaskConfiguration().getResultCache();
+            if (resultCache != null) {
+                Endpoint endpoint = context.getEndpoint();
+                String server = endpoint != null ?
+                                    endpoint.getServerURL().toString() :
+                                    getTaskConfiguration().getLoadBalancer(getLogger()).getIdentity();
+                try (InputStream sourceStream = files.openCurrentSource()) {
+                    cacheKey = ResultCache.createKey(server, configuration, sourceStream);
+                }
+                if (reuseCachedResult(resultCache, cacheKey, files)) {
+                    return;
+                }
+            }
+        } catch (IOException ex) {
+            throw new BuildException(ex.getMessage(), ex);
+        }
+
+        long sourceSize = files.getCurrentSourceSize();
+        executeWithRetry(this, context.getRetryPolicy(), files, LogTag.OPERATION, context.getEndpoint(),
+            selected -> callWebservice(selected, configuration, files));
+        Metrics metrics = getTaskConfiguration().getMetrics();
+        if (metrics != null) {
+            metrics.recordTransfer(sourceSize, files.getCurrentResultSize(), !files.isCurrentResultInMemory());
+        }
+
+        if (resultCache != null && cacheKey != null) {
+            try (InputStream resultStream = files.openCurrentResult()) {
+                resultCache.store(cacheKey, resultStream);
+            } catch (IOException ex) {
+                getLogger().warn("The result could not be cached.", ex, LogTag.OPERATION);
+            }
+        }
+    }
+
+    /**
+     * Calls the webservice once, writing the result for the current source to the current target.
+     *
+     * @param endpoint      The webPDF server the call shall be sent to.
+     * @param configuration The rendered XML configuration of this operation.
+     * @param files         The files of the processed source file.
+     * @throws BuildException Shall be thrown, if the call failed.
+     */
+    private void callWebservice(@NotNull Endpoint endpoint, @NotNull byte[] configuration,
+        @NotNull IterativeTaskFile files) throws BuildException {
+        ConcurrencyLimiter concurrencyLimiter = getTaskConfiguration().getConcurrencyLimiter();
+        SessionPool sessionPool = endpoint.getSessionPool();
+        Session session;
+        long startTime = 0;
         try {
-            if (xmlElement == null || getFiles() == null || getProject() == null) {
-                throw new BuildException("The operation tasks definition is incomplete");
+            if (concurrencyLimiter != null) {
+                startTime = concurrencyLimiter.acquire(1);
             }
-            try (
-                Session session = SessionFactory.createInstance(WebServiceProtocol.SOAP, getTaskConfiguration().getServerURL());
-                InputStream xmlInputStream = new StringInputStream(xmlElement.prepareConfiguration(getProject()));
-                SoapDocument soapDocument = new SoapDocument(getFiles().getCurrentSource().toURI(), getFiles().getCurrentTarget())
-            ) {
-                Credentials credentials = getTaskConfiguration().getCredentials();
-                if (credentials != null) {
-                    session.setCredentials(credentials);
+            try {
+                session = sessionPool.borrow();
+            } catch (IOException | InterruptedException | RuntimeException ex) {
+                if (concurrencyLimiter != null) {
+                    concurrencyLimiter.release(1, startTime, ConcurrencyLimiter.Outcome.IGNORED);
+                }
+                throw ex;
+            }
+        } catch (IOException ex) {
+            throw new BuildException(ex.getMessage(), ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("The operation has been interrupted.", ex);
+        }
+
+        ConcurrencyLimiter.Outcome outcome = ConcurrencyLimiter.Outcome.IGNORED;
+        boolean reusable = true;
+        boolean inMemory = files.isMemoryEnabled();
+        try (
+            InputStream sourceStream = inMemory ? files.openCurrentSource() : null;
+            OutputStream targetStream = inMemory ? files.openCurrentTarget() : null;
+            SoapDocument soapDocument = sourceStream != null && targetStream != null ?
+                new SoapDocument(sourceStream, targetStream) :
+                new SoapDocument(files.getCurrentSource().toURI(), files.getCurrentTarget())
+        ) {
+            process(session, configuration, soapDocument);
+            outcome = ConcurrencyLimiter.Outcome.SUCCESS;
+        } catch (BuildException ex) {
+            outcome = ConcurrencyLimiter.isOverload(ex) ? ConcurrencyLimiter.Outcome.OVERLOAD : outcome;
+            throw ex;
+        } catch (IOException ex) {
+            outcome = ConcurrencyLimiter.isOverload(ex) ? ConcurrencyLimiter.Outcome.OVERLOAD : outcome;
+            reusable = false;
+            throw new BuildException(ex.getMessage(), ex);
+        } finally {
+            sessionPool.release(session, reusable);
+            if (concurrencyLimiter != null) {
+                concurrencyLimiter.release(1, startTime, outcome);
+            }
+        }
+    }
+
+    /**
+     * Executes the given webservice call and repeats it, as long as it fails transiently and the given policy permits
+     * another attempt. A partially written target is discarded before each retry, so that the next attempt starts
+     * from the same source. If the call ultimately fails, the current target is dropped - failures other than a
+     * BuildException are wrapped in a BuildException. Each attempt is sent to the least loaded available webPDF server,
+     * unless a server has been given, the call shall stick to. While a server is ejected by it's circuit breaker,
+     * attempts for said server fail instantly.
+     *
+     * @param task           The task executing the call.
+     * @param retryPolicy    The policy defining whether and when the call shall be repeated.
+     * @param files          The files of the currently processed source file.
+     * @param logTag         The tag retries shall be logged with.
+     * @param stickyEndpoint The webPDF server all attempts shall be sent to, or null if the server shall be selected by
+     *                       the load balancer.
+     * @param call           The webservice call.
+     * @throws BuildException Shall be thrown, if the call ultimately failed.
+     */
+    static void executeWithRetry(@NotNull Task task, @NotNull RetryPolicy retryPolicy, @NotNull IterativeTaskFile files,
+        @NotNull LogTag logTag, @Nullable Endpoint stickyEndpoint, @NotNull EndpointCall call) throws BuildException {
+        LoadBalancer loadBalancer;
+        try {
+            loadBalancer = task.getTaskConfiguration().getLoadBalancer(task.getLogger());
+        } catch (MalformedURLException ex) {
+            files.dropCurrentTarget();
+            throw new BuildException(ex.getMessage(), ex);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Endpoint endpoint = stickyEndpoint == null ? loadBalancer.acquire() :
+                    stickyEndpoint.tryAcquire() ? stickyEndpoint : null;
+                if (endpoint == null) {
+                    throw new BuildException("The call has been rejected, as the webPDF server is considered unavailable.");
+                }
+                try {
+                    call.call(endpoint);
+                } catch (RuntimeException ex) {
+                    endpoint.release(ex);
+                    throw ex;
+                }
+                endpoint.release(null);
+                return;
+            } catch (RuntimeException failure) {
+                BuildException ex = failure instanceof BuildException ?
+                                        (BuildException) failure :
+                                        new BuildException(failure.getMessage(), failure);
+                if (!retryPolicy.shouldRetry(attempt, ex)) {
+                    files.dropCurrentTarget();
+                    throw ex;
+                }
+                files.discardCurrentTarget();
+                Metrics metrics = task.getTaskConfiguration().getMetrics();
+                if (metrics != null) {
+                    metrics.recordRetry();
+                }
+                task.getLogger().warn(String.format("Attempt %d of %d failed and is retried: %s",
+                    attempt, retryPolicy.getMaxAttempts(), ex.getMessage()), logTag);
+                try {
+                    retryPolicy.await(attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    files.dropCurrentTarget();
+                    throw ex;
                 }
-                WebService<SoapDocument, ?, SoapDocument> webservice = WebServiceFactory.createInstance(session, new StreamSource(xmlInputStream));
-                getLogger().info(webservice.getClass().getSimpleName(), LogTag.OPERATION);
-                webservice.setDocument(soapDocument);
-                webservice.process();
             }
+        }
+    }
+
+    /**
+     * Attempts to write a cached result for the current source to the current target, instead of calling the
+     * webservice.
+     *
+     * @param resultCache The cache containing the results of previous webservice calls.
+     * @param cacheKey    The key of the result.
+     * @param files       The files of the processed source file.
+     * @return True, if a cached result has been written to the current target.
+     */
+    private boolean reuseCachedResult(@NotNull ResultCache resultCache, @NotNull String cacheKey,
+        @NotNull IterativeTaskFile files) {
+        File cachedResult = resultCache.lookup(cacheKey);
+        if (cachedResult == null) {
+            return false;
+        }
+        try (
+            InputStream cachedStream = new FileInputStream(cachedResult);
+            OutputStream targetStream = files.openCurrentTarget()
+        ) {
+            IOUtils.copy(cachedStream, targetStream);
+            getLogger().info("Cached result " + cacheKey, LogTag.OPERATION);
+            return true;
+        } catch (IOException ex) {
+            //THE RESULT HAS BEEN EVICTED CONCURRENTLY - THE WEBSERVICE SHALL BE CALLED INSTEAD.
+            files.discardCurrentTarget();
+            return false;
+        }
+    }
+
+    /**
+     * Returns the XML substructure of this operation.
+     *
+     * @return The XML substructure of this operation.
+     */
+    @Nullable
+    XMLElement getXMLElement() {
+        return xmlElement;
+    }
+
+    /**
+     * Returns the name of the webservice called by this operation.
+     *
+     * @return The name of the called webservice, or "unknown" if this operation does not define a webservice call.
+     */
+    @NotNull
+    String getOperationType() {
+        return xmlElement != null ? xmlElement.getOperationType() : "unknown";
+    }
+
+    /**
+     * Returns true, if this operation solely consists of toolbox actions and may therefore be combined with other
+     * toolbox operations.
+     *
+     * @return True, if this operation solely consists of toolbox actions.
+     */
+    boolean isToolboxOperation() {
+        return xmlElement != null && xmlElement.isToolboxOperation();
+    }
+
+    /**
+     * Renders the XML configuration of this operation for the given source file.
+     *
+     * @param files The files of the processed source file.
+     * @return The XML configuration of this operation.
+     * @throws BuildException Shall be thrown if the operation is incomplete, or the configuration could not be rendered.
+     */
+    @NotNull
+    byte[] renderConfiguration(@NotNull IterativeTaskFile files) throws BuildException {
+        if (operationTemplate == null || getProject() == null) {
+            throw new BuildException("The operation tasks definition is incomplete");
+        }
+        try {
+            return operationTemplate.render(getProject(), files.getPublishedVariables());
+        } catch (JAXBException ex) {
+            throw new BuildException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Adds the XML configuration of this operation to the given digest. References to variables, that are published for
+     * each source file, remain unresolved, so that the digest does not depend on the currently processed source file.
+     *
+     * @param digest The digest the configuration shall be added to.
+     * @throws BuildException Shall be thrown if the configuration could not be rendered.
+     */
+    void digestConfiguration(@NotNull MessageDigest digest) throws BuildException {
+        if (operationTemplate == null) {
+            return;
+        }
+        try {
+            digest.update(operationTemplate.render(getProject(), Collections.<String, String>emptyMap()));
+        } catch (JAXBException ex) {
+            throw new BuildException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Processes the given document, by calling the webservice defined by the given configuration. This method does not
+     * access the files of the currently processed source and may therefore be called by any thread.
+     *
+     * @param session       The session, that shall be used to call the webservice.
+     * @param configuration The rendered XML configuration of this operation.
+     * @param soapDocument  The document, that shall be processed.
+     * @throws BuildException Shall be thrown, if the webservice rejected the call.
+     * @throws IOException    Shall be thrown, if the communication with the webservice failed.
+     */
+    void process(@NotNull Session session, @NotNull byte[] configuration, @NotNull SoapDocument soapDocument)
+        throws BuildException, IOException {
+        try (InputStream xmlInputStream = new ByteArrayInputStream(configuration)) {
+            WebService<SoapDocument, ?, SoapDocument> webservice = WebServiceFactory.createInstance(session, new StreamSource(xmlInputStream));
+            getLogger().info(webservice.getClass().getSimpleName(), LogTag.OPERATION);
+            webservice.setDocument(soapDocument);
+            webservice.process();
         } catch (ResultException ex) {
-            getFiles().dropCurrentTarget();
             throw new BuildException(ex.getResult().getMessage() + " [EC " + ex.getResult().getCode() + "]", ex);
-        } catch (JAXBException | IOException ex) {
-            getFiles().dropCurrentTarget();
-            throw new BuildException(ex.getMessage(), ex);
         }
     }
 
+    /**
+     * Processes the given document, that has been stored by the webPDF server, by calling the webservice defined by the
+     * given configuration. The result is stored by the server as well. This method does not access the files of the
+     * currently processed source and may therefore be called by any thread.
+     *
+     * @param session       The REST session, the document has been stored by.
+     * @param configuration The rendered XML configuration of this operation.
+     * @param restDocument  The stored document, that shall be processed.
+     * @return The stored result.
+     * @throws BuildException Shall be thrown, if the webservice rejected the call.
+     * @throws IOException    Shall be thrown, if the communication with the webservice failed.
+     */
+    @NotNull
+    RestDocument process(@NotNull Session session, @NotNull byte[] configuration, @NotNull RestDocument restDocument)
+        throws BuildException, IOException {
+        try (InputStream xmlInputStream = new ByteArrayInputStream(configuration)) {
+            WebService<RestDocument, ?, RestDocument> webservice = WebServiceFactory.createInstance(session, new StreamSource(xmlInputStream));
+            getLogger().info(webservice.getClass().getSimpleName(), LogTag.OPERATION);
+            webservice.setDocument(restDocument);
+            RestDocument result = webservice.process();
+            if (result == null) {
+                throw new BuildException("The webservice did not provide a result document.");
+            }
+            return result;
+        } catch (ResultException ex) {
+            throw new BuildException(ex.getResult().getMessage() + " [EC " + ex.getResult().getCode() + "]", ex);
+        }
+    }
+
+    /**
+     * A webservice call, that shall be sent to a given webPDF server.
+     */
+    interface EndpointCall {
+
+        /**
+         * Executes the call.
+         *
+         * @param endpoint The webPDF server the call shall be sent to.
+         * @throws BuildException Shall be thrown, if the call failed.
+         */
+        void call(@NotNull Endpoint endpoint) throws BuildException;
+
+    }
+
 }
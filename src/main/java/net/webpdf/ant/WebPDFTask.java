@@ -1,13 +1,29 @@
 package net.webpdf.ant;
 
 import net.webpdf.ant.task.AntAccess;
+import net.webpdf.ant.task.ConcurrencyMode;
+import net.webpdf.ant.task.ExecutorType;
+import net.webpdf.ant.task.Protocol;
 import net.webpdf.ant.task.Task;
 import net.webpdf.ant.task.TaskConfiguration;
 import net.webpdf.ant.task.TaskName;
+import net.webpdf.ant.task.cache.ResultCache;
 import net.webpdf.ant.task.credentials.NTCredentials;
 import net.webpdf.ant.task.credentials.UserCredentials;
+import net.webpdf.ant.task.files.FinalizeMode;
 import net.webpdf.ant.task.files.IterativeTaskFile;
+import net.webpdf.ant.task.files.IterativeTaskFileMap;
+import net.webpdf.ant.task.files.UpToDateManifest;
+import net.webpdf.ant.task.files.UpToDateMode;
 import net.webpdf.ant.task.logging.LogTag;
+import net.webpdf.ant.task.metrics.Metrics;
+import net.webpdf.ant.task.metrics.MetricsReport;
+import net.webpdf.ant.task.plan.ExecutionContext;
+import net.webpdf.ant.task.plan.ExecutionPlan;
+import net.webpdf.ant.task.plan.TaskGraph;
+import net.webpdf.ant.task.server.Server;
+import net.webpdf.ant.task.session.ConcurrencyLimiter;
+import net.webpdf.ant.task.session.RetryPolicy;
 import net.webpdf.ant.task.variable.Variable;
 import net.webpdf.ant.task.variable.VariableRole;
 import org.apache.tools.ant.BuildException;
@@ -19,8 +35,28 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This task is representing the top level of the webPDF ANT task. It shall contain all basic configurations necessary to
@@ -30,6 +66,21 @@ public class WebPDFTask extends Task implements TaskContainer {
 
     @NotNull
     private final List<org.apache.tools.ant.Task> tasks = new ArrayList<>();
+    @NotNull
+    private final ReentrantLock finalizationLock = new ReentrantLock();
+    @NotNull
+    private final Map<org.apache.tools.ant.Task, ReentrantLock> taskLocks = new ConcurrentHashMap<>();
+    @NotNull
+    private ExecutionPlan<org.apache.tools.ant.Task> executionPlan = new ExecutionPlan<>(new TaskGraph<>(), false, true);
+    @NotNull
+    private AtomicLongArray taskDurations = new AtomicLongArray(0);
+    @NotNull
+    private AtomicLongArray taskExecutions = new AtomicLongArray(0);
+    @Nullable
+    private ExecutorService taskGraphExecutor = null;
+
+    private static final int STAGE_QUEUE_CAPACITY = 2;
+    private static final Object CURRENT_SOURCE = new Object();
 
     /**
      * An instance of this class is representing the top level of the webPDF ANT task. It shall contain all basic
@@ -46,7 +97,9 @@ public class WebPDFTask extends Task implements TaskContainer {
 
     /**
      * Central method to execute a task and all it's sub tasks. This method shall prepare and provide the needed context
-     * and shall execute it's sub tasks sequentially in an ordered fashion.
+     * and shall execute it's sub tasks sequentially in an ordered fashion. If a parallelism greater than 1 has been
+     * set, up to that many source files shall be processed concurrently - the sub tasks of each individual source file
+     * are still executed in order.
      */
     @Override
     public void execute() throws BuildException {
@@ -57,48 +110,693 @@ public class WebPDFTask extends Task implements TaskContainer {
                 throw new BuildException(ex.getMessage(), ex, getLocation());
             }
         }
+        UpToDateManifest manifest = createUpToDateManifest();
+        getTaskConfiguration().startMetrics();
+        executionPlan = compile();
+        taskDurations = new AtomicLongArray(executionPlan.size());
+        taskExecutions = new AtomicLongArray(executionPlan.size());
+        if (executionPlan.isConcurrent()) {
+            taskGraphExecutor = getTaskConfiguration().getExecutorType().createExecutor(
+                getTaskConfiguration().getParallelism() * executionPlan.size());
+        }
+        try {
+            int parallelism = getTaskConfiguration().getParallelism();
+            if (parallelism > 1) {
+                processFilesConcurrently(parallelism, manifest);
+            } else if (getTaskConfiguration().isStaged()) {
+                processFilesStaged(manifest);
+            } else {
+                try (IterativeTaskFileMap.TaskFileIterator taskFiles = getTaskConfiguration().getTaskFiles().iterator()) {
+                    while (taskFiles.hasNext()) {
+                        processFile(taskFiles.next(), manifest);
+                    }
+                }
+            }
+        } finally {
+            if (taskGraphExecutor != null) {
+                taskGraphExecutor.shutdownNow();
+                taskGraphExecutor = null;
+            }
+            getTaskConfiguration().closeLoadBalancer();
+            getTaskConfiguration().closeStageExecutor();
+            logStatistics();
+            logCriticalPath();
+            reportMetrics();
+            saveUpToDateManifest(manifest);
+            getTaskConfiguration().getTaskFiles().getTempDir().cleanTemp();
+        }
+    }
+
+    /**
+     * Creates the manifest recording the processed source files, if an up to date check has been requested. The
+     * manifest shall be located in the target directory, or in the directory containing the target file.
+     *
+     * @return The manifest recording the processed source files, or null if no up to date check shall be performed.
+     * @throws BuildException Shall be thrown if the configuration of an operation could not be rendered.
+     */
+    @Nullable
+    private UpToDateManifest createUpToDateManifest() throws BuildException {
+        UpToDateMode mode = getTaskConfiguration().getUpToDateMode();
+        if (mode == UpToDateMode.NONE) {
+            return null;
+        }
+        IterativeTaskFileMap taskFiles = getTaskConfiguration().getTaskFiles();
+        File directory = taskFiles.getTargetDirectory();
+        if (directory == null && taskFiles.getTargetFile() != null) {
+            directory = taskFiles.getTargetFile().getAbsoluteFile().getParentFile();
+        }
+        if (directory == null || !directory.isDirectory() || !directory.canWrite()) {
+            getLogger().warn("The up to date check is skipped, as no writable target directory has been set.", LogTag.WEBPDF_TASK);
+            return null;
+        }
+        MessageDigest digest = UpToDateManifest.createDigest();
+        for (org.apache.tools.ant.Task task : tasks) {
+            if (task instanceof GroupTask) {
+                ((GroupTask) task).digestConfiguration(digest);
+            } else if (task != null) {
+                digest.update(String.valueOf(task.getTaskName()).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return new UpToDateManifest(directory, mode, UpToDateManifest.toHex(digest.digest()));
+    }
+
+    /**
+     * Logs the hits and misses of the result cache, if results are cached, and the final adaptive concurrency limit.
+     */
+    private void logStatistics() {
+        try {
+            ResultCache resultCache = getTaskConfiguration().getResultCache();
+            if (resultCache != null) {
+                getLogger().info(String.format("Result cache: %d hits, %d misses, %d bytes stored.",
+                    resultCache.getHits(), resultCache.getMisses(), resultCache.getSize()), LogTag.WEBPDF_TASK);
+            }
+            ConcurrencyLimiter concurrencyLimiter = getTaskConfiguration().getConcurrencyLimiter();
+            if (concurrencyLimiter != null) {
+                getLogger().info(String.format("Adaptive concurrency: %d concurrent calls permitted.",
+                    concurrencyLimiter.getLimit()), LogTag.WEBPDF_TASK);
+            }
+        } catch (IOException ex) {
+            getLogger().warn(ex, LogTag.WEBPDF_TASK);
+        }
+    }
+
+    /**
+     * Logs the report of the recorded metrics and writes it to the metrics file, if metrics have been recorded.
+     */
+    private void reportMetrics() {
+        Metrics metrics = getTaskConfiguration().getMetrics();
+        if (metrics == null) {
+            return;
+        }
+        MetricsReport report = metrics.createReport();
+        report.log(getLogger());
+        File metricsFile = getTaskConfiguration().getMetricsFile();
+        if (metricsFile != null) {
+            try {
+                report.write(metricsFile);
+            } catch (IOException ex) {
+                getLogger().warn("The metrics could not be written: " + metricsFile.getAbsolutePath(), ex,
+                    LogTag.WEBPDF_TASK);
+            }
+        }
+        getTaskConfiguration().resetMetrics();
+    }
+
+    /**
+     * Writes the given manifest, so that following executions may skip the source files recorded in it.
+     *
+     * @param manifest The manifest, that shall be written.
+     */
+    private void saveUpToDateManifest(@Nullable UpToDateManifest manifest) {
+        if (manifest == null) {
+            return;
+        }
+        try {
+            manifest.save();
+        } catch (IOException ex) {
+            getLogger().warn("The up to date manifest could not be written: " + manifest.getManifestFile().getAbsolutePath(),
+                ex, LogTag.WEBPDF_TASK);
+        }
+    }
+
+    /**
+     * Processes the source files using a bounded pool of worker threads. No further source files shall be scheduled,
+     * as soon as a worker failed and failOnError is set - the first failure shall be rethrown, after all running
+     * workers have finished.
+     *
+     * @param parallelism The maximum number of source files, that shall be processed concurrently.
+     * @param manifest    The manifest recording the processed source files, or null if no up to date check shall be
+     *                    performed.
+     * @throws BuildException Shall be thrown, if the processing of a source file failed.
+     */
+    private void processFilesConcurrently(int parallelism, @Nullable UpToDateManifest manifest) throws BuildException {
+        ExecutorService executor = getTaskConfiguration().getExecutorType().createExecutor(parallelism);
+        Semaphore workers = new Semaphore(parallelism);
+        AtomicReference<BuildException> failure = new AtomicReference<>();
+        try (IterativeTaskFileMap.TaskFileIterator taskFiles = getTaskConfiguration().getTaskFiles().iterator()) {
+            while (taskFiles.hasNext()) {
+                IterativeTaskFile taskFile = taskFiles.next();
+                workers.acquire();
+                if (failure.get() != null) {
+                    workers.release();
+                    break;
+                }
+                executor.execute(() -> {
+                    try {
+                        processFile(taskFile, manifest);
+                    } catch (RuntimeException ex) {
+                        BuildException buildException = ex instanceof BuildException ?
+                                                            (BuildException) ex :
+                                                            new BuildException(ex.getMessage(), ex, getLocation());
+                        if (!failure.compareAndSet(null, buildException)) {
+                            getLogger().error(buildException, LogTag.WEBPDF_TASK);
+                        }
+                    } finally {
+                        workers.release();
+                    }
+                });
+            }
+            workers.acquire(parallelism);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("The processing of the source files has been interrupted.", ex, getLocation());
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Processes the source files using three stages, that are connected by bounded queues: The source files are
+     * checked for being up to date by a checking thread, the sub tasks are executed by the calling thread and the
+     * results are published by a finalization thread. Checking and publishing files therefore overlaps with the
+     * webservice calls, while the sub tasks are still executed for one source file at a time. Source files are not read
+     * ahead - the only disk I/O overlapping a webservice call is the publishing of the previous result.
+     *
+     * @param manifest The manifest recording the processed source files, or null if no up to date check shall be
+     *                 performed.
+     * @throws BuildException Shall be thrown, if the processing of a source file failed.
+     */
+    private void processFilesStaged(@Nullable UpToDateManifest manifest) throws BuildException {
+        BlockingQueue<PreparedFile> checked = new ArrayBlockingQueue<>(STAGE_QUEUE_CAPACITY);
+        BlockingQueue<PreparedFile> processed = new ArrayBlockingQueue<>(STAGE_QUEUE_CAPACITY);
+        AtomicReference<BuildException> failure = new AtomicReference<>();
+        ExecutorService stages = getTaskConfiguration().getExecutorType().createExecutor(2);
         try {
-            for (IterativeTaskFile taskFile : getTaskConfiguration().getTaskFiles()) {
-                getLogger().info(LogTag.WEBPDF_TASK);
-                for (org.apache.tools.ant.Task task : tasks) {
-                    processTask(task, taskFile);
+            stages.execute(() -> {
+                try (IterativeTaskFileMap.TaskFileIterator taskFiles = getTaskConfiguration().getTaskFiles().iterator()) {
+                    while (taskFiles.hasNext()) {
+                        if (failure.get() != null) {
+                            break;
+                        }
+                        checked.put(prepareFile(taskFiles.next(), manifest));
+                    }
+                } catch (RuntimeException ex) {
+                    recordFailure(failure, ex);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    putQuietly(checked, PreparedFile.END);
                 }
+            });
+            Future<?> finalization = stages.submit(() -> {
+                boolean failed = false;
                 try {
-                    File target = taskFile.finalizeAndReset(
-                        getTaskConfiguration().getTaskFiles().getTargetFile(),
-                        getTaskConfiguration().getTaskFiles().getTargetDirectory()
-                    );
-                    Variable targetVar = getVariables().getVar(VariableRole.OUTPUT);
-                    if (targetVar != null) {
-                        targetVar.setValue(target.getAbsolutePath().replaceAll("\\\\", "/"));
-                        targetVar.execute();
+                    PreparedFile preparedFile;
+                    while ((preparedFile = processed.take()) != PreparedFile.END) {
+                        if (failed) {
+                            preparedFile.getTaskFile().reset();
+                            continue;
+                        }
+                        try {
+                            finalizeFile(preparedFile, manifest);
+                        } catch (RuntimeException ex) {
+                            failed = true;
+                            recordFailure(failure, ex);
+                        }
                     }
-                    getLogger().info("Write to " + (target.getAbsolutePath()), LogTag.TARGET);
-                } catch (IOException ex) {
-                    String message = "Creation of the final target file failed.";
-                    getLogger().error(message, ex, LogTag.WEBPDF_TASK);
-                    throw new BuildException(message, ex, getLocation());
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
                 }
+            });
+
+            try {
+                PreparedFile preparedFile;
+                while ((preparedFile = checked.take()) != PreparedFile.END) {
+                    if (failure.get() != null) {
+                        preparedFile.getTaskFile().reset();
+                        continue;
+                    }
+                    try {
+                        if (!preparedFile.isUpToDate()) {
+                            processTasks(preparedFile.getTaskFile());
+                        }
+                        processed.put(preparedFile);
+                    } catch (RuntimeException ex) {
+                        recordFailure(failure, ex);
+                    }
+                }
+            } finally {
+                putQuietly(processed, PreparedFile.END);
             }
+            finalization.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("The processing of the source files has been interrupted.", ex, getLocation());
+        } catch (ExecutionException ex) {
+            recordFailure(failure, ex.getCause() instanceof RuntimeException ?
+                                       (RuntimeException) ex.getCause() :
+                                       new BuildException(ex.getCause()));
         } finally {
-            getTaskConfiguration().getTaskFiles().getTempDir().cleanTemp();
+            stages.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
         }
     }
 
     /**
-     * Process a single sub task.
+     * Records the given failure, if no other failure has been recorded before. Later failures are logged.
+     *
+     * @param failure The first failure, that occurred.
+     * @param ex      The failure, that shall be recorded.
      */
-    private void processTask(@Nullable org.apache.tools.ant.Task task, @Nullable IterativeTaskFile taskFile) throws BuildException {
+    private void recordFailure(@NotNull AtomicReference<BuildException> failure, @NotNull RuntimeException ex) {
+        BuildException buildException = ex instanceof BuildException ?
+                                            (BuildException) ex :
+                                            new BuildException(ex.getMessage(), ex, getLocation());
+        if (!failure.compareAndSet(null, buildException)) {
+            getLogger().error(buildException, LogTag.WEBPDF_TASK);
+        }
+    }
+
+    /**
+     * Puts the given element into the given queue. If the calling thread is interrupted, the element shall only be
+     * offered to the queue, as the consuming stage is being shut down as well.
+     *
+     * @param queue   The queue the element shall be put into.
+     * @param element The element, that shall be put into the queue.
+     */
+    private static void putQuietly(@NotNull BlockingQueue<PreparedFile> queue, @NotNull PreparedFile element) {
+        try {
+            queue.put(element);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            queue.offer(element);
+        }
+    }
+
+    /**
+     * Executes all sub tasks for a single source file and publishes the result. If the target file is up to date
+     * according to the given manifest, the source file shall be skipped and the existing target file shall be published.
+     *
+     * @param taskFile The source file, that shall be processed.
+     * @param manifest The manifest recording the processed source files, or null if no up to date check shall be
+     *                 performed.
+     * @throws BuildException Shall be thrown, if a sub task failed or if the final target file could not be created.
+     */
+    private void processFile(@NotNull IterativeTaskFile taskFile, @Nullable UpToDateManifest manifest) throws BuildException {
+        PreparedFile preparedFile = prepareFile(taskFile, manifest);
+        if (!preparedFile.isUpToDate()) {
+            processTasks(taskFile);
+        }
+        finalizeFile(preparedFile, manifest);
+    }
+
+    /**
+     * Prepares the processing of a single source file, by checking whether it's target file is up to date.
+     *
+     * @param taskFile The source file, that shall be processed.
+     * @param manifest The manifest recording the processed source files, or null if no up to date check shall be
+     *                 performed.
+     * @return The prepared source file.
+     */
+    @NotNull
+    private PreparedFile prepareFile(@NotNull IterativeTaskFile taskFile, @Nullable UpToDateManifest manifest) {
+        File expectedTarget = manifest != null ? taskFile.getTarget(
+            getTaskConfiguration().getTaskFiles().getTargetFile(),
+            getTaskConfiguration().getTaskFiles().getTargetDirectory()) : null;
+        String sourceStamp = null;
+        if (manifest != null && expectedTarget != null) {
+            try {
+                sourceStamp = manifest.stamp(taskFile.getOriginalSource());
+            } catch (IOException ex) {
+                getLogger().warn("The up to date check failed for: " + taskFile.getOriginalSource().getAbsolutePath(),
+                    ex, LogTag.WEBPDF_TASK);
+            }
+            if (sourceStamp != null && manifest.isUpToDate(taskFile.getOriginalSource(), sourceStamp, expectedTarget)) {
+                return new PreparedFile(taskFile, expectedTarget, sourceStamp, true);
+            }
+        }
+        return new PreparedFile(taskFile, expectedTarget, sourceStamp, false);
+    }
+
+    /**
+     * Executes all sub tasks for a single source file, in an execution context of it's own. If independent sub tasks
+     * shall be executed concurrently, the sub tasks are executed according to the execution plan, otherwise they are
+     * executed in declaration order. The processing is not started, before a lease of the temp quota has been
+     * acquired - the lease and all temporary files are released, when the source file is reset.
+     *
+     * @param taskFile The source file, that shall be processed.
+     * @throws BuildException Shall be thrown, if a sub task failed.
+     */
+    private void processTasks(@NotNull IterativeTaskFile taskFile) throws BuildException {
+        getLogger().info(LogTag.WEBPDF_TASK);
+        try {
+            taskFile.acquireTempQuota();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BuildException("The processing of the source files has been interrupted.", ex, getLocation());
+        }
+        ExecutionContext context = new ExecutionContext(taskFile, getTaskConfiguration().getRetryPolicy());
+        try {
+            ExecutorService executor = taskGraphExecutor;
+            if (executor != null) {
+                processTaskGraph(context, executor);
+                return;
+            }
+            for (int node = 0; node < executionPlan.size(); node++) {
+                processNode(node, context);
+            }
+        } catch (RuntimeException ex) {
+            taskFile.reset();
+            throw ex;
+        }
+    }
+
+    /**
+     * Compiles the sub tasks to an execution plan, that is shared by all source files: Each group is compiled and the
+     * dependency graph of the sub tasks is built from the input and output variables of the groups. A group reads
+     * either the current source file or it's input variable and the output variables it references. It writes either
+     * it's output variable, or - if it does not publish it's result - the current source file. All other sub tasks
+     * are barriers, that are executed after all preceding and before all following sub tasks.
+     *
+     * @return The execution plan of the sub tasks.
+     */
+    @NotNull
+    private ExecutionPlan<org.apache.tools.ant.Task> compile() {
+        Set<String> outputNames = new LinkedHashSet<>();
+        for (org.apache.tools.ant.Task task : tasks) {
+            if (task instanceof GroupTask) {
+                ((GroupTask) task).compile();
+            }
+            if (task instanceof GroupTask && ((GroupTask) task).getOutputName() != null) {
+                outputNames.add(((GroupTask) task).getOutputName());
+            }
+        }
+        TaskGraph<org.apache.tools.ant.Task> graph = new TaskGraph<>();
+        for (org.apache.tools.ant.Task task : tasks) {
+            if (task == null) {
+                continue;
+            }
+            if (!(task instanceof GroupTask)) {
+                graph.addBarrier(task);
+                continue;
+            }
+            GroupTask group = (GroupTask) task;
+            List<Object> reads = new ArrayList<>();
+            List<Object> writes = new ArrayList<>();
+            if (group.getInputName() == null) {
+                reads.add(CURRENT_SOURCE);
+            }
+            for (String outputName : outputNames) {
+                if (group.referencesVariable(outputName)) {
+                    reads.add(outputName);
+                }
+            }
+            if (!group.isBranch()) {
+                writes.add(CURRENT_SOURCE);
+            } else if (group.getOutputName() != null) {
+                writes.add(group.getOutputName());
+            }
+            graph.add(task, reads, writes);
+        }
+        return new ExecutionPlan<>(graph, getTaskConfiguration().isFanOut(), getTaskConfiguration().isFailOnError());
+    }
+
+    /**
+     * Executes the sub tasks for a single source file according to the task graph: Each sub task is started, as soon
+     * as all sub tasks it depends on have finished, so that independent groups are executed concurrently. Groups
+     * publishing their result to an output variable are executed on a branch of the source file, that is merged back
+     * when the group has finished. No further sub tasks shall be started, as soon as a sub task failed - the first
+     * failure shall be rethrown, after all running sub tasks have finished.
+     *
+     * @param context  The context of the processed source file.
+     * @param executor The executor the sub tasks shall be executed by.
+     * @throws BuildException Shall be thrown, if a sub task failed.
+     */
+    private void processTaskGraph(@NotNull ExecutionContext context, @NotNull ExecutorService executor)
+        throws BuildException {
+        ExecutionPlan<org.apache.tools.ant.Task> plan = executionPlan;
+        IterativeTaskFile taskFile = context.getFiles();
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+        int[] pendingDependencies = new int[plan.size()];
+        IterativeTaskFile[] branches = new IterativeTaskFile[plan.size()];
+        RuntimeException[] failures = new RuntimeException[plan.size()];
+        Queue<Integer> ready = new PriorityQueue<>();
+        for (int node = 0; node < plan.size(); node++) {
+            pendingDependencies[node] = plan.getDependencies(node).size();
+            if (pendingDependencies[node] == 0) {
+                ready.add(node);
+            }
+        }
+        BuildException failure = null;
+        int running = 0;
+        try {
+            while (running > 0 || failure == null && !ready.isEmpty()) {
+                while (failure == null && !ready.isEmpty()) {
+                    int node = ready.poll();
+                    IterativeTaskFile nodeFile;
+                    try {
+                        nodeFile = branchFor(node, taskFile);
+                    } catch (IOException ex) {
+                        String message = "The shared source of the branching groups could not be written to a temporary file.";
+                        getLogger().error(message, ex, LogTag.WEBPDF_TASK);
+                        failure = new BuildException(message, ex, getLocation());
+                        break;
+                    }
+                    branches[node] = nodeFile != taskFile ? nodeFile : null;
+                    completionService.submit(() -> {
+                        try {
+                            processNode(node, context.withFiles(nodeFile));
+                        } catch (RuntimeException ex) {
+                            failures[node] = ex;
+                        }
+                        return node;
+                    });
+                    running++;
+                }
+                if (running == 0) {
+                    break;
+                }
+                Future<Integer> finished = completionService.take();
+                running--;
+                int node;
+                try {
+                    node = finished.get();
+                } catch (ExecutionException ex) {
+                    if (failure == null) {
+                        failure = new BuildException(ex.getCause().getMessage(), ex.getCause(), getLocation());
+                    }
+                    continue;
+                }
+                if (branches[node] != null) {
+                    taskFile.merge(branches[node]);
+                    branches[node] = null;
+                }
+                if (failures[node] != null) {
+                    if (failure == null) {
+                        failure = failures[node] instanceof BuildException ?
+                                      (BuildException) failures[node] :
+                                      new BuildException(failures[node].getMessage(), failures[node], getLocation());
+                    }
+                    continue;
+                }
+                for (int dependent : plan.getDependents(node)) {
+                    if (--pendingDependencies[dependent] == 0) {
+                        ready.add(dependent);
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            failure = new BuildException("The processing of the sub tasks has been interrupted.", ex, getLocation());
+        }
+        if (failure != null) {
+            taskFile.reset();
+            throw failure;
+        }
+    }
+
+    /**
+     * Returns the file the given node of the task graph shall process: Groups publishing their result to an output
+     * variable process a branch of the given source file, all other sub tasks process the source file itself.
+     *
+     * @param node     The index of the node in the task graph.
+     * @param taskFile The processed source file.
+     * @return The file the node shall process.
+     * @throws IOException Shall be thrown if the source held in memory could not be written to a temporary file.
+     */
+    @NotNull
+    private IterativeTaskFile branchFor(int node, @NotNull IterativeTaskFile taskFile) throws IOException {
+        org.apache.tools.ant.Task task = executionPlan.getTask(node);
+        if (!(task instanceof GroupTask) || !((GroupTask) task).isBranch()) {
+            return taskFile;
+        }
+        return ((GroupTask) task).getInputName() == null ? taskFile.branch() : taskFile.branchOriginal();
+    }
+
+    /**
+     * Executes the sub task represented by the given node of the task graph and records it's duration.
+     *
+     * @param node    The index of the node in the task graph.
+     * @param context The context the sub task shall be executed in.
+     * @throws BuildException Shall be thrown, if the sub task failed.
+     */
+    private void processNode(int node, @NotNull ExecutionContext context) throws BuildException {
+        long startTime = System.nanoTime();
+        try {
+            processTask(executionPlan.getTask(node), context);
+        } finally {
+            taskDurations.addAndGet(node, System.nanoTime() - startTime);
+            taskExecutions.incrementAndGet(node);
+        }
+    }
+
+    /**
+     * Logs the critical path of the task graph: The chain of depending sub tasks having the longest average duration
+     * per source file, which therefore dominates the latency of each source file. The critical path is only logged, if
+     * independent sub tasks are executed concurrently, or if metrics are recorded.
+     */
+    private void logCriticalPath() {
+        if (executionPlan.size() < 2 || !getTaskConfiguration().isFanOut() && getTaskConfiguration().getMetrics() == null) {
+            return;
+        }
+        long[] durations = new long[executionPlan.size()];
+        for (int node = 0; node < durations.length; node++) {
+            long executions = taskExecutions.get(node);
+            durations[node] = executions > 0 ? taskDurations.get(node) / executions : 0;
+        }
+        StringBuilder path = new StringBuilder();
+        long pathDuration = 0;
+        for (int node : executionPlan.getCriticalPath(durations)) {
+            if (path.length() > 0) {
+                path.append(" -> ");
+            }
+            path.append(String.format(Locale.ENGLISH, "%s (%.1f ms)", describeNode(node), durations[node] / 1000000.0));
+            pathDuration += durations[node];
+        }
+        if (pathDuration > 0) {
+            getLogger().info(String.format(Locale.ENGLISH, "Critical path: %s, %.1f ms per source file.", path,
+                pathDuration / 1000000.0), LogTag.WEBPDF_TASK);
+        }
+    }
+
+    /**
+     * Returns a readable description of the sub task represented by the given node of the task graph.
+     *
+     * @param node The index of the node in the task graph.
+     * @return The description of the sub task.
+     */
+    @NotNull
+    private String describeNode(int node) {
+        org.apache.tools.ant.Task task = executionPlan.getTask(node);
+        if (task instanceof GroupTask) {
+            String outputName = ((GroupTask) task).getOutputName();
+            return "group " + (node + 1) + (outputName != null ? " [" + outputName + "]" : "");
+        }
+        return task.getTaskName() != null ? task.getTaskName() + " " + (node + 1) : "task " + (node + 1);
+    }
+
+    /**
+     * Publishes the result of a single source file to it's target file and records it in the given manifest. If the
+     * target file has been up to date, the existing target file shall be published instead.
+     *
+     * @param preparedFile The processed source file.
+     * @param manifest     The manifest recording the processed source files, or null if no up to date check shall be
+     *                     performed.
+     * @throws BuildException Shall be thrown, if the final target file could not be created.
+     */
+    private void finalizeFile(@NotNull PreparedFile preparedFile, @Nullable UpToDateManifest manifest) throws BuildException {
+        IterativeTaskFile taskFile = preparedFile.getTaskFile();
+        File expectedTarget = preparedFile.getExpectedTarget();
+        if (preparedFile.isUpToDate() && expectedTarget != null) {
+            finalizationLock.lock();
+            try {
+                publishTarget(expectedTarget);
+            } finally {
+                finalizationLock.unlock();
+            }
+            getLogger().info("Up to date " + expectedTarget.getAbsolutePath(), LogTag.TARGET);
+            return;
+        }
+        try {
+            boolean failed = taskFile.hasFailed();
+            File target;
+            //A LOCK INSTEAD OF A MONITOR - VIRTUAL THREADS SHALL NOT BE PINNED TO THEIR CARRIER WHILE WRITING FILES.
+            Metrics metrics = getTaskConfiguration().getMetrics();
+            long startTime = System.nanoTime();
+            finalizationLock.lock();
+            try {
+                target = taskFile.finalizeAndReset(
+                    getTaskConfiguration().getTaskFiles().getTargetFile(),
+                    getTaskConfiguration().getTaskFiles().getTargetDirectory(),
+                    getTaskConfiguration().getFinalizeMode()
+                );
+                publishTarget(target);
+            } finally {
+                finalizationLock.unlock();
+                if (metrics != null) {
+                    metrics.recordPhase(Metrics.PHASE_FINALIZE, startTime);
+                }
+            }
+            if (metrics != null && !failed) {
+                metrics.recordDocument();
+            }
+            getLogger().info("Write to " + (target.getAbsolutePath()), LogTag.TARGET);
+            String sourceStamp = preparedFile.getSourceStamp();
+            if (manifest != null && sourceStamp != null && !failed && target.equals(expectedTarget)) {
+                manifest.record(taskFile.getOriginalSource(), sourceStamp, target);
+            }
+        } catch (IOException ex) {
+            String message = "Creation of the final target file failed.";
+            getLogger().error(message, ex, LogTag.WEBPDF_TASK);
+            throw new BuildException(message, ex, getLocation());
+        }
+    }
+
+    /**
+     * Publishes the given target file to the output variable of this task, if such a variable has been set.
+     *
+     * @param target The target file, that shall be published.
+     */
+    private void publishTarget(@NotNull File target) {
+        Variable targetVar = getVariables().getVar(VariableRole.OUTPUT);
+        if (targetVar != null) {
+            targetVar.setValue(target.getAbsolutePath().replaceAll("\\\\", "/"));
+            targetVar.execute();
+        }
+    }
+
+    /**
+     * Process a single sub task in the given context.
+     *
+     * @param task    The sub task, that shall be processed.
+     * @param context The context of the processed source file.
+     * @throws BuildException Shall be thrown, if the sub task failed.
+     */
+    private void processTask(@Nullable org.apache.tools.ant.Task task, @NotNull ExecutionContext context) throws BuildException {
+        Metrics metrics = getTaskConfiguration().getMetrics();
+        long startTime = System.nanoTime();
         if (task instanceof GroupTask) {
             GroupTask group = (GroupTask) task;
             try {
-                group.setFiles(taskFile);
-                task.execute();
+                group.execute(context);
             } catch (BuildException ex) {
-                if (getTaskConfiguration().isFailOnError()) {
-                    if (taskFile != null) {
-                        taskFile.reset();
-                    }
+                if (executionPlan.isFailOnError()) {
+                    context.getFiles().reset();
                     getLogger().error(ex, LogTag.WEBPDF_TASK);
                     throw ex;
                 } else {
@@ -106,8 +804,18 @@ public class WebPDFTask extends Task implements TaskContainer {
                 }
             }
         } else if (task != null) {
-            task.reconfigure();
-            task.execute();
+            //A LOCK INSTEAD OF A MONITOR - VIRTUAL THREADS SHALL NOT BE PINNED TO THEIR CARRIER WHILE THE TASK IS EXECUTED.
+            ReentrantLock taskLock = taskLocks.computeIfAbsent(task, key -> new ReentrantLock());
+            taskLock.lock();
+            try {
+                task.reconfigure();
+                task.execute();
+            } finally {
+                taskLock.unlock();
+            }
+        }
+        if (metrics != null) {
+            metrics.recordPhase(Metrics.PHASE_TASK, startTime);
         }
     }
 
@@ -176,6 +884,29 @@ public class WebPDFTask extends Task implements TaskContainer {
         }
     }
 
+    /**
+     * This method shall add one of several webPDF servers, the webservice calls of this task shall be spread across.
+     * Each call is sent to the available server having the fewest outstanding calls in relation to it's weight. If a
+     * breaker threshold has been set, unreachable servers are ejected and reinstated by the circuit breaker of each
+     * server. If no server has been added, all calls are sent to the server URL.
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param server A webPDF server, the webservice calls shall be sent to.
+     */
+    @AntAccess
+    public void add(@Nullable Server server) {
+        if (server == null) {
+            return;
+        }
+        if (server.getUrl() == null || server.getUrl().trim().isEmpty()) {
+            String errorMessage = "The URL of a webPDF server must be set.";
+            getLogger().error(errorMessage, LogTag.WEBPDF_TASK);
+            throw new BuildException(errorMessage, getLocation());
+        }
+        getTaskConfiguration().addServer(server);
+    }
+
     /**
      * Provides basic user credentials (username and password) for the authentication at the webPDF server.
      *
@@ -225,6 +956,454 @@ public class WebPDFTask extends Task implements TaskContainer {
         getTaskConfiguration().setFailOnError(failOnError);
     }
 
+    /**
+     * This will set the number of source files, that shall be processed concurrently. Either a positive number, or
+     * "auto" to use one worker per available processor. (DEFAULT is 1 - all source files are processed sequentially.)
+     * The operations defined for an individual source file are always executed in order.
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param parallelism The number of source files, that shall be processed concurrently, or "auto".
+     */
+    @AntAccess
+    public void setParallelism(@Nullable String parallelism) {
+        if (parallelism == null || parallelism.trim().isEmpty()) {
+            getTaskConfiguration().setParallelism(1);
+            return;
+        }
+        if ("auto".equalsIgnoreCase(parallelism.trim())) {
+            getTaskConfiguration().setParallelism(Runtime.getRuntime().availableProcessors());
+            return;
+        }
+        int value;
+        try {
+            value = Integer.parseInt(parallelism.trim());
+        } catch (NumberFormatException ex) {
+            value = 0;
+        }
+        if (value < 1) {
+            String errorMessage = String.format("The given parallelism is invalid: %s", parallelism);
+            getLogger().error(errorMessage, LogTag.WEBPDF_TASK);
+            throw new BuildException(errorMessage, getLocation());
+        }
+        getTaskConfiguration().setParallelism(value);
+    }
+
+    /**
+     * This will set the kind of threads, that shall be used to process source files and the operations of pipelined
+     * groups concurrently:
+     * <ul>
+     * <li>"platform": A bounded pool of platform threads is used.</li>
+     * <li>"virtual": A virtual thread is used per source file or operation, which allows a high parallelism without
+     * the overhead of platform threads. This requires JDK 21 or higher - a pool of platform threads is used on older
+     * JVMs.</li>
+     * </ul>
+     * (DEFAULT is "platform")
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param executor The kind of threads, that shall be used.
+     */
+    @AntAccess
+    public void setExecutor(@Nullable String executor) {
+        ExecutorType executorType = ExecutorType.fromName(executor);
+        if (executorType == null) {
+            String errorMessage = String.format("The given executor is invalid: %s", executor);
+            getLogger().error(errorMessage, LogTag.WEBPDF_TASK);
+            throw new BuildException(errorMessage, getLocation());
+        }
+        if (executorType == ExecutorType.VIRTUAL && !ExecutorType.isVirtualSupported()) {
+            getLogger().warn("Virtual threads are not supported by the running JVM - platform threads are used instead.",
+                LogTag.WEBPDF_TASK);
+        }
+        getTaskConfiguration().setExecutorType(executorType);
+    }
+
+    /**
+     * This will set the way the number of concurrent webservice calls shall be limited:
+     * <ul>
+     * <li>fixed (DEFAULT): The calls are solely limited by the parallelism and the maximum number of connections.</li>
+     * <li>adaptive: The limit starts at the minimum concurrency and is raised, while the latency of the calls stays
+     * flat. It is lowered again, when the latency rises, or when calls time out or the server reports to be
+     * unavailable.</li>
+     * </ul>
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param concurrency The way the number of concurrent webservice calls shall be limited.
+     */
+    @AntAccess
+    public void setConcurrency(@Nullable String concurrency) {
+        ConcurrencyMode concurrencyMode = ConcurrencyMode.fromName(concurrency);
+        if (concurrencyMode == null) {
+            String errorMessage = String.format("The given concurrency is invalid: %s", concurrency);
+            getLogger().error(errorMessage, LogTag.WEBPDF_TASK);
+            throw new BuildException(errorMessage, getLocation());
+        }
+        getTaskConfiguration().setConcurrencyMode(concurrencyMode);
+    }
+
+    /**
+     * This will set the protocol, that shall be used to call the webservices of the webPDF server:
+     * <ul>
+     * <li>"soap": Each operation sends the whole document to the server and receives the whole result.</li>
+     * <li>"rest": The document is uploaded to the document storage of the server once per group. All operations of
+     * the group are executed on the stored document and only the final result of the group is downloaded. Pipelining
+     * does not apply to such groups, as intermediate results are not transferred at all.</li>
+     * </ul>
+     * (DEFAULT is "soap")
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param protocol The protocol used to call the webservices.
+     */
+    @AntAccess
+    public void setProtocol(@Nullable String protocol) {
+        Protocol webServiceProtocol = Protocol.fromName(protocol);
+        if (webServiceProtocol == null) {
+            String errorMessage = String.format("The given protocol is invalid: %s", protocol);
+            getLogger().error(errorMessage, LogTag.WEBPDF_TASK);
+            throw new BuildException(errorMessage, getLocation());
+        }
+        getTaskConfiguration().setProtocol(webServiceProtocol);
+    }
+
+    /**
+     * This will set the minimum number of concurrent webservice calls, an adaptive limit shall not fall below.
+     * (DEFAULT is 1)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param minConcurrency The minimum number of concurrent webservice calls.
+     */
+    @AntAccess
+    public void setMinConcurrency(int minConcurrency) {
+        getTaskConfiguration().setMinConcurrency(minConcurrency);
+    }
+
+    /**
+     * This will set the maximum number of concurrent webservice calls, an adaptive limit shall not exceed. The
+     * number of calls remains bounded by the parallelism and the maximum number of connections. (DEFAULT is the
+     * maximum number of connections)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param maxConcurrency The maximum number of concurrent webservice calls.
+     */
+    @AntAccess
+    public void setMaxConcurrency(int maxConcurrency) {
+        getTaskConfiguration().setMaxConcurrency(maxConcurrency);
+    }
+
+    /**
+     * This will set the maximum number of attempts for a single webservice call. Calls failing due to an interrupted
+     * communication with the webPDF server, or due to one of the retry codes, are repeated on the same source, until
+     * this number of attempts is reached. Groups may override this setting. (DEFAULT is 1 - no retries)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param maxAttempts The maximum number of attempts for a single webservice call.
+     */
+    @AntAccess
+    public void setMaxAttempts(int maxAttempts) {
+        getTaskConfiguration().setMaxAttempts(maxAttempts);
+    }
+
+    /**
+     * This will set the delay (in milliseconds) before the first retry of a failed webservice call. The delay is
+     * doubled with each further attempt. (DEFAULT is 1000)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param retryDelay The delay before the first retry.
+     */
+    @AntAccess
+    public void setRetryDelay(long retryDelay) {
+        getTaskConfiguration().setRetryDelay(retryDelay);
+    }
+
+    /**
+     * This will set the maximum delay (in milliseconds) between two attempts of a webservice call. (DEFAULT is 30000)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param maxRetryDelay The maximum delay between two attempts.
+     */
+    @AntAccess
+    public void setMaxRetryDelay(long maxRetryDelay) {
+        getTaskConfiguration().setMaxRetryDelay(maxRetryDelay);
+    }
+
+    /**
+     * This will set the fraction (0 to 1) by which the delay between two attempts may randomly be shortened, so that
+     * concurrently failing calls are not repeated at the same time. (DEFAULT is 0.5)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param retryJitter The jitter of the delays.
+     */
+    @AntAccess
+    public void setRetryJitter(double retryJitter) {
+        getTaskConfiguration().setRetryJitter(retryJitter);
+    }
+
+    /**
+     * This will set a comma separated list of webservice error codes (EC), that shall be retried.
+     * (DEFAULT is none)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param retryCodes The comma separated error codes, that shall be retried.
+     */
+    @AntAccess
+    public void setRetryCodes(@Nullable String retryCodes) {
+        try {
+            getTaskConfiguration().setRetryCodes(RetryPolicy.parseRetryCodes(retryCodes));
+        } catch (NumberFormatException ex) {
+            String errorMessage = String.format("The given retry codes are invalid: %s", retryCodes);
+            getLogger().error(errorMessage, LogTag.WEBPDF_TASK);
+            throw new BuildException(errorMessage, getLocation());
+        }
+    }
+
+    /**
+     * This will set the number of consecutive webservice calls, that must fail to reach the webPDF server, before the
+     * circuit breaker opens: While open, all calls fail instantly, instead of waiting for connection and read timeouts.
+     * After the breaker timeout, a single probing call is permitted, which closes the breaker again, if it reaches the
+     * server. A value lower than 1 disables the circuit breaker. (DEFAULT is 0)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param breakerThreshold The number of consecutive failures, that shall open the circuit breaker.
+     */
+    @AntAccess
+    public void setBreakerThreshold(int breakerThreshold) {
+        getTaskConfiguration().setBreakerThreshold(breakerThreshold);
+    }
+
+    /**
+     * This will set the time (in milliseconds) an opened circuit breaker shall reject all calls, before a probing call
+     * is permitted. (DEFAULT is 30000)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param breakerTimeout The time an opened circuit breaker shall reject all calls.
+     */
+    @AntAccess
+    public void setBreakerTimeout(long breakerTimeout) {
+        getTaskConfiguration().setBreakerTimeout(breakerTimeout);
+    }
+
+    /**
+     * When set to true, source files shall be processed by three stages, connected by bounded queues: The next source
+     * files are checked for being up to date, while the current source file is processed and the previous result is
+     * published. Source files are not read ahead. The operations of a source file are still executed one source file at
+     * a time. This setting only
+     * applies, if source files are not processed concurrently (parallelism of 1). (DEFAULT is false)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param staged True, if source files shall be processed by a staged pipeline.
+     */
+    @AntAccess
+    public void setStaged(boolean staged) {
+        getTaskConfiguration().setStaged(staged);
+    }
+
+    /**
+     * This will set whether groups, that do not depend on each other, shall be executed concurrently. The dependencies
+     * are derived from the input and output variables of the groups: A group depends on the groups publishing the
+     * variables it reads or references and on the preceding groups altering the current source file. A group
+     * publishing it's result to an output variable branches off the source file - all branches read the same copy of
+     * the source file, while each branch creates it's own results. Other nested tasks are executed after all preceding
+     * and before all following groups. (DEFAULT is false)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param fanOut True, if independent groups shall be executed concurrently.
+     */
+    @AntAccess
+    public void setFanOut(boolean fanOut) {
+        getTaskConfiguration().setFanOut(fanOut);
+    }
+
+    /**
+     * This will set the maximum number of connections, that may be opened to the webPDF server at the same time.
+     * Connections are kept open and are reused by following webservice calls. (DEFAULT is one connection per
+     * concurrently processed source file and operation of the widest pipelined group.)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param maxConnections The maximum number of connections to the webPDF server.
+     */
+    @AntAccess
+    public void setMaxConnections(int maxConnections) {
+        getTaskConfiguration().setMaxConnections(maxConnections);
+    }
+
+    /**
+     * This will set the time (in milliseconds) an unused connection to the webPDF server shall be kept open, before it
+     * is closed. (DEFAULT is 60000)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param connectionIdleTimeout The time an unused connection shall be kept open.
+     */
+    @AntAccess
+    public void setConnectionIdleTimeout(long connectionIdleTimeout) {
+        getTaskConfiguration().setConnectionIdleTimeout(connectionIdleTimeout);
+    }
+
+    /**
+     * This will set the way the final results shall be published to their target files:
+     * <ul>
+     * <li>"move": Temporary results are moved (renamed) to their targets, instead of being copied. Results, that must
+     * be preserved, are copied.</li>
+     * <li>"copy": Results are always copied to their targets.</li>
+     * <li>"link": Targets are created as hard links to temporary results, if supported by the file system. Results,
+     * that must be preserved, are copied.</li>
+     * </ul>
+     * (DEFAULT is "move")
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param finalize The way the final results shall be published.
+     */
+    @AntAccess
+    public void setFinalize(@Nullable String finalize) {
+        FinalizeMode finalizeMode = FinalizeMode.fromName(finalize);
+        if (finalizeMode == null) {
+            String errorMessage = String.format("The given finalize mode is invalid: %s", finalize);
+            getLogger().error(errorMessage, LogTag.WEBPDF_TASK);
+            throw new BuildException(errorMessage, getLocation());
+        }
+        getTaskConfiguration().setFinalizeMode(finalizeMode);
+    }
+
+    /**
+     * This will enable an up to date check for all source files. Source files, whose target file has been created by a
+     * previous execution using the same operations and that have not changed since, are skipped. The processed source
+     * files are recorded in a manifest file (.webpdf-ant.manifest) in the target directory.
+     * <ul>
+     * <li>"none": All source files are processed.</li>
+     * <li>"timestamp": A source file has changed, if it's modification time or size has changed.</li>
+     * <li>"content": A source file has changed, if it's content has changed.</li>
+     * </ul>
+     * (DEFAULT is "none")
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param upToDate The way source files shall be checked for changes.
+     */
+    @AntAccess
+    public void setUpToDate(@Nullable String upToDate) {
+        UpToDateMode upToDateMode = UpToDateMode.fromName(upToDate);
+        if (upToDateMode == null) {
+            String errorMessage = String.format("The given up to date mode is invalid: %s", upToDate);
+            getLogger().error(errorMessage, LogTag.WEBPDF_TASK);
+            throw new BuildException(errorMessage, getLocation());
+        }
+        getTaskConfiguration().setUpToDateMode(upToDateMode);
+    }
+
+    /**
+     * When set to true, the wall time of each processed task, group, operation and finalization, the bytes sent to and
+     * received from the webservices, the retries and the bytes written to temporary files shall be recorded. A report
+     * (50th, 95th and 99th percentile per phase and operation type, documents/s and MB/s) is logged at the end of the
+     * execution. (DEFAULT is false)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param metrics True, if metrics shall be recorded and reported.
+     */
+    @AntAccess
+    public void setMetrics(boolean metrics) {
+        getTaskConfiguration().setMetricsEnabled(metrics);
+    }
+
+    /**
+     * This will set the file the metrics report shall additionally be written to - as CSV ("metric,value" lines), if
+     * the file name ends with ".csv", as JSON otherwise. Setting this file enables the recording of metrics.
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param metricsFile The file the metrics report shall be written to.
+     */
+    @AntAccess
+    public void setMetricsFile(@Nullable File metricsFile) {
+        getTaskConfiguration().setMetricsFile(metricsFile);
+    }
+
+    /**
+     * This will set a directory the results of webservice calls shall be cached in. A source document, that is
+     * processed by an operation using the same configuration and the same webPDF server(s) again, shall reuse the
+     * cached result, instead of calling the webservice. The cache may be shared by several executions. (DEFAULT is
+     * null - results are not cached.)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param cacheDir The directory the results of webservice calls shall be cached in.
+     */
+    @AntAccess
+    public void setCacheDir(@Nullable File cacheDir) {
+        getTaskConfiguration().setCacheDirectory(cacheDir);
+    }
+
+    /**
+     * This will set the maximum size (in bytes) of all cached results. The least recently used results shall be
+     * evicted, when this size is exceeded. (DEFAULT is 1073741824 - 1 GiB)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param cacheSize The maximum size of all cached results.
+     */
+    @AntAccess
+    public void setCacheSize(long cacheSize) {
+        getTaskConfiguration().setCacheSize(cacheSize);
+    }
+
+    /**
+     * This will set the maximum size (in bytes) of an intermediate result, that shall be held in memory and passed to
+     * the following operation directly, instead of being written to the temporary directory. Larger results are
+     * written to temporary files. (DEFAULT is 0 - all intermediate results are written to temporary files.)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param memoryThreshold The maximum size of an intermediate result held in memory.
+     */
+    @AntAccess
+    public void setMemoryThreshold(int memoryThreshold) {
+        getTaskConfiguration().getTaskFiles().getTempDir().setMemoryThreshold(memoryThreshold);
+    }
+
+    /**
+     * This will set the maximum amount of memory (in bytes), that may be used by all intermediate results held in
+     * memory at the same time. When exhausted, further intermediate results are written to temporary files.
+     * (DEFAULT is 67108864 - 64 MiB)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param memoryBudget The maximum amount of memory used by intermediate results.
+     */
+    @AntAccess
+    public void setMemoryBudget(long memoryBudget) {
+        getTaskConfiguration().getTaskFiles().getTempDir().setMemoryBudget(memoryBudget);
+    }
+
+    /**
+     * This will set the maximum number of bytes, that may be occupied by temporary files. While the temporary files
+     * of the source files currently processed occupy the quota, no further source file is started, until enough
+     * temporary files have been released. (DEFAULT is 0 - the temporary files are not limited.)
+     * <p>
+     * It is not expected to use this method actively, as it is specifically defined for the access by ANT.
+     *
+     * @param tempQuota The maximum size of all temporary files.
+     */
+    @AntAccess
+    public void setTempQuota(long tempQuota) {
+        getTaskConfiguration().getTaskFiles().getTempDir().setTempQuota(tempQuota);
+    }
+
     /**
      * This will initialize an URL pointing to the webPDF server. This information is required to locate the server.
      * This shall only contain the address and port of the server - all further URL parts will be generated automatically.
@@ -292,4 +1471,84 @@ public class WebPDFTask extends Task implements TaskContainer {
         getTaskConfiguration().getTaskFiles().setTempDir(tempDir);
     }
 
+    /**
+     * A source file, that has been prepared for processing, and the outcome of it's up to date check.
+     */
+    private static class PreparedFile {
+
+        /**
+         * Marks the end of a stage queue.
+         */
+        @NotNull
+        private static final PreparedFile END = new PreparedFile(null, null, null, false);
+
+        @Nullable
+        private final IterativeTaskFile taskFile;
+        @Nullable
+        private final File expectedTarget;
+        @Nullable
+        private final String sourceStamp;
+        private final boolean upToDate;
+
+        /**
+         * A prepared source file.
+         *
+         * @param taskFile       The source file.
+         * @param expectedTarget The file the result is expected to be published to.
+         * @param sourceStamp    The stamp of the source file, used for the up to date check.
+         * @param upToDate       True, if the target file is up to date.
+         */
+        private PreparedFile(@Nullable IterativeTaskFile taskFile, @Nullable File expectedTarget,
+            @Nullable String sourceStamp, boolean upToDate) {
+            this.taskFile = taskFile;
+            this.expectedTarget = expectedTarget;
+            this.sourceStamp = sourceStamp;
+            this.upToDate = upToDate;
+        }
+
+        /**
+         * Returns the prepared source file.
+         *
+         * @return The prepared source file.
+         * @throws IllegalStateException Shall be thrown, if this instance is marking the end of a queue.
+         */
+        @NotNull
+        private IterativeTaskFile getTaskFile() {
+            if (taskFile == null) {
+                throw new IllegalStateException("The end of a stage queue does not contain a source file.");
+            }
+            return taskFile;
+        }
+
+        /**
+         * Returns the file the result is expected to be published to.
+         *
+         * @return The expected target file, or null if it is unknown.
+         */
+        @Nullable
+        private File getExpectedTarget() {
+            return expectedTarget;
+        }
+
+        /**
+         * Returns the stamp of the source file, that has been used for the up to date check.
+         *
+         * @return The stamp of the source file, or null if no up to date check has been performed.
+         */
+        @Nullable
+        private String getSourceStamp() {
+            return sourceStamp;
+        }
+
+        /**
+         * Returns true, if the target file is up to date and the source file does not need to be processed.
+         *
+         * @return True, if the target file is up to date.
+         */
+        private boolean isUpToDate() {
+            return upToDate;
+        }
+
+    }
+
 }
@@ -0,0 +1,59 @@
+package net.webpdf.ant.task;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Provides the different ways the number of concurrent webservice calls may be limited.
+ */
+public enum ConcurrencyMode {
+
+    /**
+     * The number of concurrent webservice calls is solely limited by the parallelism and the maximum number of
+     * connections.
+     */
+    FIXED("fixed"),
+    /**
+     * The number of concurrent webservice calls is adapted to the latency and the failures reported by the server.
+     */
+    ADAPTIVE("adaptive");
+
+    @NotNull
+    private final String name;
+
+    /**
+     * A way the number of concurrent webservice calls may be limited.
+     *
+     * @param name The name of the concurrency mode, as it is used in build files.
+     */
+    ConcurrencyMode(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the concurrency mode, as it is used in build files.
+     *
+     * @return The name of the concurrency mode.
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the concurrency mode having the given name, or null if such a mode does not exist.
+     *
+     * @param name The name of the concurrency mode. (case insensitive)
+     * @return The concurrency mode having the given name, or null if such a mode does not exist.
+     */
+    @Nullable
+    public static ConcurrencyMode fromName(@Nullable String name) {
+        for (ConcurrencyMode mode : values()) {
+            if (mode.getName().equalsIgnoreCase(name == null ? "" : name.trim())) {
+                return mode;
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,102 @@
+package net.webpdf.ant.task;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Provides the different kinds of threads, that may be used to process source files and operations concurrently.
+ */
+public enum ExecutorType {
+
+    PLATFORM("platform"),
+    VIRTUAL("virtual");
+
+    @Nullable
+    private static final Method VIRTUAL_EXECUTOR_FACTORY = findVirtualExecutorFactory();
+
+    @NotNull
+    private final String name;
+
+    /**
+     * A kind of threads, that may be used to process source files and operations concurrently.
+     *
+     * @param name The name of the executor type, as it is used in build files.
+     */
+    ExecutorType(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the executor type, as it is used in build files.
+     *
+     * @return The name of the executor type.
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Creates an executor for the given number of concurrent tasks. Virtual threads are created per task - the number
+     * of concurrent tasks must be bounded by the caller. If the running JVM does not support virtual threads, a pool of
+     * platform threads shall be created instead.
+     *
+     * @param threads The number of tasks, that shall be executed concurrently.
+     * @return An executor for the given number of concurrent tasks.
+     */
+    @NotNull
+    public ExecutorService createExecutor(int threads) {
+        if (this == VIRTUAL && VIRTUAL_EXECUTOR_FACTORY != null) {
+            try {
+                return (ExecutorService) VIRTUAL_EXECUTOR_FACTORY.invoke(null);
+            } catch (ReflectiveOperationException | ClassCastException ignore) {
+                //THE VIRTUAL THREAD EXECUTOR IS NOT USABLE - A PLATFORM POOL SHALL BE USED INSTEAD.
+            }
+        }
+        return Executors.newFixedThreadPool(Math.max(1, threads));
+    }
+
+    /**
+     * Returns true, if the running JVM supports virtual threads.
+     *
+     * @return True, if virtual threads are supported.
+     */
+    public static boolean isVirtualSupported() {
+        return VIRTUAL_EXECUTOR_FACTORY != null;
+    }
+
+    /**
+     * Returns the executor type having the given name, or null if such a type does not exist.
+     *
+     * @param name The name of the executor type. (case insensitive)
+     * @return The executor type having the given name, or null if such a type does not exist.
+     */
+    @Nullable
+    public static ExecutorType fromName(@Nullable String name) {
+        for (ExecutorType type : values()) {
+            if (type.getName().equalsIgnoreCase(name == null ? "" : name.trim())) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Looks up the factory method for virtual thread executors, which is available on JDK 21 and higher.
+     *
+     * @return The factory method for virtual thread executors, or null if virtual threads are not supported.
+     */
+    @Nullable
+    private static Method findVirtualExecutorFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException | SecurityException ex) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,74 @@
+package net.webpdf.ant.task;
+
+import net.webpdf.wsclient.WebServiceProtocol;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Provides the protocols, that may be used to call the webservices of a webPDF server.
+ */
+public enum Protocol {
+
+    /**
+     * Each operation sends the whole document to the server and receives the whole result.
+     */
+    SOAP("soap", WebServiceProtocol.SOAP),
+    /**
+     * The document is uploaded to the document storage of the server once per group - all operations of the group are
+     * executed on the stored document and only the final result is downloaded.
+     */
+    REST("rest", WebServiceProtocol.REST);
+
+    @NotNull
+    private final String name;
+    @NotNull
+    private final WebServiceProtocol webServiceProtocol;
+
+    /**
+     * A protocol, that may be used to call the webservices of a webPDF server.
+     *
+     * @param name               The name of the protocol, as it is used in build files.
+     * @param webServiceProtocol The matching protocol of the webservice client.
+     */
+    Protocol(@NotNull String name, @NotNull WebServiceProtocol webServiceProtocol) {
+        this.name = name;
+        this.webServiceProtocol = webServiceProtocol;
+    }
+
+    /**
+     * Returns the name of the protocol, as it is used in build files.
+     *
+     * @return The name of the protocol.
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the matching protocol of the webservice client.
+     *
+     * @return The matching protocol of the webservice client.
+     */
+    @NotNull
+    public WebServiceProtocol getWebServiceProtocol() {
+        return webServiceProtocol;
+    }
+
+    /**
+     * Returns the protocol having the given name, or null if such a protocol does not exist.
+     *
+     * @param name The name of the protocol. (case insensitive)
+     * @return The protocol having the given name, or null if such a protocol does not exist.
+     */
+    @Nullable
+    public static Protocol fromName(@Nullable String name) {
+        for (Protocol protocol : values()) {
+            if (protocol.getName().equalsIgnoreCase(name == null ? "" : name.trim())) {
+                return protocol;
+            }
+        }
+        return null;
+    }
+
+}
@@ -44,7 +44,8 @@ public abstract class Task extends org.apache.tools.ant.Task implements TaskIntf
 
     /**
      * Sets the configuration container managing the iterative file progression in between the encapsulated tasks and
-     * sub tasks.
+     * sub tasks. It is only used, if this task is executed directly - the containing webPDF task passes the files of
+     * each processed source to it's sub tasks explicitly.
      *
      * @param files The file container this task shall be using.
      */
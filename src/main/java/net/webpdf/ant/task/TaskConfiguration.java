@@ -1,13 +1,32 @@
 package net.webpdf.ant.task;
 
+import net.webpdf.ant.task.cache.ResultCache;
 import net.webpdf.ant.task.credentials.CredentialsFactory;
+import net.webpdf.ant.task.files.FinalizeMode;
 import net.webpdf.ant.task.files.IterativeTaskFileMap;
+import net.webpdf.ant.task.files.UpToDateMode;
+import net.webpdf.ant.task.logging.AntLogger;
+import net.webpdf.ant.task.metrics.Metrics;
+import net.webpdf.ant.task.server.Endpoint;
+import net.webpdf.ant.task.server.LoadBalancer;
+import net.webpdf.ant.task.server.Server;
+import net.webpdf.ant.task.session.CircuitBreaker;
+import net.webpdf.ant.task.session.ConcurrencyLimiter;
+import net.webpdf.ant.task.session.RetryPolicy;
+import net.webpdf.ant.task.session.SessionPool;
 import org.apache.tools.ant.Task;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 /**
  * This class bundles all parameters set in the top level webPDF task container.
@@ -15,6 +34,9 @@ import java.net.URL;
 public class TaskConfiguration {
 
     private static final String DEFAULT_SERVER_URL = "http://localhost:8080//webPDF";
+    private static final long DEFAULT_CONNECTION_IDLE_TIMEOUT = 60000;
+    private static final long DEFAULT_CACHE_SIZE = 1024L * 1024 * 1024;
+    private static final long DEFAULT_BREAKER_TIMEOUT = 30000;
 
     @NotNull
     private final IterativeTaskFileMap taskFiles = new IterativeTaskFileMap();
@@ -24,6 +46,50 @@ public class TaskConfiguration {
     private org.apache.tools.ant.Task credentialsTask = null;
 
     private boolean failOnError = true;
+    private int parallelism = 1;
+    private boolean staged = false;
+    private boolean fanOut = false;
+    @NotNull
+    private ExecutorType executorType = ExecutorType.PLATFORM;
+    private int maxConnections = 0;
+    private int pipelineWidth = 1;
+    @Nullable
+    private ExecutorService stageExecutor = null;
+    private long connectionIdleTimeout = DEFAULT_CONNECTION_IDLE_TIMEOUT;
+    @NotNull
+    private FinalizeMode finalizeMode = FinalizeMode.MOVE;
+    @NotNull
+    private UpToDateMode upToDateMode = UpToDateMode.NONE;
+    @Nullable
+    private File cacheDirectory = null;
+    private long cacheSize = DEFAULT_CACHE_SIZE;
+    @Nullable
+    private ResultCache resultCache = null;
+    @NotNull
+    private Protocol protocol = Protocol.SOAP;
+    @NotNull
+    private ConcurrencyMode concurrencyMode = ConcurrencyMode.FIXED;
+    private int minConcurrency = 1;
+    private int maxConcurrency = 0;
+    @Nullable
+    private ConcurrencyLimiter concurrencyLimiter = null;
+    private int maxAttempts = RetryPolicy.DEFAULT_MAX_ATTEMPTS;
+    private long retryDelay = RetryPolicy.DEFAULT_RETRY_DELAY;
+    private long maxRetryDelay = RetryPolicy.DEFAULT_MAX_RETRY_DELAY;
+    private double retryJitter = RetryPolicy.DEFAULT_RETRY_JITTER;
+    @NotNull
+    private Set<Integer> retryCodes = new HashSet<>();
+    private int breakerThreshold = 0;
+    private long breakerTimeout = DEFAULT_BREAKER_TIMEOUT;
+    @NotNull
+    private final List<Server> servers = new ArrayList<>();
+    @Nullable
+    private LoadBalancer loadBalancer = null;
+    private boolean metricsEnabled = false;
+    @Nullable
+    private File metricsFile = null;
+    @Nullable
+    private Metrics metrics = null;
 
     /**
      * Shall create a new task configuration, that shall be referenced by all sub tasks.
@@ -81,6 +147,82 @@ public class TaskConfiguration {
         return failOnError;
     }
 
+    /**
+     * Sets the number of source files, that shall be processed concurrently. A value of 1 (DEFAULT) shall process all
+     * files sequentially.
+     *
+     * @param parallelism The number of source files, that shall be processed concurrently.
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Returns the number of source files, that shall be processed concurrently.
+     *
+     * @return The number of source files, that shall be processed concurrently.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets whether source files shall be processed by a staged pipeline, overlapping the up to date check of the next
+     * and the publishing of the previous source file with the webservice calls. (DEFAULT is false)
+     *
+     * @param staged True, if source files shall be processed by a staged pipeline.
+     */
+    public void setStaged(boolean staged) {
+        this.staged = staged;
+    }
+
+    /**
+     * Returns true, if source files shall be processed by a staged pipeline.
+     *
+     * @return True, if source files shall be processed by a staged pipeline.
+     */
+    public boolean isStaged() {
+        return staged;
+    }
+
+    /**
+     * Sets whether groups, that do not depend on each other, shall be executed concurrently. (DEFAULT is false)
+     *
+     * @param fanOut True, if independent groups shall be executed concurrently.
+     */
+    public void setFanOut(boolean fanOut) {
+        this.fanOut = fanOut;
+    }
+
+    /**
+     * Returns true, if groups, that do not depend on each other, shall be executed concurrently.
+     *
+     * @return True, if independent groups shall be executed concurrently.
+     */
+    public boolean isFanOut() {
+        return fanOut;
+    }
+
+    /**
+     * Sets the kind of threads, that shall be used to process source files and operations concurrently.
+     * (DEFAULT is PLATFORM)
+     *
+     * @param executorType The kind of threads, that shall be used.
+     */
+    public void setExecutorType(@NotNull ExecutorType executorType) {
+        this.executorType = executorType;
+    }
+
+    /**
+     * Returns the kind of threads, that shall be used to process source files and operations concurrently.
+     *
+     * @return The kind of threads, that shall be used.
+     */
+    @NotNull
+    public ExecutorType getExecutorType() {
+        return executorType;
+    }
+
     /**
      * Initializes the credentials, that shall be used for the authentication at the webPDF server.
      *
@@ -100,4 +242,452 @@ public class TaskConfiguration {
         return CredentialsFactory.produceCredentials(credentialsTask);
     }
 
+    /**
+     * Sets the maximum number of connections (sessions), that may be opened to each webPDF server at the same time.
+     * A value lower than 1 (DEFAULT) shall allow one connection per concurrently processed source file - or as many
+     * connections per concurrently processed source file, as the widest pipelined group requires.
+     *
+     * @param maxConnections The maximum number of connections to the webPDF server.
+     */
+    public void setMaxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+    }
+
+    /**
+     * Returns the maximum number of connections (sessions), that may be opened to each webPDF server at the same time.
+     *
+     * @return The maximum number of connections to the webPDF server.
+     */
+    public int getMaxConnections() {
+        return maxConnections < 1 ? parallelism * pipelineWidth : maxConnections;
+    }
+
+    /**
+     * Registers the number of connections, a pipelined group requires to process a source file. The default maximum
+     * number of connections shall suffice for the widest registered group. Groups shall be registered, before the
+     * first webservice call of an execution.
+     *
+     * @param pipelineWidth The number of operations, that are executed at the same time for a source file.
+     */
+    public synchronized void requirePipelineWidth(int pipelineWidth) {
+        this.pipelineWidth = Math.max(this.pipelineWidth, pipelineWidth);
+    }
+
+    /**
+     * Returns the executor running the stages of pipelined groups for the current webPDF task execution. The executor
+     * shall be created on first access and shall be reused for all source files. It provides a thread for each
+     * connection, that may be opened, so that the stages of all concurrently pipelined source files may run at once.
+     *
+     * @return The executor of the pipeline stages.
+     */
+    @NotNull
+    public synchronized ExecutorService getStageExecutor() {
+        if (stageExecutor == null) {
+            stageExecutor = executorType.createExecutor(getMaxConnections() * Math.max(1, servers.size()));
+        }
+        return stageExecutor;
+    }
+
+    /**
+     * Stops the executor running the stages of pipelined groups. A following execution shall use a fresh executor.
+     */
+    public synchronized void closeStageExecutor() {
+        if (stageExecutor != null) {
+            stageExecutor.shutdownNow();
+            stageExecutor = null;
+        }
+    }
+
+    /**
+     * Sets the time (in milliseconds) an unused connection to the webPDF server shall be kept open. (DEFAULT is 60000)
+     *
+     * @param connectionIdleTimeout The time an unused connection shall be kept open.
+     */
+    public void setConnectionIdleTimeout(long connectionIdleTimeout) {
+        this.connectionIdleTimeout = connectionIdleTimeout;
+    }
+
+    /**
+     * Returns the time (in milliseconds) an unused connection to the webPDF server shall be kept open.
+     *
+     * @return The time an unused connection shall be kept open.
+     */
+    public long getConnectionIdleTimeout() {
+        return connectionIdleTimeout;
+    }
+
+    /**
+     * Sets the way the final results shall be published to their target files. (DEFAULT is MOVE)
+     *
+     * @param finalizeMode The way the final results shall be published.
+     */
+    public void setFinalizeMode(@NotNull FinalizeMode finalizeMode) {
+        this.finalizeMode = finalizeMode;
+    }
+
+    /**
+     * Returns the way the final results shall be published to their target files.
+     *
+     * @return The way the final results shall be published.
+     */
+    @NotNull
+    public FinalizeMode getFinalizeMode() {
+        return finalizeMode;
+    }
+
+    /**
+     * Sets the way source files shall be checked for changes, to decide whether they must be processed again.
+     * (DEFAULT is NONE)
+     *
+     * @param upToDateMode The way source files shall be checked for changes.
+     */
+    public void setUpToDateMode(@NotNull UpToDateMode upToDateMode) {
+        this.upToDateMode = upToDateMode;
+    }
+
+    /**
+     * Returns the way source files shall be checked for changes.
+     *
+     * @return The way source files shall be checked for changes.
+     */
+    @NotNull
+    public UpToDateMode getUpToDateMode() {
+        return upToDateMode;
+    }
+
+    /**
+     * Sets the directory the results of webservice calls shall be cached in. Results are not cached, if no directory
+     * has been set. (DEFAULT is null)
+     *
+     * @param cacheDirectory The directory results shall be cached in.
+     */
+    public void setCacheDirectory(@Nullable File cacheDirectory) {
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Sets the maximum size (in bytes) of all cached results. (DEFAULT is 1 GiB)
+     *
+     * @param cacheSize The maximum size of all cached results.
+     */
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Returns the cache for the results of webservice calls. The cache shall be created on first access.
+     *
+     * @return The cache for the results of webservice calls, or null if results shall not be cached.
+     * @throws IOException Shall be thrown if the cache directory could not be created or read.
+     */
+    @Nullable
+    public synchronized ResultCache getResultCache() throws IOException {
+        if (resultCache == null && cacheDirectory != null) {
+            resultCache = new ResultCache(cacheDirectory, cacheSize);
+        }
+        return resultCache;
+    }
+
+    /**
+     * Sets the protocol, that shall be used to call the webservices of the webPDF server. (DEFAULT is SOAP)
+     *
+     * @param protocol The protocol used to call the webservices.
+     */
+    public void setProtocol(@NotNull Protocol protocol) {
+        this.protocol = protocol;
+    }
+
+    /**
+     * Returns the protocol, that shall be used to call the webservices of the webPDF server.
+     *
+     * @return The protocol used to call the webservices.
+     */
+    @NotNull
+    public Protocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Sets the way the number of concurrent webservice calls shall be limited. (DEFAULT is FIXED)
+     *
+     * @param concurrencyMode The way the number of concurrent webservice calls shall be limited.
+     */
+    public void setConcurrencyMode(@NotNull ConcurrencyMode concurrencyMode) {
+        this.concurrencyMode = concurrencyMode;
+    }
+
+    /**
+     * Returns the way the number of concurrent webservice calls shall be limited.
+     *
+     * @return The way the number of concurrent webservice calls shall be limited.
+     */
+    @NotNull
+    public ConcurrencyMode getConcurrencyMode() {
+        return concurrencyMode;
+    }
+
+    /**
+     * Sets the minimum number of concurrent webservice calls, an adaptive limit shall not fall below. (DEFAULT is 1)
+     *
+     * @param minConcurrency The minimum number of concurrent webservice calls.
+     */
+    public void setMinConcurrency(int minConcurrency) {
+        this.minConcurrency = Math.max(1, minConcurrency);
+    }
+
+    /**
+     * Returns the minimum number of concurrent webservice calls, an adaptive limit shall not fall below.
+     *
+     * @return The minimum number of concurrent webservice calls.
+     */
+    public int getMinConcurrency() {
+        return minConcurrency;
+    }
+
+    /**
+     * Sets the maximum number of concurrent webservice calls, an adaptive limit shall not exceed. A value lower than 1
+     * (DEFAULT) shall use the maximum number of connections.
+     *
+     * @param maxConcurrency The maximum number of concurrent webservice calls.
+     */
+    public void setMaxConcurrency(int maxConcurrency) {
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * Returns the maximum number of concurrent webservice calls, an adaptive limit shall not exceed.
+     *
+     * @return The maximum number of concurrent webservice calls.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency < 1 ? getMaxConnections() : maxConcurrency;
+    }
+
+    /**
+     * Returns the limiter adapting the number of concurrent webservice calls of the current webPDF task execution. The
+     * limiter shall be created on first access and is shared with the following executions.
+     *
+     * @return The limiter of concurrent webservice calls, or null if the number of calls shall not be adapted.
+     */
+    @Nullable
+    public synchronized ConcurrencyLimiter getConcurrencyLimiter() {
+        if (concurrencyMode != ConcurrencyMode.ADAPTIVE) {
+            return null;
+        }
+        if (concurrencyLimiter == null) {
+            concurrencyLimiter = new ConcurrencyLimiter(minConcurrency, getMaxConcurrency());
+        }
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Sets the maximum number of attempts for a single webservice call. A value of 1 (DEFAULT) disables retries.
+     *
+     * @param maxAttempts The maximum number of attempts for a single webservice call.
+     */
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Sets the delay (in milliseconds) before the first retry of a failed webservice call. Following delays are doubled
+     * with each attempt. (DEFAULT is 1000)
+     *
+     * @param retryDelay The delay before the first retry.
+     */
+    public void setRetryDelay(long retryDelay) {
+        this.retryDelay = retryDelay;
+    }
+
+    /**
+     * Sets the maximum delay (in milliseconds) between two attempts of a webservice call. (DEFAULT is 30000)
+     *
+     * @param maxRetryDelay The maximum delay between two attempts.
+     */
+    public void setMaxRetryDelay(long maxRetryDelay) {
+        this.maxRetryDelay = maxRetryDelay;
+    }
+
+    /**
+     * Sets the fraction (0 to 1) by which the delay between two attempts may randomly be shortened. (DEFAULT is 0.5)
+     *
+     * @param retryJitter The jitter of the delays.
+     */
+    public void setRetryJitter(double retryJitter) {
+        this.retryJitter = retryJitter;
+    }
+
+    /**
+     * Sets the error codes of webservice results, that shall be retried. Interrupted communications with the webPDF
+     * server are always retried. (DEFAULT is none)
+     *
+     * @param retryCodes The error codes, that shall be retried.
+     */
+    public void setRetryCodes(@NotNull Set<Integer> retryCodes) {
+        this.retryCodes = new HashSet<>(retryCodes);
+    }
+
+    /**
+     * Returns the policy defining whether and when failed webservice calls shall be repeated.
+     *
+     * @return The retry policy of the webPDF task.
+     */
+    @NotNull
+    public RetryPolicy getRetryPolicy() {
+        return new RetryPolicy(maxAttempts, retryDelay, maxRetryDelay, retryJitter, retryCodes);
+    }
+
+    /**
+     * Sets the number of consecutive webservice calls, that must fail to reach the webPDF server, before all following
+     * calls to said server shall fail instantly. A value lower than 1 (DEFAULT) disables the circuit breaker.
+     *
+     * @param breakerThreshold The number of consecutive failures, that shall open the circuit breaker.
+     */
+    public void setBreakerThreshold(int breakerThreshold) {
+        this.breakerThreshold = breakerThreshold;
+    }
+
+    /**
+     * Sets the time (in milliseconds) an opened circuit breaker shall reject all calls, before a probing call is
+     * permitted. (DEFAULT is 30000)
+     *
+     * @param breakerTimeout The time an opened circuit breaker shall reject all calls.
+     */
+    public void setBreakerTimeout(long breakerTimeout) {
+        this.breakerTimeout = breakerTimeout;
+    }
+
+    /**
+     * Sets whether timings and throughput figures shall be recorded and reported at the end of the execution.
+     * (DEFAULT is false)
+     *
+     * @param metricsEnabled True, if timings and throughput figures shall be recorded.
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Sets the file the metrics report shall be written to. Setting a file enables the recording of metrics.
+     * (DEFAULT is null)
+     *
+     * @param metricsFile The file the metrics report shall be written to.
+     */
+    public void setMetricsFile(@Nullable File metricsFile) {
+        this.metricsFile = metricsFile;
+    }
+
+    /**
+     * Returns the file the metrics report shall be written to.
+     *
+     * @return The file the metrics report shall be written to, or null if the report shall only be logged.
+     */
+    @Nullable
+    public File getMetricsFile() {
+        return metricsFile;
+    }
+
+    /**
+     * Starts recording the metrics of a webPDF task execution - the wall time of the execution is measured from then
+     * on.
+     *
+     * @return The started metrics, or null if no metrics shall be recorded.
+     */
+    @Nullable
+    public synchronized Metrics startMetrics() {
+        if (!metricsEnabled && metricsFile == null) {
+            return null;
+        }
+        metrics = new Metrics();
+        return metrics;
+    }
+
+    /**
+     * Returns the metrics of the current webPDF task execution. If the recording has not been started via
+     * {@link #startMetrics()}, the metrics shall be created on first access - the wall time of the execution is
+     * measured from then on.
+     *
+     * @return The metrics of the current execution, or null if no metrics shall be recorded.
+     */
+    @Nullable
+    public synchronized Metrics getMetrics() {
+        if (!metricsEnabled && metricsFile == null) {
+            return null;
+        }
+        if (metrics == null) {
+            metrics = new Metrics();
+        }
+        return metrics;
+    }
+
+    /**
+     * Discards the metrics of the current webPDF task execution. A following execution shall record fresh metrics.
+     */
+    public synchronized void resetMetrics() {
+        metrics = null;
+    }
+
+    /**
+     * Adds a webPDF server, the webservice calls shall be spread across. If no server has been added, all calls shall
+     * be sent to the server URL.
+     *
+     * @param server The webPDF server, that shall be added.
+     */
+    public void addServer(@NotNull Server server) {
+        servers.add(server);
+    }
+
+    /**
+     * Returns the load balancer spreading the webservice calls of the current webPDF task execution across all webPDF
+     * servers. The load balancer shall be created on first access, using the servers, credentials and connection
+     * settings, that have been set up to then. Each server is limited to the maximum number of connections and is
+     * protected by it's own circuit breaker, if a breaker threshold has been set.
+     *
+     * @param logger The logger state transitions of the circuit breakers shall be logged with.
+     * @return The load balancer of the current execution.
+     * @throws MalformedURLException Is thrown if a given server url is invalid.
+     */
+    @NotNull
+    public synchronized LoadBalancer getLoadBalancer(@NotNull AntLogger logger) throws MalformedURLException {
+        if (loadBalancer == null) {
+            List<Endpoint> endpoints = new ArrayList<>();
+            if (servers.isEmpty()) {
+                endpoints.add(createEndpoint(getServerURL(), 1, logger));
+            }
+            for (Server server : servers) {
+                endpoints.add(createEndpoint(new URL(server.getUrl()), server.getWeight(), logger));
+            }
+            loadBalancer = new LoadBalancer(endpoints);
+        }
+        return loadBalancer;
+    }
+
+    /**
+     * Closes the sessions of all webPDF servers and discards their circuit breakers. A following execution shall use a
+     * fresh load balancer.
+     */
+    public synchronized void closeLoadBalancer() {
+        if (loadBalancer != null) {
+            loadBalancer.close();
+            loadBalancer = null;
+        }
+    }
+
+    /**
+     * Creates an endpoint for the given webPDF server.
+     *
+     * @param serverURL The URL of the webPDF server.
+     * @param weight    The share of webservice calls, the server shall receive.
+     * @param logger    The logger state transitions of the circuit breaker shall be logged with.
+     * @return The endpoint of the webPDF server.
+     */
+    @NotNull
+    private Endpoint createEndpoint(@NotNull URL serverURL, int weight, @NotNull AntLogger logger) {
+        SessionPool sessionPool = new SessionPool(serverURL, getCredentials(), protocol.getWebServiceProtocol(),
+            getMaxConnections(), connectionIdleTimeout);
+        CircuitBreaker circuitBreaker = breakerThreshold < 1 ? null :
+            new CircuitBreaker(serverURL.toString(), breakerThreshold, breakerTimeout, logger);
+        return new Endpoint(serverURL, weight, sessionPool, circuitBreaker);
+    }
+
 }
@@ -0,0 +1,244 @@
+package net.webpdf.ant.task.cache;
+
+import net.webpdf.ant.task.files.UpToDateManifest;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A content addressed cache for the results of webservice calls. A result is stored using a key, that is derived from
+ * the webPDF server, the processed source document and the operation configuration - a following call processing the
+ * same document using the same configuration and server may reuse the stored result, instead of calling the
+ * webservice again. The cache is limited to a maximum size - the least recently used results shall be evicted, when
+ * it is exceeded.
+ */
+public class ResultCache {
+
+    private static final String CACHE_SUFFIX = ".result";
+    private static final String TEMP_SUFFIX = ".temp";
+    private static final long STALE_TEMP_AGE = TimeUnit.HOURS.toMillis(24);
+
+    @NotNull
+    private final File directory;
+    private final long maxSize;
+    @NotNull
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    @NotNull
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long size = 0;
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Creates a cache storing it's results in the given directory. Results, that have been stored by previous
+     * executions, shall be reused. Results, that have not been stored completely, are removed, once they are stale -
+     * younger ones may still be stored by another execution sharing the directory.
+     *
+     * @param directory The directory results shall be stored in.
+     * @param maxSize   The maximum size (in bytes) of all stored results.
+     * @throws IOException Shall be thrown if the directory could not be created or read.
+     */
+    public ResultCache(@NotNull File directory, long maxSize) throws IOException {
+        this.directory = directory;
+        this.maxSize = Math.max(0, maxSize);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("The cache directory could not be created: " + directory.getAbsolutePath());
+        }
+        File[] files = directory.listFiles();
+        if (files == null) {
+            throw new IOException("The cache directory could not be read: " + directory.getAbsolutePath());
+        }
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        long staleTime = System.currentTimeMillis() - STALE_TEMP_AGE;
+        for (File file : files) {
+            if (file.isFile() && file.getName().endsWith(CACHE_SUFFIX)) {
+                String key = file.getName().substring(0, file.getName().length() - CACHE_SUFFIX.length());
+                entries.put(key, file.length());
+                size += file.length();
+            } else if (file.isFile() && file.getName().endsWith(TEMP_SUFFIX) && file.lastModified() < staleTime) {
+                //A RESULT, THAT HAS NOT BEEN STORED COMPLETELY BY A PREVIOUS EXECUTION.
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        lock.lock();
+        try {
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates the key of a result, using the identity of the webPDF server, the configuration of the operation and the
+     * processed source document.
+     *
+     * @param server        The identity of the webPDF server(s) producing the result.
+     * @param configuration The rendered configuration of the operation.
+     * @param source        A stream reading the processed source document.
+     * @return The key of the result.
+     * @throws IOException Shall be thrown if the source document could not be read.
+     */
+    @NotNull
+    public static String createKey(@NotNull String server, @NotNull byte[] configuration, @NotNull InputStream source)
+        throws IOException {
+        MessageDigest digest = UpToDateManifest.createDigest();
+        digest.update(UpToDateManifest.createDigest().digest(server.getBytes(StandardCharsets.UTF_8)));
+        digest.update(UpToDateManifest.createDigest().digest(configuration));
+        byte[] buffer = new byte[64 * 1024];
+        int read;
+        while ((read = source.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return UpToDateManifest.toHex(digest.digest());
+    }
+
+    /**
+     * Returns the stored result for the given key and marks it as recently used.
+     *
+     * @param key The key of the result.
+     * @return The file containing the stored result, or null if no such result has been stored.
+     */
+    @Nullable
+    public File lookup(@NotNull String key) {
+        File file = getFile(key);
+        lock.lock();
+        try {
+            Long length = entries.get(key);
+            if (length != null && file.isFile()) {
+                hits++;
+                //THE MODIFICATION TIME PRESERVES THE ORDER OF USE FOR FOLLOWING EXECUTIONS.
+                file.setLastModified(System.currentTimeMillis());
+                return file;
+            }
+            if (length != null) {
+                entries.remove(key);
+                size -= length;
+            }
+            misses++;
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the given result for the given key. The least recently used results shall be evicted, if the maximum
+     * size of the cache is exceeded.
+     *
+     * @param key    The key of the result.
+     * @param result A stream reading the result, that shall be stored.
+     * @throws IOException Shall be thrown if the result could not be stored.
+     */
+    public void store(@NotNull String key, @NotNull InputStream result) throws IOException {
+        File tempFile = File.createTempFile(key, TEMP_SUFFIX, directory);
+        try {
+            long length = Files.copy(result, tempFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            if (length > maxSize) {
+                return;
+            }
+            lock.lock();
+            try {
+                try {
+                    Files.move(tempFile.toPath(), getFile(key).toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException ex) {
+                    Files.move(tempFile.toPath(), getFile(key).toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                Long previous = entries.put(key, length);
+                size += length - (previous != null ? previous : 0);
+                evict();
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Returns the number of lookups, that found a stored result.
+     *
+     * @return The number of cache hits.
+     */
+    public long getHits() {
+        lock.lock();
+        try {
+            return hits;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of lookups, that did not find a stored result.
+     *
+     * @return The number of cache misses.
+     */
+    public long getMisses() {
+        lock.lock();
+        try {
+            return misses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the size (in bytes) of all stored results.
+     *
+     * @return The size of all stored results.
+     */
+    public long getSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Evicts the least recently used results, until the maximum size is no longer exceeded. The lock of this
+     * instance must be held by the calling thread.
+     */
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Map.Entry<String, Long> entry = iterator.next();
+            try {
+                Files.deleteIfExists(getFile(entry.getKey()).toPath());
+            } catch (IOException ignore) {
+                //THE RESULT IS NO LONGER INDEXED - IT SHALL BE OVERWRITTEN, WHEN IT IS STORED AGAIN.
+            }
+            size -= entry.getValue();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Returns the file, that is containing the result for the given key.
+     *
+     * @param key The key of the result.
+     * @return The file containing the result.
+     */
+    @NotNull
+    private File getFile(@NotNull String key) {
+        return new File(directory, key + CACHE_SUFFIX);
+    }
+
+}
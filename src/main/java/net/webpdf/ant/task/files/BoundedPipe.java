@@ -0,0 +1,192 @@
+package net.webpdf.ant.task.files;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded buffer, streaming the data written by one thread to another thread reading it. Unlike the piped streams of
+ * the JDK, waiting threads are parked on a lock instead of a monitor - virtual threads passing data through the pipe
+ * therefore do not pin their carrier threads.
+ */
+public class BoundedPipe {
+
+    @NotNull
+    private final byte[] buffer;
+    @NotNull
+    private final ReentrantLock lock = new ReentrantLock();
+    @NotNull
+    private final Condition readable = lock.newCondition();
+    @NotNull
+    private final Condition writable = lock.newCondition();
+    @NotNull
+    private final InputStream inputStream = new PipeInputStream();
+    @NotNull
+    private final OutputStream outputStream = new PipeOutputStream();
+
+    private int readPosition = 0;
+    private int available = 0;
+    private boolean writerClosed = false;
+    private boolean readerClosed = false;
+
+    /**
+     * Creates a pipe buffering up to the given number of bytes.
+     *
+     * @param capacity The number of bytes, that may be written, before the writer has to wait for the reader.
+     */
+    public BoundedPipe(int capacity) {
+        this.buffer = new byte[Math.max(1, capacity)];
+    }
+
+    /**
+     * Returns the stream reading the data written to this pipe. The stream shall reach it's end, once the writing
+     * stream has been closed and all written data has been read.
+     *
+     * @return The reading end of the pipe.
+     */
+    @NotNull
+    public InputStream getInputStream() {
+        return inputStream;
+    }
+
+    /**
+     * Returns the stream writing data to this pipe. Writing shall fail, once the reading stream has been closed.
+     *
+     * @return The writing end of the pipe.
+     */
+    @NotNull
+    public OutputStream getOutputStream() {
+        return outputStream;
+    }
+
+    /**
+     * The reading end of the pipe.
+     */
+    private class PipeInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(@NotNull byte[] target, int offset, int length) throws IOException {
+            if (offset < 0 || length < 0 || length > target.length - offset) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (length == 0) {
+                return 0;
+            }
+            lock.lock();
+            try {
+                while (available == 0) {
+                    if (readerClosed) {
+                        throw new IOException("The pipe has been closed.");
+                    }
+                    if (writerClosed) {
+                        return -1;
+                    }
+                    readable.await();
+                }
+                int read = Math.min(length, Math.min(available, buffer.length - readPosition));
+                System.arraycopy(buffer, readPosition, target, offset, read);
+                readPosition = (readPosition + read) % buffer.length;
+                available -= read;
+                writable.signalAll();
+                return read;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Reading from the pipe has been interrupted.");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int available() {
+            lock.lock();
+            try {
+                return available;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                readerClosed = true;
+                writable.signalAll();
+                readable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+    }
+
+    /**
+     * The writing end of the pipe.
+     */
+    private class PipeOutputStream extends OutputStream {
+
+        @Override
+        public void write(int value) throws IOException {
+            write(new byte[]{(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(@NotNull byte[] source, int offset, int length) throws IOException {
+            if (offset < 0 || length < 0 || length > source.length - offset) {
+                throw new IndexOutOfBoundsException();
+            }
+            lock.lock();
+            try {
+                while (length > 0) {
+                    if (writerClosed) {
+                        throw new IOException("The pipe has been closed.");
+                    }
+                    if (readerClosed) {
+                        throw new IOException("The reading end of the pipe has been closed.");
+                    }
+                    if (available == buffer.length) {
+                        writable.await();
+                        continue;
+                    }
+                    int writePosition = (readPosition + available) % buffer.length;
+                    int written = Math.min(length, Math.min(buffer.length - available, buffer.length - writePosition));
+                    System.arraycopy(source, offset, buffer, writePosition, written);
+                    available += written;
+                    offset += written;
+                    length -= written;
+                    readable.signalAll();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Writing to the pipe has been interrupted.");
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            lock.lock();
+            try {
+                writerClosed = true;
+                readable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+    }
+
+}
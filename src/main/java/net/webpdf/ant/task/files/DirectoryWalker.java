@@ -0,0 +1,150 @@
+package net.webpdf.ant.task.files;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily iterates over the given files, replacing each directory with all files contained in said directory and it's
+ * sub directories. The directory tree is walked depth first - the contents of a sub directory are provided, before the
+ * following entries of it's parent directory. Directories are read one at a time, when their contents are requested -
+ * only the directories currently being read are kept open. The walker must be closed, if the iteration is abandoned,
+ * before all files have been provided.
+ */
+class DirectoryWalker implements Iterator<File>, Closeable {
+
+    @NotNull
+    private final Iterator<File> files;
+    @NotNull
+    private final Deque<DirectoryStream<Path>> openDirectories = new ArrayDeque<>();
+    @NotNull
+    private final Deque<Iterator<Path>> directoryEntries = new ArrayDeque<>();
+    @Nullable
+    private File next = null;
+
+    /**
+     * Creates an iterator over the given files, expanding all contained directories.
+     *
+     * @param files The files and directories, that shall be iterated.
+     */
+    DirectoryWalker(@NotNull Iterator<File> files) {
+        this.files = files;
+    }
+
+    /**
+     * Returns true, if another file is available.
+     *
+     * @return True, if another file is available.
+     */
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            Iterator<Path> entries = directoryEntries.peekFirst();
+            if (entries != null) {
+                Path entry = nextDirectoryEntry(entries);
+                if (entry == null) {
+                    closeDirectory();
+                } else if (Files.isDirectory(entry)) {
+                    openDirectory(entry);
+                } else {
+                    next = entry.toFile();
+                }
+                continue;
+            }
+            if (!files.hasNext()) {
+                return false;
+            }
+            File file = files.next();
+            if (file.isDirectory()) {
+                openDirectory(file.toPath());
+            } else {
+                next = file;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the next file.
+     *
+     * @return The next file.
+     */
+    @Override
+    @NotNull
+    public File next() {
+        if (!hasNext() || next == null) {
+            throw new NoSuchElementException();
+        }
+        File file = next;
+        next = null;
+        return file;
+    }
+
+    /**
+     * Closes all directories, that are currently being read. Further files are only provided by the given iterator.
+     */
+    @Override
+    public void close() {
+        while (!openDirectories.isEmpty()) {
+            closeDirectory();
+        }
+    }
+
+    /**
+     * Reads the next entry of the given directory.
+     *
+     * @param entries The entries of the directory, that is currently read.
+     * @return The next entry, or null if the directory has been read completely.
+     */
+    @Nullable
+    private static Path nextDirectoryEntry(@NotNull Iterator<Path> entries) {
+        try {
+            return entries.hasNext() ? entries.next() : null;
+        } catch (DirectoryIteratorException ex) {
+            //AN UNREADABLE DIRECTORY IS SKIPPED.
+            return null;
+        }
+    }
+
+    /**
+     * Opens the given directory for reading, descending into it.
+     *
+     * @param directory The directory, that shall be read.
+     */
+    private void openDirectory(@NotNull Path directory) {
+        try {
+            DirectoryStream<Path> directoryStream = Files.newDirectoryStream(directory);
+            openDirectories.addFirst(directoryStream);
+            directoryEntries.addFirst(directoryStream.iterator());
+        } catch (IOException ignore) {
+            //AN UNREADABLE DIRECTORY IS SKIPPED.
+        }
+    }
+
+    /**
+     * Closes the directory, that is currently read, returning to it's parent directory.
+     */
+    private void closeDirectory() {
+        directoryEntries.pollFirst();
+        DirectoryStream<Path> directoryStream = openDirectories.pollFirst();
+        if (directoryStream != null) {
+            try {
+                directoryStream.close();
+            } catch (IOException ignore) {
+                //A FAILURE TO CLOSE A READ DIRECTORY IS IRRELEVANT.
+            }
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+package net.webpdf.ant.task.files;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Provides the different ways the final result of a source file can be published to it's target file.
+ */
+public enum FinalizeMode {
+
+    MOVE("move"),
+    COPY("copy"),
+    LINK("link");
+
+    @NotNull
+    private final String name;
+
+    /**
+     * A way to publish the final result to the target file.
+     *
+     * @param name The name of the mode, as it is used in build files.
+     */
+    FinalizeMode(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the mode, as it is used in build files.
+     *
+     * @return The name of the mode.
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the mode having the given name, or null if such a mode does not exist.
+     *
+     * @param name The name of the mode. (case insensitive)
+     * @return The mode having the given name, or null if such a mode does not exist.
+     */
+    @Nullable
+    public static FinalizeMode fromName(@Nullable String name) {
+        for (FinalizeMode mode : values()) {
+            if (mode.getName().equalsIgnoreCase(name == null ? "" : name.trim())) {
+                return mode;
+            }
+        }
+        return null;
+    }
+
+}
@@ -7,7 +7,21 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * This class manages the files processed by a task, it shall start with the original source file and shall provide a
@@ -25,13 +39,24 @@ public class IterativeTaskFile {
     private final File originalSourceFile;
     @NotNull
     private final String targetFileName;
+    @NotNull
+    private final Map<String, String> publishedVariables = new ConcurrentHashMap<>();
+    @NotNull
+    private final Queue<File> publishedFiles = new ConcurrentLinkedQueue<>();
 
     @NotNull
     private File currentSource;
     @Nullable
     private File currentTarget;
+    @Nullable
+    private TempBuffer currentSourceBuffer;
+    @Nullable
+    private TempBuffer currentTargetBuffer;
 
     private boolean preserveCurrentSource = true;
+    private volatile boolean failed = false;
+    private boolean retainsOriginalSource = false;
+    private boolean holdsTempQuota = false;
 
     /**
      * An instance of this class manages files for encapsulated tasks - passing results of a previous task, as the source
@@ -60,6 +85,43 @@ public class IterativeTaskFile {
         this.targetFileName = targetFileName;
     }
 
+    /**
+     * Returns the original source file, that is processed by this instance.
+     *
+     * @return The original source file.
+     */
+    @NotNull
+    public File getOriginalSource() {
+        return originalSourceFile;
+    }
+
+    /**
+     * Returns the file the final result shall be published to, when calling
+     * {@link #finalizeAndReset(File, File, FinalizeMode)} using the given parameters.
+     *
+     * @param targetFile      The file the final result shall be published to.
+     * @param targetDirectory The directory the target file shall be created in.
+     * @return The file the final result shall be published to, or null if neither a target file nor a target
+     * directory has been given.
+     */
+    @Nullable
+    public File getTarget(@Nullable File targetFile, @Nullable File targetDirectory) {
+        if (targetFile != null) {
+            return targetFile;
+        }
+        return targetDirectory != null ? new File(targetDirectory, targetFileName) : null;
+    }
+
+    /**
+     * Returns true, if an operation failed for the currently processed source file, since this instance has been
+     * reset the last time.
+     *
+     * @return True, if an operation failed.
+     */
+    public boolean hasFailed() {
+        return failed;
+    }
+
     /**
      * Shall set the file, that is serving as the source file of the currently prepared step.
      *
@@ -67,20 +129,52 @@ public class IterativeTaskFile {
      * @param preserveSource When set to true the prepared source file shall not be deleted after the execution.
      */
     public void setCurrentSource(@NotNull File currentSource, boolean preserveSource) {
+        disposeSourceBuffer();
         this.currentSource = currentSource;
         this.preserveCurrentSource = preserveSource;
     }
 
     /**
-     * Shall return the file, that is serving as the source file of the currently prepared step.
+     * Shall return the file, that is serving as the source file of the currently prepared step. A source held in
+     * memory shall be written to a temporary file by calling this method.
      *
      * @return The current source file.
+     * @throws IOException Shall be thrown if the source held in memory could not be written to a temporary file.
      */
     @NotNull
-    public File getCurrentSource() {
+    public File getCurrentSource() throws IOException {
+        if (currentSourceBuffer != null) {
+            currentSource = currentSourceBuffer.toFile();
+            currentSourceBuffer = null;
+        }
         return currentSource;
     }
 
+    /**
+     * Opens a stream reading the source of the currently prepared step. A source held in memory shall be read without
+     * writing it to a temporary file.
+     *
+     * @return A stream reading the current source.
+     * @throws IOException Shall be thrown if the current source could not be read.
+     */
+    @NotNull
+    public InputStream openCurrentSource() throws IOException {
+        if (currentSourceBuffer != null) {
+            return currentSourceBuffer.openInputStream();
+        }
+        return new FileInputStream(currentSource);
+    }
+
+    /**
+     * Returns true, if intermediate results of this instance may be held in memory, instead of temporary files. If so,
+     * results should be accessed using {@link #openCurrentSource()} and {@link #openCurrentTarget()}.
+     *
+     * @return True, if intermediate results may be held in memory.
+     */
+    public boolean isMemoryEnabled() {
+        return tempDir.isMemoryEnabled();
+    }
+
     /**
      * When called the current temporary source file will not be deleted, when it is replaced by the current target in
      * next step. This method must be called for each individual step and is only active for the current step.
@@ -98,12 +192,80 @@ public class IterativeTaskFile {
      */
     @NotNull
     public File getCurrentTarget() throws IOException {
+        if (currentTargetBuffer != null) {
+            currentTarget = currentTargetBuffer.toFile();
+            currentTargetBuffer = null;
+        }
         if (currentTarget == null) {
             currentTarget = tempDir.tryCreateTempFile();
         }
         return currentTarget;
     }
 
+    /**
+     * Opens a stream the result of the currently prepared step shall be written to. The result shall be held in memory,
+     * as long as it does not exceed the memory threshold of the temporary directory. Larger results shall be written to
+     * a temporary file.
+     *
+     * @return The stream the current result shall be written to.
+     * @throws IOException Shall be thrown if the current target could not be opened.
+     */
+    @NotNull
+    public OutputStream openCurrentTarget() throws IOException {
+        if (currentTarget != null) {
+            return new FileOutputStream(currentTarget);
+        }
+        if (currentTargetBuffer != null) {
+            currentTargetBuffer.dispose();
+        }
+        currentTargetBuffer = tempDir.tryCreateTempBuffer();
+        return currentTargetBuffer.openOutputStream();
+    }
+
+    /**
+     * Opens a stream reading the result of the currently prepared step, that has been written to the current target.
+     *
+     * @return A stream reading the current result.
+     * @throws IOException Shall be thrown if the current result could not be read.
+     */
+    @NotNull
+    public InputStream openCurrentResult() throws IOException {
+        if (currentTargetBuffer != null) {
+            return currentTargetBuffer.openInputStream();
+        }
+        return new FileInputStream(getCurrentTarget());
+    }
+
+    /**
+     * Returns the size of the source of the currently prepared step.
+     *
+     * @return The size (in bytes) of the current source.
+     */
+    public long getCurrentSourceSize() {
+        return currentSourceBuffer != null ? currentSourceBuffer.size() : currentSource.length();
+    }
+
+    /**
+     * Returns the size of the result of the currently prepared step, that has been written to the current target.
+     *
+     * @return The size (in bytes) of the current result.
+     */
+    public long getCurrentResultSize() {
+        if (currentTargetBuffer != null) {
+            return currentTargetBuffer.size();
+        }
+        return currentTarget != null ? currentTarget.length() : 0;
+    }
+
+    /**
+     * Returns true, if the result of the currently prepared step is held in memory, instead of a temporary file.
+     *
+     * @return True, if the current result is held in memory.
+     */
+    public boolean isCurrentResultInMemory() {
+        return currentTargetBuffer != null && currentTargetBuffer.isInMemory();
+    }
+
     /**
      * This shall decide whether the current temporary source file shall be deleted or not. (the original source file
      * however will never be deleted using this method.) It shall replace said source file with the current target file.
@@ -111,15 +273,25 @@ public class IterativeTaskFile {
      * The deletion of the source file can be prevented entirely by calling the "preserveCurrentSource()" method.
      */
     public void prepareNextOperation() {
-        if (currentTarget == null) {
+        if (currentTarget == null && currentTargetBuffer == null) {
             return;
         }
         if (!preserveCurrentSource) {
             tryDelete(currentSource);
         }
+        disposeSourceBuffer();
         preserveCurrentSource = false;
-        this.currentSource = currentTarget;
-        this.currentTarget = null;
+        if (currentTargetBuffer != null) {
+            currentTargetBuffer.recordSize();
+            //THE ORIGINAL SOURCE IS NEVER DELETED - A PRESERVED FILE SHALL NOT BE DELETED LATER ON.
+            this.currentSource = originalSourceFile;
+            this.currentSourceBuffer = currentTargetBuffer;
+            this.currentTargetBuffer = null;
+        } else if (currentTarget != null) {
+            tempDir.recordSize(currentTarget);
+            this.currentSource = currentTarget;
+            this.currentTarget = null;
+        }
     }
 
     /**
@@ -133,15 +305,39 @@ public class IterativeTaskFile {
      */
     @NotNull
     public File finalizeAndReset(@Nullable File targetFile, @Nullable File targetDirectory) throws IOException {
+        return finalizeAndReset(targetFile, targetDirectory, FinalizeMode.COPY);
+    }
+
+    /**
+     * This shall both reset this instance to it's original state and shall publish the last produced result to either
+     * the given targetFile (using the exact name and path), or to the given targetDirectory (using the initially set
+     * targetName). The result shall be published using the given mode:
+     * <ul>
+     * <li>MOVE: A temporary result is moved (renamed) to the target, if possible. Results, that must be preserved
+     * (like the original source file, or published variables), are copied instead.</li>
+     * <li>COPY: The result is always copied to the target.</li>
+     * <li>LINK: The target is created as a hard link to a temporary result, if the file system supports it. Results,
+     * that must be preserved, and results on file systems not supporting hard links are copied instead.</li>
+     * </ul>
+     *
+     * @param targetFile      The file the final result shall be published to.
+     * @param targetDirectory The directory the target file shall be created in.
+     * @param finalizeMode    The way the result shall be published.
+     * @return The file the result has been published to.
+     * @throws IOException Shall be thrown if the target file could not be published/created.
+     */
+    @NotNull
+    public File finalizeAndReset(@Nullable File targetFile, @Nullable File targetDirectory, @NotNull FinalizeMode finalizeMode)
+        throws IOException {
         try {
             File lastProcessed = getLastProcessed();
 
             if (targetFile != null && (!targetFile.exists() || targetFile.delete()) && targetFile.getParentFile().exists() && targetFile.getParentFile().canWrite()) {
-                FileUtils.copyFile(lastProcessed, targetFile);
+                publish(lastProcessed, targetFile, finalizeMode);
                 return targetFile;
             } else if (targetDirectory != null && targetDirectory.exists() && targetDirectory.isDirectory() && targetDirectory.canWrite()) {
                 File result = new File(targetDirectory, targetFileName);
-                FileUtils.copyFile(lastProcessed, result);
+                publish(lastProcessed, result, finalizeMode);
                 return result;
             }
 
@@ -151,60 +347,319 @@ public class IterativeTaskFile {
         }
     }
 
+    /**
+     * Publishes the given result to the given target file, using the given mode.
+     *
+     * @param result       The result, that shall be published.
+     * @param target       The target file.
+     * @param finalizeMode The way the result shall be published.
+     * @throws IOException Shall be thrown if the target file could not be published/created.
+     */
+    private void publish(@NotNull File result, @NotNull File target, @NotNull FinalizeMode finalizeMode) throws IOException {
+        switch (finalizeMode) {
+            case MOVE:
+                if (isDisposable(result)) {
+                    move(result, target);
+                    return;
+                }
+                break;
+            case LINK:
+                if (!isDisposable(result)) {
+                    //A HARD LINK TO A PRESERVED FILE WOULD ALLOW ALTERING IT VIA THE TARGET.
+                    break;
+                }
+                try {
+                    Files.deleteIfExists(target.toPath());
+                    Files.createLink(target.toPath(), result.toPath());
+                    return;
+                } catch (IOException | UnsupportedOperationException ignore) {
+                    //THE FILE SYSTEM DOES NOT SUPPORT HARD LINKS - COPY THE RESULT INSTEAD.
+                }
+                break;
+            default:
+                break;
+        }
+        transfer(result, target);
+    }
+
+    /**
+     * Returns true, if the given file is a temporary result, that would be deleted, when this instance is reset.
+     *
+     * @param file The file, that shall be checked.
+     * @return True, if the given file is a disposable temporary result.
+     */
+    private boolean isDisposable(@NotNull File file) {
+        if (originalSourceFile.equals(file)) {
+            return false;
+        }
+        return file.equals(currentTarget) || (file.equals(currentSource) && !preserveCurrentSource);
+    }
+
+    /**
+     * Moves the given file to the given target. An atomic rename shall be attempted first - if source and target are
+     * located on different file systems, the file shall be transferred and deleted instead.
+     *
+     * @param source The file, that shall be moved.
+     * @param target The target file.
+     * @throws IOException Shall be thrown if the file could not be moved.
+     */
+    private void move(@NotNull File source, @NotNull File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException ex) {
+            transfer(source, target);
+            tryDelete(source);
+        }
+    }
+
+    /**
+     * Copies the given file to the given target, using the file channels of both files.
+     *
+     * @param source The file, that shall be copied.
+     * @param target The target file.
+     * @throws IOException Shall be thrown if the file could not be copied.
+     */
+    private static void transfer(@NotNull File source, @NotNull File target) throws IOException {
+        try (
+            FileChannel sourceChannel = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+            FileChannel targetChannel = FileChannel.open(target.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)
+        ) {
+            long size = sourceChannel.size();
+            long position = 0;
+            while (position < size) {
+                position += sourceChannel.transferTo(position, size - position, targetChannel);
+            }
+        }
+    }
+
     /**
      * This shall return the last file, that has been altered by this instance. Choosing source or target file appropriately.
+     * A result held in memory shall be written to a temporary file by calling this method.
      *
      * @return The last processed file.
+     * @throws IOException Shall be thrown if a result held in memory could not be written to a temporary file.
      */
     @NotNull
-    File getLastProcessed() {
-        return currentTarget != null ? currentTarget : currentSource;
+    File getLastProcessed() throws IOException {
+        if (currentTarget != null || currentTargetBuffer != null) {
+            return getCurrentTarget();
+        }
+        return getCurrentSource();
+    }
+
+    /**
+     * Creates a branch of this instance, that starts with the current source of this instance, but manages it's own
+     * chain of temporary targets. The current source is shared with the branch and serves as the branch's original
+     * source - it therefore shall never be deleted by the branch. A source held in memory shall be written to a
+     * temporary file once, so that all branches read the same copy. Variables published for the currently processed
+     * source file are also known to the branch.
+     *
+     * @return The created branch.
+     * @throws IOException Shall be thrown if the source held in memory could not be written to a temporary file.
+     */
+    @NotNull
+    public IterativeTaskFile branch() throws IOException {
+        return branch(getCurrentSource());
+    }
+
+    /**
+     * Creates a branch of this instance, that starts with the original source file of this instance, instead of the
+     * current source. In contrast to {@link #branch()} this method does not access the current source and therefore
+     * may be called, while this instance is processed by another thread.
+     *
+     * @return The created branch.
+     */
+    @NotNull
+    public IterativeTaskFile branchOriginal() {
+        return branch(originalSourceFile);
+    }
+
+    /**
+     * Creates a branch of this instance, that starts with the given source file. A temporary source file is retained
+     * by the branch, until the branch is reset - it therefore is not deleted, when this instance proceeds.
+     *
+     * @param source The source file, the branch shall start with.
+     * @return The created branch.
+     */
+    @NotNull
+    private IterativeTaskFile branch(@NotNull File source) {
+        IterativeTaskFile branch = new IterativeTaskFile(source, targetFileName, tempDir);
+        branch.publishedVariables.putAll(publishedVariables);
+        branch.retainsOriginalSource = tempDir.retain(source);
+        return branch;
+    }
+
+    /**
+     * Merges a branch created by {@link #branch()} back into this instance: All variables published by the branch
+     * shall be known to this instance and a failure of the branch shall mark this instance as failed. The branch
+     * shall be reset afterwards, results published to variables are kept and are released by this instance. A branch
+     * may be merged, while this instance is processed by another thread.
+     *
+     * @param branch The branch, that shall be merged.
+     */
+    public void merge(@NotNull IterativeTaskFile branch) {
+        publishedVariables.putAll(branch.publishedVariables);
+        File publishedFile;
+        while ((publishedFile = branch.publishedFiles.poll()) != null) {
+            publishedFiles.add(publishedFile);
+        }
+        if (branch.failed) {
+            failed = true;
+        }
+        branch.reset();
     }
 
     /**
-     * This will drop the current context and will reset this instance to the original source document.
+     * This will drop the current context and will reset this instance to the original source document. All temporary
+     * files of the processed source file, including those published to variables, shall be released and a lease of
+     * the temp quota shall be returned.
      */
     public void reset() {
         if (!preserveCurrentSource) {
             tryDelete(currentSource);
         }
         tryDelete(currentTarget);
+        disposeSourceBuffer();
+        disposeTargetBuffer();
         currentTarget = null;
         currentSource = originalSourceFile;
+        File publishedFile;
+        while ((publishedFile = publishedFiles.poll()) != null) {
+            tryDelete(publishedFile);
+        }
+        publishedVariables.clear();
+        failed = false;
         preserveCurrentSource();
+        if (retainsOriginalSource) {
+            retainsOriginalSource = false;
+            tempDir.release(originalSourceFile);
+        }
+        if (holdsTempQuota) {
+            holdsTempQuota = false;
+            tempDir.releaseQuota();
+        }
+    }
+
+    /**
+     * Acquires a lease of the temp quota for the processing of the current source file, blocking the calling thread,
+     * while the temporary files of other source files occupy the quota. The lease is returned, when this instance is
+     * reset.
+     *
+     * @throws InterruptedException Shall be thrown, if the calling thread has been interrupted while waiting.
+     */
+    public void acquireTempQuota() throws InterruptedException {
+        if (!holdsTempQuota) {
+            tempDir.acquireQuota();
+            holdsTempQuota = true;
+        }
     }
 
     /**
      * Invalidates the current temporary target and will preserve the current source file for the next operation.
-     * This method should be called, when an Exception occurred during the processing of an operation.
+     * This method should be called, when an Exception occurred during the processing of an operation - the currently
+     * processed source file is marked as failed until this instance is reset.
      */
     public void dropCurrentTarget() {
+        discardCurrentTarget();
+        this.failed = true;
+    }
+
+    /**
+     * Invalidates the current temporary target, without marking the currently processed source file as failed. This
+     * method should be called, when a result has been written partially, but may still be created otherwise.
+     */
+    public void discardCurrentTarget() {
         if (this.currentTarget != null) {
             tryDelete(currentTarget);
         }
+        disposeTargetBuffer();
         this.currentTarget = null;
     }
 
     /**
-     * Attempts to delete the given file, returning true when successful.
+     * Drops the source held in memory, if there is any.
+     */
+    private void disposeSourceBuffer() {
+        if (currentSourceBuffer != null) {
+            currentSourceBuffer.dispose();
+            currentSourceBuffer = null;
+        }
+    }
+
+    /**
+     * Drops the result held in memory, if there is any.
+     */
+    private void disposeTargetBuffer() {
+        if (currentTargetBuffer != null) {
+            currentTargetBuffer.dispose();
+            currentTargetBuffer = null;
+        }
+    }
+
+    /**
+     * Attempts to delete the given file. A temporary file is released instead and is deleted, when it is no longer
+     * referenced.
      *
      * @param file The file that shall be deleted.
      */
     private void tryDelete(@Nullable File file) {
-        if (!originalSourceFile.equals(file) && file != null && file.exists() && file.isFile() && file.canWrite()) {
+        if (originalSourceFile.equals(file) || file == null || tempDir.release(file)) {
+            return;
+        }
+        if (file.exists() && file.isFile() && file.canWrite()) {
             FileUtils.deleteQuietly(file);
         }
     }
 
     /**
-     * Attempts to publish the current group result to the Ant context using the given output var name.
+     * Attempts to publish the current group result to the Ant context using the given output var name. The published
+     * value is also remembered by this instance, so that following operations for the same source file will resolve
+     * the variable to this value, even if other source files are processed concurrently. A result held in memory
+     * shall be written to a temporary file, before it is published.
+     *
+     * @param variable The variable the result shall be published to.
+     * @throws IOException Shall be thrown if a result held in memory could not be written to a temporary file.
      */
-    public void tryPublish(@Nullable Variable variable) {
+    public void tryPublish(@Nullable Variable variable) throws IOException {
+        if (variable != null && currentTargetBuffer != null) {
+            getCurrentTarget();
+        }
         if (variable != null && currentTarget != null && currentTarget.exists() && currentTarget.isFile() && currentTarget.canRead()) {
-            variable.setValue(currentTarget.getAbsolutePath().replaceAll("\\\\", "/"));
-            variable.execute();
+            String value = currentTarget.getAbsolutePath().replaceAll("\\\\", "/");
+            synchronized (variable) {
+                variable.setValue(value);
+                variable.execute();
+            }
+            if (variable.getName() != null) {
+                publishedVariables.put(variable.getName(), value);
+            }
+            tempDir.recordSize(currentTarget);
+            publishedFiles.add(currentTarget);
             currentTarget = null;
         }
     }
 
+    /**
+     * Returns all variable values, that have been published for the currently processed source file.
+     *
+     * @return The variable names mapped to their published values.
+     */
+    @NotNull
+    public Map<String, String> getPublishedVariables() {
+        return Collections.unmodifiableMap(publishedVariables);
+    }
+
+    /**
+     * Replaces all references (${name}) to variables, that have been published for the currently processed source
+     * file, with their published values. All other references shall remain untouched.
+     *
+     * @param value The value containing variable references.
+     * @return The value, with all published variables being replaced.
+     */
+    @Nullable
+    public String replaceVariables(@Nullable String value) {
+        return Variable.replaceReferences(value, publishedVariables);
+    }
+
 }
@@ -16,11 +16,15 @@ import org.apache.tools.ant.util.ResourceUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * The TaskFileCollection collects all files, that the current webPDF task shall be executed for.
@@ -33,7 +37,7 @@ public class IterativeTaskFileMap implements Iterable<IterativeTaskFile> {
     private final List<ResourceCollection> resourceCollections = new ArrayList<>();
 
     @NotNull
-    private List<IterativeTaskFile> taskFileList = new ArrayList<>();
+    private final List<IterativeTaskFile> taskFileList = new ArrayList<>();
     @Nullable
     private FileNameMapper fileNameMapper = null;
     @Nullable
@@ -43,8 +47,6 @@ public class IterativeTaskFileMap implements Iterable<IterativeTaskFile> {
     @Nullable
     private File targetFile;
 
-    private boolean resourceInitialized = false;
-
     /**
      * A collection for all source files, that shall be processed by the current webPDF task.
      */
@@ -61,7 +63,13 @@ public class IterativeTaskFileMap implements Iterable<IterativeTaskFile> {
         if (tempDir == null || !tempDir.exists() || !tempDir.canWrite() || !tempDir.isDirectory()) {
             throw new BuildException("The given temporary directory is inaccessible.");
         }
+        TempDir previous = this.tempDir;
         this.tempDir = new TempDir(tempDir);
+        if (previous != null) {
+            this.tempDir.setMemoryThreshold(previous.getMemoryThreshold());
+            this.tempDir.setMemoryBudget(previous.getMemoryBudget());
+            this.tempDir.setTempQuota(previous.getTempQuota());
+        }
     }
 
     @NotNull
@@ -130,39 +138,69 @@ public class IterativeTaskFileMap implements Iterable<IterativeTaskFile> {
     }
 
     /**
-     * Shall analyze all Resources, that have been collected up to now and will deduce both a source file and a mapped
-     * target name for each resource.
+     * Shall deduce the files defined by the given resource collection. The files are provided lazily - directories
+     * shall only be scanned, when their contents are requested.
+     *
+     * @param collection The resource collection, that shall be analyzed.
+     * @return An iterator over all files defined by the given resource collection.
      */
-    private void parseResources() {
-        for (ResourceCollection collection : resourceCollections) {
-            if (collection instanceof FileResource) {
-                FileResource fileResource = (FileResource) collection;
-                if (!checkResourceExists(fileResource)) {
-                    continue;
-                }
-                mapFile(fileResource.getFile());
-                continue;
+    @NotNull
+    private DirectoryWalker listFiles(@NotNull ResourceCollection collection) {
+        if (collection instanceof FileResource) {
+            FileResource fileResource = (FileResource) collection;
+            if (!checkResourceExists(fileResource)) {
+                return new DirectoryWalker(Collections.emptyIterator());
             }
-            if (collection instanceof FileSet) {
-                FileSet files = (FileSet) collection;
-                DirectoryScanner directoryScanner = files.getDirectoryScanner();
-                for (String fileName : directoryScanner.getIncludedFiles()) {
-                    mapFile(new File(directoryScanner.getBasedir(), fileName));
+            return new DirectoryWalker(Collections.singletonList(fileResource.getFile()).iterator());
+        }
+        if (collection instanceof FileSet) {
+            FileSet files = (FileSet) collection;
+            DirectoryScanner directoryScanner = files.getDirectoryScanner();
+            File baseDir = directoryScanner.getBasedir();
+            Iterator<String> fileNames = Arrays.asList(directoryScanner.getIncludedFiles()).iterator();
+            return new DirectoryWalker(new Iterator<File>() {
+                @Override
+                public boolean hasNext() {
+                    return fileNames.hasNext();
                 }
-                continue;
-            }
 
-            for (Resource resource : collection) {
-                if (!checkResourceExists(resource)) {
-                    continue;
+                @Override
+                public File next() {
+                    return new File(baseDir, fileNames.next());
                 }
-                final FileProvider fileProvider = resource.as(FileProvider.class);
-                if (fileProvider != null) {
-                    FileResource fileResource = ResourceUtils.asFileResource(fileProvider);
-                    mapFile(fileResource.getFile());
+            });
+        }
+
+        Iterator<Resource> resources = collection.iterator();
+        return new DirectoryWalker(new Iterator<File>() {
+            @Nullable
+            private File next = null;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && resources.hasNext()) {
+                    Resource resource = resources.next();
+                    if (!checkResourceExists(resource)) {
+                        continue;
+                    }
+                    final FileProvider fileProvider = resource.as(FileProvider.class);
+                    if (fileProvider != null) {
+                        next = ResourceUtils.asFileResource(fileProvider).getFile();
+                    }
                 }
+                return next != null;
             }
-        }
+
+            @Override
+            public File next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                File file = next;
+                next = null;
+                return file;
+            }
+        });
     }
 
     /**
@@ -177,34 +215,19 @@ public class IterativeTaskFileMap implements Iterable<IterativeTaskFile> {
     }
 
     /**
-     * Will add a mapping for the given file to this collection.
-     *
-     * @param file The file, that shall serve as a source of the current webPDF task.
-     */
-    private void mapFile(@NotNull File file) {
-        if (file.isDirectory()) {
-            File[] files = file.listFiles();
-            if (files != null) {
-                for (File subFile : files) {
-                    mapFile(subFile);
-                }
-            }
-        } else {
-            mapFile(file, file.getName());
-        }
-    }
-
-    /**
-     * Deduces a target file name for the given source file and creates a matching entry in the task file map.
+     * Deduces a target file name for the given source file and creates a matching entry for the task file map.
      *
      * @param file           The source file, that shall be mapped.
      * @param mappedFileName The name that shall be mapped.
+     * @return The created entry, or null if the mapper did not provide a target name.
      */
-    private void mapFile(@Nullable File file, @Nullable String mappedFileName) {
+    @Nullable
+    private IterativeTaskFile mapFile(@Nullable File file, @Nullable String mappedFileName) {
         String[] filenames = getMapper().mapFileName(mappedFileName);
         if (filenames != null && filenames.length >= 1) {
-            taskFileList.add(new IterativeTaskFile(file, filenames[0], getTempDir()));
+            return new IterativeTaskFile(file, filenames[0], getTempDir());
         }
+        return null;
     }
 
     /**
@@ -241,25 +264,118 @@ public class IterativeTaskFileMap implements Iterable<IterativeTaskFile> {
                 (file = new File(input.getValue())).exists() && file.isFile() && file.canRead()) {
             File tempFile = getTempDir().tryCreateTempFile();
             FileUtils.copyFile(file, tempFile);
+            getTempDir().recordSize(tempFile);
             taskFileList.clear();
             resourceCollections.clear();
-            mapFile(tempFile, file.getName());
+            IterativeTaskFile taskFile = mapFile(tempFile, file.getName());
+            if (taskFile != null) {
+                taskFileList.add(taskFile);
+            }
         }
     }
 
     /**
-     * An iterator over all source/name mappings of this collection.
+     * An iterator over all source/name mappings of this collection. The resources are scanned lazily, while iterating
+     * - each entry shall only be created, when it is requested. The iterator shall be closed, if the iteration is
+     * abandoned, before all entries have been requested.
      *
      * @return An iterator for this collection.
      */
     @Override
     @NotNull
-    public Iterator<IterativeTaskFile> iterator() {
-        if (!resourceInitialized) {
-            parseResources();
-            resourceInitialized = true;
+    public TaskFileIterator iterator() {
+        return new TaskFileIterator();
+    }
+
+    /**
+     * Iterates over the explicitly mapped entries and the files of all resource collections of this map, creating each
+     * entry on demand. Closing the iterator releases the directories, that are currently being scanned.
+     */
+    public class TaskFileIterator implements Iterator<IterativeTaskFile>, Closeable {
+
+        @NotNull
+        private final Iterator<IterativeTaskFile> mappedFiles = new ArrayList<>(taskFileList).iterator();
+        @NotNull
+        private final Iterator<ResourceCollection> collections = new ArrayList<>(resourceCollections).iterator();
+        @NotNull
+        private DirectoryWalker files = new DirectoryWalker(Collections.emptyIterator());
+        @Nullable
+        private IterativeTaskFile next = null;
+        private boolean closed = false;
+
+        /**
+         * Creates an iterator over all entries of the map.
+         */
+        private TaskFileIterator() {
+        }
+
+        /**
+         * Returns true, if another entry is available.
+         *
+         * @return True, if another entry is available.
+         */
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
         }
-        return taskFileList.iterator();
+
+        /**
+         * Returns the next entry.
+         *
+         * @return The next entry.
+         */
+        @Override
+        @NotNull
+        public IterativeTaskFile next() {
+            if (!hasNext() || next == null) {
+                throw new NoSuchElementException();
+            }
+            IterativeTaskFile taskFile = next;
+            next = null;
+            return taskFile;
+        }
+
+        /**
+         * Closes the directories, that are currently being scanned. No further entries shall be provided.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            files.close();
+        }
+
+        /**
+         * Creates the next entry, scanning the next resource collection if necessary.
+         *
+         * @return The next entry, or null if all resources have been processed.
+         */
+        @Nullable
+        private IterativeTaskFile advance() {
+            if (closed) {
+                return null;
+            }
+            if (mappedFiles.hasNext()) {
+                return mappedFiles.next();
+            }
+            while (true) {
+                while (files.hasNext()) {
+                    File file = files.next();
+                    IterativeTaskFile taskFile = mapFile(file, file.getName());
+                    if (taskFile != null) {
+                        return taskFile;
+                    }
+                }
+                files.close();
+                if (!collections.hasNext()) {
+                    return null;
+                }
+                files = listFiles(collections.next());
+            }
+        }
+
     }
 
 }
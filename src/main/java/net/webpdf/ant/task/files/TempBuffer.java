@@ -0,0 +1,204 @@
+package net.webpdf.ant.task.files;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.ByteArrayOutputStream;
+import org.apache.commons.io.output.ThresholdingOutputStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * A temporary result, that is held in memory as long as it does not exceed the memory reserved for it. A larger result
+ * shall be spilled to a temporary file. Results held in memory are passed between operations without being written to
+ * the temporary directory at all.
+ */
+class TempBuffer {
+
+    @NotNull
+    private final TempDir tempDir;
+    private long reservedMemory;
+
+    @Nullable
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    @Nullable
+    private File file = null;
+    private boolean written = false;
+
+    /**
+     * Creates a temporary result, that may be held in memory up to the given reserved size.
+     *
+     * @param tempDir        The temporary directory, the memory has been reserved from and that shall contain the
+     *                       result, once it has been spilled to disk.
+     * @param reservedMemory The number of bytes, that have been reserved for this result.
+     */
+    TempBuffer(@NotNull TempDir tempDir, long reservedMemory) {
+        this.tempDir = tempDir;
+        this.reservedMemory = reservedMemory;
+    }
+
+    /**
+     * Opens the stream the result shall be written to. The result shall be spilled to a temporary file, as soon as
+     * it exceeds the reserved memory.
+     *
+     * @return The stream the result shall be written to.
+     * @throws IOException Shall be thrown if the result has already been written.
+     */
+    @NotNull
+    OutputStream openOutputStream() throws IOException {
+        if (written) {
+            throw new IOException("The temporary result has already been written.");
+        }
+        written = true;
+        return new SpillingOutputStream();
+    }
+
+    /**
+     * Opens a stream reading the result.
+     *
+     * @return A stream reading the result.
+     * @throws IOException Shall be thrown if the temporary file containing the result could not be read.
+     */
+    @NotNull
+    InputStream openInputStream() throws IOException {
+        if (memory != null) {
+            return memory.toInputStream();
+        }
+        if (file == null) {
+            throw new IOException("The temporary result has already been disposed.");
+        }
+        return new FileInputStream(file);
+    }
+
+    /**
+     * Returns true, if the result is currently held in memory.
+     *
+     * @return True, if the result is currently held in memory.
+     */
+    boolean isInMemory() {
+        return memory != null;
+    }
+
+    /**
+     * Returns the size of the result.
+     *
+     * @return The size (in bytes) of the result.
+     */
+    long size() {
+        if (memory != null) {
+            return memory.size();
+        }
+        return file != null ? file.length() : 0;
+    }
+
+    /**
+     * Returns a temporary file containing the result. A result held in memory shall be spilled to disk by calling this
+     * method and the reserved memory shall be released.
+     *
+     * @return A temporary file containing the result.
+     * @throws IOException Shall be thrown if the temporary file could not be written.
+     */
+    @NotNull
+    File toFile() throws IOException {
+        if (memory != null) {
+            File spilled = tempDir.tryCreateTempFile();
+            try (OutputStream outputStream = new FileOutputStream(spilled)) {
+                memory.writeTo(outputStream);
+            }
+            file = spilled;
+            releaseMemory();
+            tempDir.recordSize(spilled);
+        }
+        if (file == null) {
+            throw new IOException("The temporary result has already been disposed.");
+        }
+        return file;
+    }
+
+    /**
+     * Records the size of a result, that has been spilled to a temporary file, in the temp usage of the temporary
+     * directory. This shall be called, once the result has been written completely.
+     */
+    void recordSize() {
+        if (file != null) {
+            tempDir.recordSize(file);
+        }
+    }
+
+    /**
+     * Drops the result, releasing the reserved memory and deleting the temporary file.
+     */
+    void dispose() {
+        releaseMemory();
+        if (file != null) {
+            if (!tempDir.release(file)) {
+                FileUtils.deleteQuietly(file);
+            }
+            file = null;
+        }
+    }
+
+    /**
+     * Drops the result held in memory and returns the reserved memory to the temporary directory.
+     */
+    private void releaseMemory() {
+        memory = null;
+        if (reservedMemory > 0) {
+            tempDir.releaseMemory(reservedMemory);
+            reservedMemory = 0;
+        }
+    }
+
+    /**
+     * Writes the result to memory and switches to a temporary file, when the reserved memory is exceeded.
+     */
+    private class SpillingOutputStream extends ThresholdingOutputStream {
+
+        @NotNull
+        private OutputStream target;
+
+        /**
+         * Creates a stream, that writes to memory until the reserved memory is exceeded.
+         */
+        private SpillingOutputStream() {
+            super((int) Math.min(Integer.MAX_VALUE, reservedMemory));
+            this.target = memory != null ? memory : new ByteArrayOutputStream();
+        }
+
+        /**
+         * Returns the stream currently written to.
+         *
+         * @return The stream currently written to.
+         */
+        @Override
+        @NotNull
+        protected OutputStream getStream() {
+            return target;
+        }
+
+        /**
+         * Spills the result written so far to a temporary file, which shall receive all following data.
+         *
+         * @throws IOException Shall be thrown if the temporary file could not be created.
+         */
+        @Override
+        protected void thresholdReached() throws IOException {
+            File spilled = tempDir.tryCreateTempFile();
+            OutputStream fileStream = new BufferedOutputStream(new FileOutputStream(spilled));
+            if (memory != null) {
+                memory.writeTo(fileStream);
+            }
+            file = spilled;
+            target = fileStream;
+            releaseMemory();
+        }
+
+    }
+
+}
@@ -7,21 +7,43 @@ import org.jetbrains.annotations.Nullable;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * This points to the temporary directory used by the task and will collect all temporary files created during the webPDF call.
+ * Each temporary file is reference counted: It is created with a single reference, may be shared by retaining it and
+ * is deleted as soon as it's last reference has been released. Only temporary files, that are still referenced, are
+ * remembered by this instance. The size of a temporary file is recorded, once it has been written completely - the
+ * recorded sizes form the temp usage, that is compared against the temp quota.
  */
 public class TempDir {
 
     private static final String NEUTRAL_SUFFIX = ".temp";
     private static final String WEBPDF_ANT_PREFIX = "webPDF-ant_";
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
 
     @NotNull
-    private final List<File> createdTempFiles = new ArrayList<>();
+    private final Map<File, Integer> references = new HashMap<>();
+    @NotNull
+    private final Map<File, Long> recordedSizes = new HashMap<>();
+    @NotNull
+    private final ReentrantLock lock = new ReentrantLock();
+    @NotNull
+    private final Condition quotaReleased = lock.newCondition();
     @Nullable
     private File tempDir;
 
+    private int memoryThreshold = 0;
+    private long memoryBudget = DEFAULT_MEMORY_BUDGET;
+    private long reservedMemory = 0;
+    private long tempQuota = 0;
+    private long tempUsage = 0;
+    private int quotaLeases = 0;
+
     /**
      * A directory serving as the temporary directory of the webPDF task.
      *
@@ -41,6 +63,7 @@ public class TempDir {
     /**
      * Creates a temporary file in either the given temporary directory, or the systems default temporary directory.
      * The filename shall follow this naming convention: webPDF-ant_{UniqueID}.temp
+     * The file is created with a single reference, that must be released by {@link #release(File)}.
      *
      * @return The temporary file, that has been created.
      * @throws IOException Shall be thrown, if the temporary file could not be created.
@@ -53,15 +76,323 @@ public class TempDir {
         } else {
             tempFile = File.createTempFile(WEBPDF_ANT_PREFIX, NEUTRAL_SUFFIX);
         }
-        createdTempFiles.add(tempFile);
+        lock.lock();
+        try {
+            references.put(tempFile, 1);
+        } finally {
+            lock.unlock();
+        }
         return tempFile;
     }
 
+    /**
+     * Adds a reference to the given temporary file, so that it is not deleted, before this reference has been released.
+     *
+     * @param file The temporary file, that shall be retained.
+     * @return True, if the file is a temporary file of this instance, that has been retained.
+     */
+    boolean retain(@NotNull File file) {
+        lock.lock();
+        try {
+            Integer count = references.get(file);
+            if (count == null) {
+                return false;
+            }
+            references.put(file, count + 1);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a reference to the given temporary file. When the last reference has been released, the file shall be
+     * deleted and forgotten by this instance and it's recorded size shall be removed from the temp usage.
+     *
+     * @param file The temporary file, that shall be released.
+     * @return True, if the file is a temporary file of this instance, that has been released.
+     */
+    boolean release(@NotNull File file) {
+        lock.lock();
+        try {
+            Integer count = references.get(file);
+            if (count == null) {
+                return false;
+            }
+            if (count > 1) {
+                references.put(file, count - 1);
+                return true;
+            }
+            references.remove(file);
+            Long recordedSize = recordedSizes.remove(file);
+            if (recordedSize != null) {
+                tempUsage -= recordedSize;
+                quotaReleased.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+        FileUtils.deleteQuietly(file);
+        return true;
+    }
+
+    /**
+     * Records the current size of the given temporary file in the temp usage. This shall be called, once the file has
+     * been written completely - the size of a file, that is still being written, is not known to this instance.
+     * Recording the size of a file again replaces it's previously recorded size.
+     *
+     * @param file The temporary file, that has been written.
+     * @return True, if the file is a temporary file of this instance, the size has been recorded for.
+     */
+    boolean recordSize(@NotNull File file) {
+        long size = file.length();
+        lock.lock();
+        try {
+            if (!references.containsKey(file)) {
+                return false;
+            }
+            Long recordedSize = recordedSizes.put(file, size);
+            tempUsage += size - (recordedSize != null ? recordedSize : 0);
+            if (recordedSize != null && recordedSize > size) {
+                quotaReleased.signalAll();
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of references to the given temporary file.
+     *
+     * @param file The temporary file, that shall be checked.
+     * @return The number of references, or 0 if the file is no (longer a) temporary file of this instance.
+     */
+    int getReferenceCount(@NotNull File file) {
+        lock.lock();
+        try {
+            Integer count = references.get(file);
+            return count != null ? count : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of bytes occupied by all referenced temporary files, whose sizes have been recorded.
+     *
+     * @return The recorded size (in bytes) of all referenced temporary files.
+     */
+    long getTempUsage() {
+        lock.lock();
+        try {
+            return tempUsage;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Acquires a lease for the processing of a source file. If a temp quota has been set and the referenced temporary
+     * files already occupy it, the calling thread shall be blocked, until other source files have released enough
+     * temporary files. A source file is never blocked, if no other source file holds a lease, as no temporary file
+     * would be released in this case. A blocked thread is woken, whenever temporary files or leases are released.
+     *
+     * @throws InterruptedException Shall be thrown, if the calling thread has been interrupted while waiting.
+     */
+    void acquireQuota() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (tempQuota > 0 && quotaLeases > 0 && tempUsage >= tempQuota) {
+                quotaReleased.await();
+            }
+            quotaLeases++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a lease acquired by {@link #acquireQuota()}, when the processing of a source file has finished.
+     */
+    void releaseQuota() {
+        lock.lock();
+        try {
+            quotaLeases = Math.max(0, quotaLeases - 1);
+            quotaReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the maximum number of bytes, that may be occupied by temporary files, before the processing of further
+     * source files is blocked. (DEFAULT is 0 - the temporary files are not limited.)
+     *
+     * @param tempQuota The maximum size of all temporary files.
+     */
+    public void setTempQuota(long tempQuota) {
+        lock.lock();
+        try {
+            this.tempQuota = Math.max(0, tempQuota);
+            quotaReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum number of bytes, that may be occupied by temporary files.
+     *
+     * @return The maximum size of all temporary files.
+     */
+    public long getTempQuota() {
+        lock.lock();
+        try {
+            return tempQuota;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Creates a temporary result, that shall be held in memory, as long as it does not exceed the memory threshold. If
+     * the memory budget is exhausted, or the memory threshold is not set, the result shall be written to a temporary
+     * file directly.
+     *
+     * @return The temporary result, that has been created.
+     */
+    @NotNull
+    TempBuffer tryCreateTempBuffer() {
+        long reserved = 0;
+        lock.lock();
+        try {
+            if (memoryThreshold > 0 && reservedMemory + memoryThreshold <= memoryBudget) {
+                reserved = memoryThreshold;
+                reservedMemory += reserved;
+            }
+        } finally {
+            lock.unlock();
+        }
+        return new TempBuffer(this, reserved);
+    }
+
+    /**
+     * Returns memory, that had been reserved for a temporary result, to the memory budget.
+     *
+     * @param memory The number of bytes, that shall be released.
+     */
+    void releaseMemory(long memory) {
+        lock.lock();
+        try {
+            reservedMemory = Math.max(0, reservedMemory - memory);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of bytes currently reserved for temporary results held in memory.
+     *
+     * @return The number of reserved bytes.
+     */
+    long getReservedMemory() {
+        lock.lock();
+        try {
+            return reservedMemory;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the maximum size (in bytes) of an intermediate result, that shall be held in memory, instead of being
+     * written to a temporary file. (DEFAULT is 0 - all intermediate results are written to temporary files.)
+     *
+     * @param memoryThreshold The maximum size of an intermediate result held in memory.
+     */
+    public void setMemoryThreshold(int memoryThreshold) {
+        lock.lock();
+        try {
+            this.memoryThreshold = Math.max(0, memoryThreshold);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum size (in bytes) of an intermediate result, that shall be held in memory.
+     *
+     * @return The maximum size of an intermediate result held in memory.
+     */
+    public int getMemoryThreshold() {
+        lock.lock();
+        try {
+            return memoryThreshold;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the maximum amount of memory (in bytes), that may be used by all intermediate results held in memory at the
+     * same time. (DEFAULT is 64 MiB)
+     *
+     * @param memoryBudget The maximum amount of memory used by intermediate results.
+     */
+    public void setMemoryBudget(long memoryBudget) {
+        lock.lock();
+        try {
+            this.memoryBudget = Math.max(0, memoryBudget);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum amount of memory (in bytes), that may be used by all intermediate results held in memory.
+     *
+     * @return The maximum amount of memory used by intermediate results.
+     */
+    public long getMemoryBudget() {
+        lock.lock();
+        try {
+            return memoryBudget;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns true, if intermediate results may be held in memory.
+     *
+     * @return True, if intermediate results may be held in memory.
+     */
+    public boolean isMemoryEnabled() {
+        lock.lock();
+        try {
+            return memoryThreshold > 0 && memoryBudget > 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * All temporary files, having been created by this instance and not having been deleted yet, will be deleted by calling this method.
      */
     public void cleanTemp() {
-        for (File tempFile : createdTempFiles) {
+        List<File> tempFiles;
+        lock.lock();
+        try {
+            tempFiles = new ArrayList<>(references.keySet());
+            references.clear();
+            recordedSizes.clear();
+            tempUsage = 0;
+            quotaReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (File tempFile : tempFiles) {
             FileUtils.deleteQuietly(tempFile);
         }
     }
@@ -0,0 +1,202 @@
+package net.webpdf.ant.task.files;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+/**
+ * A persistent record of all source files, that have been processed successfully, and of the target files, that have
+ * been created for them. A source file, whose source, configuration and target have not changed since it has been
+ * recorded, does not need to be processed again.
+ */
+public class UpToDateManifest {
+
+    public static final String MANIFEST_NAME = ".webpdf-ant.manifest";
+    private static final String SEPARATOR = "|";
+
+    @NotNull
+    private final File manifestFile;
+    @NotNull
+    private final UpToDateMode mode;
+    @NotNull
+    private final String configurationHash;
+    @NotNull
+    private final Properties entries = new Properties();
+
+    private boolean modified = false;
+
+    /**
+     * Loads the manifest contained in the given directory. If the manifest does not exist or can not be read, all
+     * source files are considered outdated.
+     *
+     * @param directory         The directory containing the manifest.
+     * @param mode              The way source files shall be compared to their recorded state.
+     * @param configurationHash A hash of the operations, that are applied to each source file.
+     */
+    public UpToDateManifest(@NotNull File directory, @NotNull UpToDateMode mode, @NotNull String configurationHash) {
+        this.manifestFile = new File(directory, MANIFEST_NAME);
+        this.mode = mode;
+        this.configurationHash = configurationHash;
+        if (manifestFile.isFile()) {
+            try (InputStream inputStream = new FileInputStream(manifestFile)) {
+                entries.load(inputStream);
+            } catch (IOException | IllegalArgumentException ex) {
+                //AN UNREADABLE MANIFEST IS TREATED AS EMPTY - ALL FILES ARE PROCESSED AGAIN.
+                entries.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns a stamp identifying the current state of the given source file. Depending on the mode, this is either
+     * based on the modification time and size, or on a hash of the contents of the file.
+     *
+     * @param source The source file.
+     * @return A stamp identifying the current state of the source file.
+     * @throws IOException Shall be thrown if the source file could not be read.
+     */
+    @NotNull
+    public String stamp(@NotNull File source) throws IOException {
+        if (mode == UpToDateMode.CONTENT) {
+            return hash(source);
+        }
+        return source.lastModified() + ":" + source.length();
+    }
+
+    /**
+     * Returns true, if the given target file has been created for the given source file and the current
+     * configuration, and neither the source nor the target have changed since then.
+     *
+     * @param source      The source file.
+     * @param sourceStamp The current stamp of the source file.
+     * @param target      The target file.
+     * @return True, if the target file is up to date.
+     */
+    public synchronized boolean isUpToDate(@NotNull File source, @NotNull String sourceStamp, @NotNull File target) {
+        return target.isFile() && createEntry(sourceStamp, target).equals(entries.getProperty(source.getAbsolutePath()));
+    }
+
+    /**
+     * Records, that the given target file has been created for the given source file and the current configuration.
+     *
+     * @param source      The source file.
+     * @param sourceStamp The stamp the source file had, when it has been processed.
+     * @param target      The target file.
+     */
+    public synchronized void record(@NotNull File source, @NotNull String sourceStamp, @NotNull File target) {
+        entries.setProperty(source.getAbsolutePath(), createEntry(sourceStamp, target));
+        modified = true;
+    }
+
+    /**
+     * Writes the manifest, if new entries have been recorded.
+     *
+     * @throws IOException Shall be thrown if the manifest could not be written.
+     */
+    public synchronized void save() throws IOException {
+        if (!modified) {
+            return;
+        }
+        File tempFile = File.createTempFile(MANIFEST_NAME, ".temp", manifestFile.getParentFile());
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(tempFile.toPath())) {
+                entries.store(outputStream, "webPDF ant - processed source files");
+            }
+            try {
+                Files.move(tempFile.toPath(), manifestFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tempFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            modified = false;
+        } finally {
+            Files.deleteIfExists(tempFile.toPath());
+        }
+    }
+
+    /**
+     * Returns the manifest file.
+     *
+     * @return The manifest file.
+     */
+    @NotNull
+    public File getManifestFile() {
+        return manifestFile;
+    }
+
+    /**
+     * Creates the entry recorded for a source file.
+     *
+     * @param sourceStamp The stamp of the source file.
+     * @param target      The target file.
+     * @return The entry recorded for a source file.
+     */
+    @NotNull
+    private String createEntry(@NotNull String sourceStamp, @NotNull File target) {
+        return sourceStamp + SEPARATOR + configurationHash + SEPARATOR + target.getAbsolutePath() + SEPARATOR +
+                   target.lastModified() + ":" + target.length();
+    }
+
+    /**
+     * Creates a SHA-256 hash of the contents of the given file.
+     *
+     * @param file The file, that shall be hashed.
+     * @return The hex encoded hash.
+     * @throws IOException Shall be thrown if the file could not be read.
+     */
+    @NotNull
+    private static String hash(@NotNull File file) throws IOException {
+        MessageDigest digest = createDigest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream inputStream = new FileInputStream(file)) {
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Creates a SHA-256 message digest.
+     *
+     * @return A SHA-256 message digest.
+     */
+    @NotNull
+    public static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            //EVERY JAVA PLATFORM IS REQUIRED TO SUPPORT SHA-256.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Encodes the given bytes as hexadecimal string.
+     *
+     * @param bytes The bytes, that shall be encoded.
+     * @return The hexadecimal representation of the given bytes.
+     */
+    @NotNull
+    public static String toHex(@Nullable byte[] bytes) {
+        StringBuilder builder = new StringBuilder();
+        if (bytes != null) {
+            for (byte value : bytes) {
+                builder.append(String.format("%02x", value));
+            }
+        }
+        return builder.toString();
+    }
+
+}
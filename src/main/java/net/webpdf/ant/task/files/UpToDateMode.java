@@ -0,0 +1,53 @@
+package net.webpdf.ant.task.files;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Provides the different ways to decide, whether the target file of a source file is up to date.
+ */
+public enum UpToDateMode {
+
+    NONE("none"),
+    TIMESTAMP("timestamp"),
+    CONTENT("content");
+
+    @NotNull
+    private final String name;
+
+    /**
+     * A way to decide, whether a target file is up to date.
+     *
+     * @param name The name of the mode, as it is used in build files.
+     */
+    UpToDateMode(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the name of the mode, as it is used in build files.
+     *
+     * @return The name of the mode.
+     */
+    @NotNull
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the mode having the given name, or null if such a mode does not exist.
+     *
+     * @param name The name of the mode. (case insensitive)
+     * @return The mode having the given name, or null if such a mode does not exist.
+     */
+    @Nullable
+    public static UpToDateMode fromName(@Nullable String name) {
+        for (UpToDateMode mode : values()) {
+            if (mode.getName().equalsIgnoreCase(name == null ? "" : name.trim())) {
+                return mode;
+            }
+        }
+        return null;
+    }
+
+}
@@ -11,6 +11,7 @@ public enum LogTag {
     TARGET("[TARGET]"),
     GROUP("[GROUP]"),
     OPERATION("[OPERATION]"),
+    CIRCUIT_BREAKER("[CIRCUIT-BREAKER]"),
     WEBPDF_TASK("[webPDF-TASK]");
 
     @NotNull
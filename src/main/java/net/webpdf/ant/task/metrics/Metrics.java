@@ -0,0 +1,92 @@
+package net.webpdf.ant.task.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects timings and throughput figures of a webPDF task execution: The wall time of each executed phase, the bytes
+ * sent to and received from the webservices, the number of retries and the bytes written to temporary files. All
+ * methods may be called concurrently.
+ */
+public class Metrics {
+
+    public static final String PHASE_TASK = "task";
+    public static final String PHASE_GROUP = "group";
+    public static final String PHASE_OPERATION = "operation:";
+    public static final String PHASE_FINALIZE = "finalize";
+
+    private final long startTime = System.nanoTime();
+    @NotNull
+    private final ConcurrentMap<String, PhaseMetrics> phases = new ConcurrentHashMap<>();
+    @NotNull
+    private final AtomicLong documents = new AtomicLong();
+    @NotNull
+    private final AtomicLong bytesIn = new AtomicLong();
+    @NotNull
+    private final AtomicLong bytesOut = new AtomicLong();
+    @NotNull
+    private final AtomicLong retries = new AtomicLong();
+    @NotNull
+    private final AtomicLong tempBytes = new AtomicLong();
+
+    /**
+     * Records the wall time of an execution of the given phase.
+     *
+     * @param phase     The name of the phase.
+     * @param startTime The start time (in nanoseconds) of the execution, as it has been returned by
+     *                  {@link System#nanoTime()}.
+     */
+    public void recordPhase(@NotNull String phase, long startTime) {
+        phases.computeIfAbsent(phase, name -> new PhaseMetrics()).record(System.nanoTime() - startTime);
+    }
+
+    /**
+     * Records the size of a document sent to a webservice and the size of the returned result.
+     *
+     * @param in      The size (in bytes) of the sent document.
+     * @param out     The size (in bytes) of the returned result.
+     * @param spilled True, if the result has been written to a temporary file, instead of being held in memory.
+     */
+    public void recordTransfer(long in, long out, boolean spilled) {
+        bytesIn.addAndGet(in);
+        bytesOut.addAndGet(out);
+        if (spilled) {
+            tempBytes.addAndGet(out);
+        }
+    }
+
+    /**
+     * Records the retry of a failed webservice call.
+     */
+    public void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    /**
+     * Records a completely processed source document.
+     */
+    public void recordDocument() {
+        documents.incrementAndGet();
+    }
+
+    /**
+     * Creates a report summarizing all figures recorded so far.
+     *
+     * @return The report of the recorded figures.
+     */
+    @NotNull
+    public MetricsReport createReport() {
+        Map<String, PhaseMetrics> durations = new TreeMap<>();
+        for (Map.Entry<String, PhaseMetrics> phase : phases.entrySet()) {
+            durations.put(phase.getKey(), phase.getValue().snapshot());
+        }
+        return new MetricsReport(System.nanoTime() - startTime, documents.get(), bytesIn.get(), bytesOut.get(),
+            retries.get(), tempBytes.get(), durations);
+    }
+
+}
@@ -0,0 +1,265 @@
+package net.webpdf.ant.task.metrics;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import net.webpdf.ant.task.logging.AntLogger;
+import net.webpdf.ant.task.logging.LogTag;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A summary of the figures recorded for a webPDF task execution: the number of processed documents and the throughput,
+ * as well as the distribution (50th, 95th and 99th percentile) of the wall time of each phase. The report may be
+ * logged, or written to a JSON or CSV file.
+ */
+public class MetricsReport {
+
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+
+    private final double elapsedSeconds;
+    private final long documents;
+    private final double documentsPerSecond;
+    private final long bytesIn;
+    private final long bytesOut;
+    private final double megabytesPerSecond;
+    private final long retries;
+    private final long tempBytes;
+    @NotNull
+    private final List<PhaseReport> phases = new ArrayList<>();
+
+    /**
+     * Creates a report of the given figures.
+     *
+     * @param elapsed   The wall time (in nanoseconds) of the whole execution.
+     * @param documents The number of processed source documents.
+     * @param bytesIn   The bytes sent to the webservices.
+     * @param bytesOut  The bytes received from the webservices.
+     * @param retries   The number of retried webservice calls.
+     * @param tempBytes The bytes written to temporary files.
+     * @param durations The recorded durations of each phase.
+     */
+    MetricsReport(long elapsed, long documents, long bytesIn, long bytesOut, long retries, long tempBytes,
+        @NotNull Map<String, PhaseMetrics> durations) {
+        this.elapsedSeconds = Math.max(1, elapsed) / (double) TimeUnit.SECONDS.toNanos(1);
+        this.documents = documents;
+        this.documentsPerSecond = documents / elapsedSeconds;
+        this.bytesIn = bytesIn;
+        this.bytesOut = bytesOut;
+        this.megabytesPerSecond = bytesIn / MEGABYTE / elapsedSeconds;
+        this.retries = retries;
+        this.tempBytes = tempBytes;
+        for (Map.Entry<String, PhaseMetrics> phase : durations.entrySet()) {
+            phases.add(new PhaseReport(phase.getKey(), phase.getValue()));
+        }
+    }
+
+    /**
+     * Returns the number of processed source documents.
+     *
+     * @return The number of processed source documents.
+     */
+    public long getDocuments() {
+        return documents;
+    }
+
+    /**
+     * Returns the number of retried webservice calls.
+     *
+     * @return The number of retried webservice calls.
+     */
+    public long getRetries() {
+        return retries;
+    }
+
+    /**
+     * Returns the reports of all recorded phases, ordered by their names.
+     *
+     * @return The reports of all recorded phases.
+     */
+    @NotNull
+    public List<PhaseReport> getPhases() {
+        return phases;
+    }
+
+    /**
+     * Logs this report using the given logger.
+     *
+     * @param logger The logger this report shall be logged with.
+     */
+    public void log(@NotNull AntLogger logger) {
+        logger.info(String.format(Locale.ENGLISH,
+            "Metrics: %d documents in %.1f s (%.2f documents/s, %.2f MB/s), %d bytes sent, %d bytes received, "
+                + "%d retries, %d bytes written to temporary files.",
+            documents, elapsedSeconds, documentsPerSecond, megabytesPerSecond, bytesIn, bytesOut, retries, tempBytes),
+            LogTag.WEBPDF_TASK);
+        for (PhaseReport phase : phases) {
+            logger.info(String.format(Locale.ENGLISH,
+                "Metrics %s: %d executions, p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms.",
+                phase.name, phase.count, phase.p50Millis, phase.p95Millis, phase.p99Millis, phase.maxMillis),
+                LogTag.WEBPDF_TASK);
+        }
+    }
+
+    /**
+     * Writes this report to the given file. A file having the extension ".csv" shall contain one "metric,value" line
+     * per figure, all other files shall contain a JSON document.
+     *
+     * @param file The file this report shall be written to.
+     * @throws IOException Shall be thrown if the file could not be written.
+     */
+    public void write(@NotNull File file) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("The directory of the metrics file could not be created: " + directory.getAbsolutePath());
+        }
+        try (Writer writer = new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8)) {
+            if (file.getName().toLowerCase(Locale.ENGLISH).endsWith(".csv")) {
+                writeCSV(writer);
+            } else {
+                Gson gson = new GsonBuilder().setPrettyPrinting().create();
+                gson.toJson(this, writer);
+            }
+        }
+    }
+
+    /**
+     * Writes this report as "metric,value" lines.
+     *
+     * @param writer The writer this report shall be written to.
+     * @throws IOException Shall be thrown if the report could not be written.
+     */
+    private void writeCSV(@NotNull Writer writer) throws IOException {
+        writer.write("metric,value\n");
+        writeCSVLine(writer, "elapsedSeconds", elapsedSeconds);
+        writeCSVLine(writer, "documents", documents);
+        writeCSVLine(writer, "documentsPerSecond", documentsPerSecond);
+        writeCSVLine(writer, "bytesIn", bytesIn);
+        writeCSVLine(writer, "bytesOut", bytesOut);
+        writeCSVLine(writer, "megabytesPerSecond", megabytesPerSecond);
+        writeCSVLine(writer, "retries", retries);
+        writeCSVLine(writer, "tempBytes", tempBytes);
+        for (PhaseReport phase : phases) {
+            writeCSVLine(writer, phase.name + ".count", phase.count);
+            writeCSVLine(writer, phase.name + ".totalMillis", phase.totalMillis);
+            writeCSVLine(writer, phase.name + ".p50Millis", phase.p50Millis);
+            writeCSVLine(writer, phase.name + ".p95Millis", phase.p95Millis);
+            writeCSVLine(writer, phase.name + ".p99Millis", phase.p99Millis);
+            writeCSVLine(writer, phase.name + ".maxMillis", phase.maxMillis);
+        }
+    }
+
+    /**
+     * Writes a single "metric,value" line.
+     *
+     * @param writer The writer the line shall be written to.
+     * @param metric The name of the metric.
+     * @param value  The value of the metric.
+     * @throws IOException Shall be thrown if the line could not be written.
+     */
+    private static void writeCSVLine(@NotNull Writer writer, @NotNull String metric, @NotNull Number value)
+        throws IOException {
+        String formatted = value instanceof Double ? String.format(Locale.ENGLISH, "%.3f", value.doubleValue()) :
+            String.valueOf(value);
+        writer.write(metric + "," + formatted + "\n");
+    }
+
+    /**
+     * The distribution of the wall time of a single phase.
+     */
+    public static class PhaseReport {
+
+        @NotNull
+        private final String name;
+        private final long count;
+        private final double totalMillis;
+        private final double p50Millis;
+        private final double p95Millis;
+        private final double p99Millis;
+        private final double maxMillis;
+
+        /**
+         * Summarizes the given durations of a phase.
+         *
+         * @param name      The name of the phase.
+         * @param durations The recorded durations of the phase.
+         */
+        private PhaseReport(@NotNull String name, @NotNull PhaseMetrics durations) {
+            this.name = name;
+            this.count = durations.getCount();
+            this.totalMillis = toMillis(durations.getTotal());
+            this.p50Millis = toMillis(durations.getPercentile(50));
+            this.p95Millis = toMillis(durations.getPercentile(95));
+            this.p99Millis = toMillis(durations.getPercentile(99));
+            this.maxMillis = toMillis(durations.getMax());
+        }
+
+        /**
+         * Returns the name of the phase.
+         *
+         * @return The name of the phase.
+         */
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the number of executions of the phase.
+         *
+         * @return The number of executions of the phase.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Returns the wall time (in milliseconds), that has not been exceeded by half of the executions.
+         *
+         * @return The median of the wall time.
+         */
+        public double getP50Millis() {
+            return p50Millis;
+        }
+
+        /**
+         * Returns the wall time (in milliseconds), that has not been exceeded by 95 percent of the executions.
+         *
+         * @return The 95th percentile of the wall time.
+         */
+        public double getP95Millis() {
+            return p95Millis;
+        }
+
+        /**
+         * Returns the wall time (in milliseconds), that has not been exceeded by 99 percent of the executions.
+         *
+         * @return The 99th percentile of the wall time.
+         */
+        public double getP99Millis() {
+            return p99Millis;
+        }
+
+        /**
+         * Converts the given nanoseconds to milliseconds.
+         *
+         * @param nanos The nanoseconds, that shall be converted.
+         * @return The milliseconds.
+         */
+        private static double toMillis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+    }
+
+}
@@ -0,0 +1,139 @@
+package net.webpdf.ant.task.metrics;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Collects the durations of all executions of a single phase in a histogram, so that their distribution may be
+ * reported. The histogram has a fixed size, no matter how many executions are recorded: Each power of two is divided
+ * into 64 buckets, so that a reported percentile deviates by less than 2 percent from the recorded duration.
+ */
+class PhaseMetrics {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    @NotNull
+    private final long[] buckets;
+    private long count = 0;
+    private long total = 0;
+    private long max = 0;
+
+    /**
+     * Creates an empty histogram.
+     */
+    PhaseMetrics() {
+        this.buckets = new long[(Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS];
+    }
+
+    /**
+     * Creates a copy of the given histogram.
+     *
+     * @param phaseMetrics The histogram, that shall be copied.
+     */
+    private PhaseMetrics(@NotNull PhaseMetrics phaseMetrics) {
+        this.buckets = phaseMetrics.buckets.clone();
+        this.count = phaseMetrics.count;
+        this.total = phaseMetrics.total;
+        this.max = phaseMetrics.max;
+    }
+
+    /**
+     * Records the duration of an execution of the phase.
+     *
+     * @param duration The duration (in nanoseconds) of the execution.
+     */
+    synchronized void record(long duration) {
+        long value = Math.max(0, duration);
+        buckets[getBucket(value)]++;
+        count++;
+        total += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Returns a copy of the durations recorded so far, that is not altered by following recordings.
+     *
+     * @return The copy of the recorded durations.
+     */
+    @NotNull
+    synchronized PhaseMetrics snapshot() {
+        return new PhaseMetrics(this);
+    }
+
+    /**
+     * Returns the number of recorded executions.
+     *
+     * @return The number of recorded executions.
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the sum of all recorded durations.
+     *
+     * @return The total duration (in nanoseconds).
+     */
+    long getTotal() {
+        return total;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return The maximum duration (in nanoseconds).
+     */
+    long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the duration, that has not been exceeded by the given percentage of executions, using the nearest rank.
+     * The upper bound of the bucket containing said rank is returned.
+     *
+     * @param percentage The percentage of executions, that shall not exceed the returned duration.
+     * @return The percentile (in nanoseconds), or 0 if no execution has been recorded.
+     */
+    long getPercentile(double percentage) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.min(count, Math.max(1, (long) Math.ceil(percentage / 100.0 * count)));
+        long seen = 0;
+        for (int bucket = 0; bucket < buckets.length; bucket++) {
+            seen += buckets[bucket];
+            if (seen >= rank) {
+                return Math.min(max, getUpperBound(bucket));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the bucket the given duration is counted in. Durations below 128 nanoseconds are counted exactly, larger
+     * durations are reduced to their 7 most significant bits.
+     *
+     * @param value The duration (in nanoseconds).
+     * @return The index of the bucket.
+     */
+    private static int getBucket(long value) {
+        int shift = Math.max(0, Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        return shift * SUB_BUCKETS + (int) (value >>> shift);
+    }
+
+    /**
+     * Returns the largest duration, that is counted in the given bucket.
+     *
+     * @param bucket The index of the bucket.
+     * @return The largest duration (in nanoseconds) of the bucket.
+     */
+    private static long getUpperBound(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket - (long) shift * SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,114 @@
+package net.webpdf.ant.task.plan;
+
+import net.webpdf.ant.task.files.IterativeTaskFile;
+import net.webpdf.ant.task.server.Endpoint;
+import net.webpdf.ant.task.session.RetryPolicy;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The context a compiled task definition is executed in for a single source file. It bundles the files of the
+ * processed source file with the settings, that apply to the currently executed part of the definition. Instead of
+ * altering the shared task definitions, each part derives a context of it's own, so that the same definition may be
+ * executed for several source files concurrently. The context itself is immutable - only the referenced files
+ * progress from operation to operation.
+ */
+public class ExecutionContext {
+
+    @NotNull
+    private final IterativeTaskFile files;
+    @NotNull
+    private final RetryPolicy retryPolicy;
+    @Nullable
+    private final Endpoint endpoint;
+
+    /**
+     * Creates the context for the given source file.
+     *
+     * @param files       The files of the processed source file.
+     * @param retryPolicy The policy defining whether and when failed webservice calls shall be repeated.
+     */
+    public ExecutionContext(@NotNull IterativeTaskFile files, @NotNull RetryPolicy retryPolicy) {
+        this(files, retryPolicy, null);
+    }
+
+    /**
+     * Creates the context for the given source file.
+     *
+     * @param files       The files of the processed source file.
+     * @param retryPolicy The policy defining whether and when failed webservice calls shall be repeated.
+     * @param endpoint    The webPDF server all webservice calls shall stick to, or null if the server shall be
+     *                    selected by the load balancer.
+     */
+    private ExecutionContext(@NotNull IterativeTaskFile files, @NotNull RetryPolicy retryPolicy,
+        @Nullable Endpoint endpoint) {
+        this.files = files;
+        this.retryPolicy = retryPolicy;
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Returns the files of the processed source file.
+     *
+     * @return The files of the processed source file.
+     */
+    @NotNull
+    public IterativeTaskFile getFiles() {
+        return files;
+    }
+
+    /**
+     * Returns the policy defining whether and when failed webservice calls shall be repeated.
+     *
+     * @return The retry policy.
+     */
+    @NotNull
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Returns the webPDF server all webservice calls shall stick to.
+     *
+     * @return The webPDF server, or null if the server shall be selected by the load balancer.
+     */
+    @Nullable
+    public Endpoint getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * Derives a context processing the given files, instead of the files of this context.
+     *
+     * @param files The files, that shall be processed.
+     * @return The derived context.
+     */
+    @NotNull
+    public ExecutionContext withFiles(@NotNull IterativeTaskFile files) {
+        return new ExecutionContext(files, retryPolicy, endpoint);
+    }
+
+    /**
+     * Derives a context using the given retry policy, instead of the policy of this context.
+     *
+     * @param retryPolicy The retry policy, that shall be used.
+     * @return The derived context.
+     */
+    @NotNull
+    public ExecutionContext withRetryPolicy(@NotNull RetryPolicy retryPolicy) {
+        return new ExecutionContext(files, retryPolicy, endpoint);
+    }
+
+    /**
+     * Derives a context sticking to the given webPDF server, instead of the server of this context.
+     *
+     * @param endpoint The webPDF server all webservice calls shall stick to, or null if the server shall be selected
+     *                 by the load balancer.
+     * @return The derived context.
+     */
+    @NotNull
+    public ExecutionContext withEndpoint(@Nullable Endpoint endpoint) {
+        return new ExecutionContext(files, retryPolicy, endpoint);
+    }
+
+}
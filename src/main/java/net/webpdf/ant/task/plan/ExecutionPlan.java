@@ -0,0 +1,109 @@
+package net.webpdf.ant.task.plan;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The compiled execution plan of a webPDF task: The dependency graph of it's sub tasks and the policies applied when
+ * executing them. The plan is compiled once, before the first source file is processed, and is shared by all source
+ * files - each of them is processed in an {@link ExecutionContext} of it's own. The plan is never altered.
+ *
+ * @param <T> The type of the planned sub tasks.
+ */
+public class ExecutionPlan<T> {
+
+    @NotNull
+    private final TaskGraph<T> taskGraph;
+    private final boolean concurrent;
+    private final boolean failOnError;
+
+    /**
+     * Creates the execution plan for the given dependency graph. The graph is owned by the plan and shall not be
+     * altered afterwards.
+     *
+     * @param taskGraph   The dependency graph of the sub tasks.
+     * @param concurrent  True, if independent sub tasks shall be executed concurrently.
+     * @param failOnError True, if the execution shall be aborted, as soon as a sub task failed.
+     */
+    public ExecutionPlan(@NotNull TaskGraph<T> taskGraph, boolean concurrent, boolean failOnError) {
+        this.taskGraph = taskGraph;
+        this.concurrent = concurrent && !taskGraph.isSequential();
+        this.failOnError = failOnError;
+    }
+
+    /**
+     * Returns the number of planned sub tasks.
+     *
+     * @return The number of sub tasks.
+     */
+    public int size() {
+        return taskGraph.size();
+    }
+
+    /**
+     * Returns the sub task planned for the given node.
+     *
+     * @param node The index of the node.
+     * @return The sub task of the node.
+     */
+    @NotNull
+    public T getTask(int node) {
+        return taskGraph.getTask(node);
+    }
+
+    /**
+     * Returns the nodes the given node directly depends on.
+     *
+     * @param node The index of the node.
+     * @return The indices of the nodes, the node depends on.
+     */
+    @NotNull
+    public Set<Integer> getDependencies(int node) {
+        return taskGraph.getDependencies(node);
+    }
+
+    /**
+     * Returns the nodes directly depending on the given node.
+     *
+     * @param node The index of the node.
+     * @return The indices of the nodes depending on the node.
+     */
+    @NotNull
+    public Set<Integer> getDependents(int node) {
+        return taskGraph.getDependents(node);
+    }
+
+    /**
+     * Returns the critical path of the planned sub tasks.
+     *
+     * @param durations The duration of each node. (Indexed by node.)
+     * @return The indices of the nodes on the critical path, in execution order.
+     * @see TaskGraph#getCriticalPath(long[])
+     */
+    @NotNull
+    public List<Integer> getCriticalPath(@NotNull long[] durations) {
+        return taskGraph.getCriticalPath(durations);
+    }
+
+    /**
+     * Returns true, if independent sub tasks shall be executed concurrently. This is never the case, if the sub tasks
+     * depend on each other sequentially.
+     *
+     * @return True, if independent sub tasks shall be executed concurrently.
+     */
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    /**
+     * Returns true, if the execution shall be aborted, as soon as a sub task failed.
+     *
+     * @return True, if the execution shall be aborted, as soon as a sub task failed.
+     */
+    public boolean isFailOnError() {
+        return failOnError;
+    }
+
+}
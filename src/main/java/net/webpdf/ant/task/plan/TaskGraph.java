@@ -0,0 +1,231 @@
+package net.webpdf.ant.task.plan;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A dependency graph of the sub tasks, that are executed for each source file. Each node declares the resources (such
+ * as the current source file or a variable) it reads and writes: A node depends on the last preceding node writing a
+ * resource it reads or writes and on all preceding nodes reading a resource it writes. A barrier depends on all
+ * preceding nodes and all following nodes depend on the barrier. Nodes are added in declaration order, which
+ * therefore always is a topological order of the graph. Nodes, that do not depend on each other (directly or
+ * transitively), may be executed concurrently.
+ *
+ * @param <T> The type of the tasks represented by the nodes of the graph.
+ */
+public class TaskGraph<T> {
+
+    @NotNull
+    private final List<T> tasks = new ArrayList<>();
+    @NotNull
+    private final List<Set<Integer>> dependencies = new ArrayList<>();
+    @NotNull
+    private final List<Set<Integer>> dependents = new ArrayList<>();
+    @NotNull
+    private final List<BitSet> ancestors = new ArrayList<>();
+    @NotNull
+    private final Map<Object, Integer> lastWriters = new HashMap<>();
+    @NotNull
+    private final Map<Object, Set<Integer>> readers = new HashMap<>();
+    @Nullable
+    private Integer lastBarrier = null;
+
+    /**
+     * Creates an empty dependency graph.
+     */
+    public TaskGraph() {
+    }
+
+    /**
+     * Adds a node for the given task, reading and writing the given resources. A resource may be any object
+     * implementing {@link Object#equals(Object)} and {@link Object#hashCode()} consistently.
+     *
+     * @param task   The task represented by the node.
+     * @param reads  The resources, the task reads.
+     * @param writes The resources, the task writes.
+     * @return The index of the added node.
+     */
+    public int add(@NotNull T task, @NotNull Collection<?> reads, @NotNull Collection<?> writes) {
+        Set<Integer> nodeDependencies = new LinkedHashSet<>();
+        if (lastBarrier != null) {
+            nodeDependencies.add(lastBarrier);
+        }
+        for (Object resource : reads) {
+            Integer writer = lastWriters.get(resource);
+            if (writer != null) {
+                nodeDependencies.add(writer);
+            }
+        }
+        for (Object resource : writes) {
+            Integer writer = lastWriters.get(resource);
+            if (writer != null) {
+                nodeDependencies.add(writer);
+            }
+            Set<Integer> resourceReaders = readers.get(resource);
+            if (resourceReaders != null) {
+                nodeDependencies.addAll(resourceReaders);
+            }
+        }
+        int node = addNode(task, nodeDependencies);
+        for (Object resource : reads) {
+            readers.computeIfAbsent(resource, key -> new LinkedHashSet<>()).add(node);
+        }
+        for (Object resource : writes) {
+            lastWriters.put(resource, node);
+            readers.remove(resource);
+        }
+        return node;
+    }
+
+    /**
+     * Adds a node for the given task, that depends on all preceding nodes and all following nodes depend on.
+     *
+     * @param task The task represented by the node.
+     * @return The index of the added node.
+     */
+    public int addBarrier(@NotNull T task) {
+        Set<Integer> nodeDependencies = new LinkedHashSet<>();
+        for (int node = 0; node < tasks.size(); node++) {
+            nodeDependencies.add(node);
+        }
+        int node = addNode(task, nodeDependencies);
+        lastBarrier = node;
+        lastWriters.clear();
+        readers.clear();
+        return node;
+    }
+
+    /**
+     * Appends a node having the given direct dependencies.
+     *
+     * @param task             The task represented by the node.
+     * @param nodeDependencies The nodes the added node depends on.
+     * @return The index of the added node.
+     */
+    private int addNode(@NotNull T task, @NotNull Set<Integer> nodeDependencies) {
+        int node = tasks.size();
+        BitSet nodeAncestors = new BitSet();
+        for (int dependency : nodeDependencies) {
+            nodeAncestors.or(ancestors.get(dependency));
+            nodeAncestors.set(dependency);
+            dependents.get(dependency).add(node);
+        }
+        tasks.add(task);
+        dependencies.add(Collections.unmodifiableSet(nodeDependencies));
+        dependents.add(new LinkedHashSet<>());
+        ancestors.add(nodeAncestors);
+        return node;
+    }
+
+    /**
+     * Returns the number of nodes contained in this graph.
+     *
+     * @return The number of nodes.
+     */
+    public int size() {
+        return tasks.size();
+    }
+
+    /**
+     * Returns the task represented by the given node.
+     *
+     * @param node The index of the node.
+     * @return The task represented by the node.
+     */
+    @NotNull
+    public T getTask(int node) {
+        return tasks.get(node);
+    }
+
+    /**
+     * Returns the nodes the given node directly depends on.
+     *
+     * @param node The index of the node.
+     * @return The indices of the nodes, the node depends on.
+     */
+    @NotNull
+    public Set<Integer> getDependencies(int node) {
+        return dependencies.get(node);
+    }
+
+    /**
+     * Returns the nodes directly depending on the given node.
+     *
+     * @param node The index of the node.
+     * @return The indices of the nodes depending on the node.
+     */
+    @NotNull
+    public Set<Integer> getDependents(int node) {
+        return Collections.unmodifiableSet(dependents.get(node));
+    }
+
+    /**
+     * Returns true, if the given node depends on the other node, either directly or transitively.
+     *
+     * @param node  The index of the depending node.
+     * @param other The index of the node, that shall be checked.
+     * @return True, if the node depends on the other node.
+     */
+    public boolean dependsOn(int node, int other) {
+        return ancestors.get(node).get(other);
+    }
+
+    /**
+     * Returns true, if no two nodes of this graph may be executed concurrently. This is the case, if each node depends
+     * on it's predecessor in declaration order.
+     *
+     * @return True, if the nodes must be executed one after another.
+     */
+    public boolean isSequential() {
+        for (int node = 1; node < tasks.size(); node++) {
+            if (!dependsOn(node, node - 1)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the critical path of this graph: The chain of depending nodes having the longest total duration, which
+     * therefore determines the minimal duration of a concurrent execution of all nodes.
+     *
+     * @param durations The duration of each node. (Indexed by node.)
+     * @return The indices of the nodes on the critical path, in execution order.
+     */
+    @NotNull
+    public List<Integer> getCriticalPath(@NotNull long[] durations) {
+        int size = tasks.size();
+        long[] pathDurations = new long[size];
+        int[] predecessors = new int[size];
+        int last = -1;
+        for (int node = 0; node < size; node++) {
+            predecessors[node] = -1;
+            for (int dependency : dependencies.get(node)) {
+                if (predecessors[node] == -1 || pathDurations[dependency] > pathDurations[predecessors[node]]) {
+                    predecessors[node] = dependency;
+                }
+            }
+            pathDurations[node] = durations[node] + (predecessors[node] != -1 ? pathDurations[predecessors[node]] : 0);
+            if (last == -1 || pathDurations[node] > pathDurations[last]) {
+                last = node;
+            }
+        }
+        LinkedList<Integer> path = new LinkedList<>();
+        for (int node = last; node != -1; node = predecessors[node]) {
+            path.addFirst(node);
+        }
+        return path;
+    }
+
+}
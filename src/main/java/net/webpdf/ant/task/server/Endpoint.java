@@ -0,0 +1,137 @@
+package net.webpdf.ant.task.server;
+
+import net.webpdf.ant.task.session.CircuitBreaker;
+import net.webpdf.ant.task.session.SessionPool;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.URL;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A webPDF server, the webservice calls of a webPDF task may be sent to. Each endpoint manages it's own sessions and
+ * it's own circuit breaker, which ejects the endpoint, while it is unreachable.
+ */
+public class Endpoint implements AutoCloseable {
+
+    @NotNull
+    private final URL serverURL;
+    private final int weight;
+    @NotNull
+    private final SessionPool sessionPool;
+    @Nullable
+    private final CircuitBreaker circuitBreaker;
+    @NotNull
+    private final AtomicInteger outstandingCalls = new AtomicInteger();
+    @NotNull
+    private final AtomicLong dispatchedCalls = new AtomicLong();
+
+    /**
+     * Creates an endpoint for the given webPDF server.
+     *
+     * @param serverURL      The URL of the webPDF server.
+     * @param weight         The share of webservice calls, this endpoint shall receive.
+     * @param sessionPool    The pool managing the sessions connected to the webPDF server.
+     * @param circuitBreaker The circuit breaker ejecting the endpoint, or null if the endpoint shall never be ejected.
+     */
+    public Endpoint(@NotNull URL serverURL, int weight, @NotNull SessionPool sessionPool,
+        @Nullable CircuitBreaker circuitBreaker) {
+        this.serverURL = serverURL;
+        this.weight = Math.max(1, weight);
+        this.sessionPool = sessionPool;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Requests the permission for a call to this endpoint. Every permitted call must be reported by calling
+     * {@link #release(Throwable)}.
+     *
+     * @return True, if the call is permitted - false, if the endpoint is currently ejected.
+     */
+    public boolean tryAcquire() {
+        if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+            return false;
+        }
+        outstandingCalls.incrementAndGet();
+        dispatchedCalls.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Reports the outcome of a permitted call.
+     *
+     * @param failure The failure of the call, or null if the call succeeded.
+     */
+    public void release(@Nullable Throwable failure) {
+        outstandingCalls.decrementAndGet();
+        if (circuitBreaker != null) {
+            circuitBreaker.release(failure);
+        }
+    }
+
+    /**
+     * Returns true, if calls may currently be sent to this endpoint.
+     *
+     * @return True, if the endpoint is not ejected.
+     */
+    public boolean isAvailable() {
+        return circuitBreaker == null || circuitBreaker.getState() != CircuitBreaker.State.OPEN;
+    }
+
+    /**
+     * Returns the number of permitted calls, that have not been reported yet.
+     *
+     * @return The number of outstanding calls.
+     */
+    public int getOutstandingCalls() {
+        return outstandingCalls.get();
+    }
+
+    /**
+     * Returns the number of calls, that have been permitted so far.
+     *
+     * @return The number of dispatched calls.
+     */
+    public long getDispatchedCalls() {
+        return dispatchedCalls.get();
+    }
+
+    /**
+     * Returns the URL of the webPDF server.
+     *
+     * @return The URL of the webPDF server.
+     */
+    @NotNull
+    public URL getServerURL() {
+        return serverURL;
+    }
+
+    /**
+     * Returns the share of webservice calls, this endpoint shall receive.
+     *
+     * @return The weight of the endpoint.
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns the pool managing the sessions connected to the webPDF server.
+     *
+     * @return The session pool of this endpoint.
+     */
+    @NotNull
+    public SessionPool getSessionPool() {
+        return sessionPool;
+    }
+
+    /**
+     * Closes all idle sessions of this endpoint.
+     */
+    @Override
+    public void close() {
+        sessionPool.close();
+    }
+
+}
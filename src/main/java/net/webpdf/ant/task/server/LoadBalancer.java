@@ -0,0 +1,156 @@
+package net.webpdf.ant.task.server;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Spreads the webservice calls of a webPDF task across several endpoints: Each call is sent to the available endpoint
+ * having the fewest outstanding calls in relation to it's weight. If several endpoints have the same load, the
+ * endpoint, that received the fewest calls in relation to it's weight, is chosen - so that sequential calls are spread
+ * by weighted turns. Ejected endpoints are skipped, until their circuit breaker permits a probing call.
+ */
+public class LoadBalancer implements AutoCloseable {
+
+    @NotNull
+    private final List<Endpoint> endpoints;
+    @NotNull
+    private final String identity;
+
+    /**
+     * Creates a load balancer for the given endpoints.
+     *
+     * @param endpoints The endpoints, that calls shall be spread across.
+     */
+    public LoadBalancer(@NotNull List<Endpoint> endpoints) {
+        this.endpoints = Collections.unmodifiableList(new ArrayList<>(endpoints));
+        TreeSet<String> serverURLs = new TreeSet<>();
+        for (Endpoint endpoint : endpoints) {
+            serverURLs.add(endpoint.getServerURL().toString());
+        }
+        this.identity = String.join(" ", serverURLs);
+    }
+
+    /**
+     * Selects an endpoint for a call and requests the permission for said call. The call must be reported by calling
+     * {@link Endpoint#release(Throwable)}.
+     *
+     * @return The endpoint the call shall be sent to, or null if all endpoints are currently ejected.
+     */
+    @Nullable
+    public Endpoint acquire() {
+        for (Endpoint endpoint : rankEndpoints()) {
+            if (endpoint.tryAcquire()) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Selects the endpoint, a sequence of calls shall stick to, without requesting a permission.
+     *
+     * @return The least loaded available endpoint, or the least loaded endpoint, if all endpoints are ejected.
+     */
+    @NotNull
+    public Endpoint select() {
+        List<Endpoint> ranked = rankEndpoints();
+        for (Endpoint endpoint : ranked) {
+            if (endpoint.isAvailable()) {
+                return endpoint;
+            }
+        }
+        return ranked.get(0);
+    }
+
+    /**
+     * Returns all endpoints of this load balancer.
+     *
+     * @return All endpoints of this load balancer.
+     */
+    @NotNull
+    public List<Endpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Returns the identity of the webPDF servers of this load balancer: The URLs of all endpoints, independent of
+     * their order.
+     *
+     * @return The identity of the webPDF servers.
+     */
+    @NotNull
+    public String getIdentity() {
+        return identity;
+    }
+
+    /**
+     * Closes the idle sessions of all endpoints.
+     */
+    @Override
+    public void close() {
+        for (Endpoint endpoint : endpoints) {
+            endpoint.close();
+        }
+    }
+
+    /**
+     * Orders the endpoints by their outstanding calls in relation to their weight, and by their dispatched calls in
+     * relation to their weight, if their outstanding calls are the same.
+     *
+     * @return The endpoints ordered by their load.
+     */
+    @NotNull
+    private List<Endpoint> rankEndpoints() {
+        List<RankedEndpoint> ranked = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            ranked.add(new RankedEndpoint(endpoint));
+        }
+        Collections.sort(ranked);
+        List<Endpoint> result = new ArrayList<>(ranked.size());
+        for (RankedEndpoint rankedEndpoint : ranked) {
+            result.add(rankedEndpoint.endpoint);
+        }
+        return result;
+    }
+
+    /**
+     * A snapshot of the load of an endpoint, that remains stable while the endpoints are ordered.
+     */
+    private static class RankedEndpoint implements Comparable<RankedEndpoint> {
+
+        @NotNull
+        private final Endpoint endpoint;
+        private final double outstandingLoad;
+        private final double dispatchedLoad;
+
+        /**
+         * Takes a snapshot of the load of the given endpoint.
+         *
+         * @param endpoint The endpoint, that shall be ranked.
+         */
+        private RankedEndpoint(@NotNull Endpoint endpoint) {
+            this.endpoint = endpoint;
+            this.outstandingLoad = (double) endpoint.getOutstandingCalls() / endpoint.getWeight();
+            this.dispatchedLoad = (double) endpoint.getDispatchedCalls() / endpoint.getWeight();
+        }
+
+        /**
+         * Orders endpoints having a lower load first.
+         *
+         * @param other The endpoint, that shall be compared to this endpoint.
+         * @return A negative value, if this endpoint has a lower load than the other endpoint.
+         */
+        @Override
+        public int compareTo(@NotNull RankedEndpoint other) {
+            int result = Double.compare(outstandingLoad, other.outstandingLoad);
+            return result != 0 ? result : Double.compare(dispatchedLoad, other.dispatchedLoad);
+        }
+
+    }
+
+}
@@ -0,0 +1,55 @@
+package net.webpdf.ant.task.server;
+
+import net.webpdf.ant.task.AntAccess;
+import org.apache.tools.ant.Task;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * This task provides one of several webPDF servers, the webservice calls of a webPDF task shall be spread across.
+ */
+public class Server extends Task {
+
+    @Nullable
+    private String url = null;
+    private int weight = 1;
+
+    /**
+     * Sets the URL of the webPDF server.
+     *
+     * @param url The URL of the webPDF server.
+     */
+    @AntAccess
+    public void setUrl(@Nullable String url) {
+        this.url = url;
+    }
+
+    /**
+     * Returns the URL of the webPDF server.
+     *
+     * @return The URL of the webPDF server.
+     */
+    @Nullable
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Sets the share of webservice calls, this server shall receive in relation to the other servers. (DEFAULT is 1)
+     *
+     * @param weight The weight of the webPDF server.
+     */
+    @AntAccess
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Returns the share of webservice calls, this server shall receive in relation to the other servers.
+     *
+     * @return The weight of the webPDF server.
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+}
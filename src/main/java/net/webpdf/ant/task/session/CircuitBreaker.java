@@ -0,0 +1,216 @@
+package net.webpdf.ant.task.session;
+
+import net.webpdf.ant.task.logging.AntLogger;
+import net.webpdf.ant.task.logging.LogTag;
+import net.webpdf.wsclient.exception.ResultException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Protects the webPDF server and the build from calls, that are bound to fail: After the given number of consecutive
+ * calls failed to reach the server, the breaker opens and rejects all calls instantly. Once the open time has passed,
+ * a single probing call is permitted - if it reaches the server, the breaker closes again, otherwise it stays open for
+ * another period.
+ */
+public class CircuitBreaker {
+
+    @NotNull
+    private final String name;
+    private final int failureThreshold;
+    private final long openTime;
+    @NotNull
+    private final AntLogger logger;
+
+    @NotNull
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @NotNull
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt = 0;
+    private boolean probing = false;
+
+    /**
+     * Creates a closed circuit breaker.
+     *
+     * @param name             The name of the protected webPDF server, as it shall be logged.
+     * @param failureThreshold The number of consecutive failures, that shall open the breaker.
+     * @param openTime         The time (in milliseconds) the breaker shall stay open, before a call is probed.
+     * @param logger           The logger state transitions shall be logged with.
+     */
+    public CircuitBreaker(@NotNull String name, int failureThreshold, long openTime, @NotNull AntLogger logger) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openTime = Math.max(0, openTime);
+        this.logger = logger;
+    }
+
+    /**
+     * Requests the permission for a call. Every permitted call must be reported by calling
+     * {@link #release(Throwable)}.
+     *
+     * @return True, if the call is permitted - false, if the call shall fail instantly.
+     */
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            switch (state) {
+                case CLOSED:
+                    return true;
+                case OPEN:
+                    if (System.nanoTime() - openedAt < TimeUnit.MILLISECONDS.toNanos(openTime)) {
+                        return false;
+                    }
+                    transition(State.HALF_OPEN);
+                    probing = true;
+                    return true;
+                default:
+                    if (probing) {
+                        return false;
+                    }
+                    probing = true;
+                    return true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reports the outcome of a permitted call. A call, that failed to reach the webPDF server, counts as a failure.
+     * Calls rejected by the server are answered and therefore count as a success, while interrupted calls are not
+     * counted at all.
+     *
+     * @param failure The failure of the call, or null if the call succeeded.
+     */
+    public void release(@Nullable Throwable failure) {
+        lock.lock();
+        try {
+            if (failure != null && isInterrupted(failure)) {
+                if (state == State.HALF_OPEN) {
+                    probing = false;
+                }
+            } else if (failure != null && isEndpointFailure(failure)) {
+                consecutiveFailures++;
+                if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                    openedAt = System.nanoTime();
+                    probing = false;
+                    transition(State.OPEN);
+                }
+            } else if (state != State.OPEN) {
+                consecutiveFailures = 0;
+                probing = false;
+                if (state == State.HALF_OPEN) {
+                    transition(State.CLOSED);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current state of the breaker.
+     *
+     * @return The current state of the breaker.
+     */
+    @NotNull
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes the state of the breaker and logs the transition. The lock must be held by the calling thread.
+     *
+     * @param next The next state of the breaker.
+     */
+    private void transition(@NotNull State next) {
+        logger.info(String.format("The circuit breaker of %s changed from %s to %s.", name, state.getName(),
+            next.getName()), LogTag.CIRCUIT_BREAKER);
+        state = next;
+    }
+
+    /**
+     * Returns true, if the given failure indicates, that the webPDF server could not be reached or is overloaded.
+     *
+     * @param failure The failure of a call.
+     * @return True, if the webPDF server could not be reached.
+     */
+    public static boolean isEndpointFailure(@Nullable Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof ResultException) {
+                if (((ResultException) cause).getResult().getException() instanceof IOException) {
+                    return true;
+                }
+            } else if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return ConcurrencyLimiter.isOverload(failure);
+    }
+
+    /**
+     * Returns true, if the given failure has been caused by the interruption of the calling thread.
+     *
+     * @param failure The failure of a call.
+     * @return True, if the call has been interrupted.
+     */
+    private static boolean isInterrupted(@NotNull Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof InterruptedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The states of a circuit breaker.
+     */
+    public enum State {
+        /**
+         * All calls are permitted.
+         */
+        CLOSED("closed"),
+        /**
+         * All calls are rejected.
+         */
+        OPEN("open"),
+        /**
+         * A single probing call is permitted.
+         */
+        HALF_OPEN("half-open");
+
+        @NotNull
+        private final String name;
+
+        /**
+         * A state of a circuit breaker.
+         *
+         * @param name The printable name of the state.
+         */
+        State(@NotNull String name) {
+            this.name = name;
+        }
+
+        /**
+         * Returns the printable name of the state.
+         *
+         * @return The printable name of the state.
+         */
+        @NotNull
+        public String getName() {
+            return name;
+        }
+    }
+
+}
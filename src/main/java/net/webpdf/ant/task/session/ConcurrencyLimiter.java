@@ -0,0 +1,230 @@
+package net.webpdf.ant.task.session;
+
+import net.webpdf.wsclient.exception.ResultException;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpResponseException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.ws.WebServiceException;
+import javax.xml.ws.http.HTTPException;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.net.ConnectException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An adaptive limit for the number of concurrent webservice calls, following the AIMD principle (additive increase,
+ * multiplicative decrease): While the latency of the calls stays close to the lowest latency observed, the limit is
+ * increased by roughly one call per round trip. A rising latency slowly decreases the limit, while timeouts and
+ * overload failures halve it.
+ */
+public class ConcurrencyLimiter {
+
+    private static final double LATENCY_TOLERANCE = 2.0;
+    private static final double LATENCY_BACKOFF = 0.9;
+    private static final double OVERLOAD_BACKOFF = 0.5;
+    private static final double BASELINE_DRIFT = 0.01;
+    /**
+     * The key, the JAX-WS runtime reports an unexpected HTTP status of a SOAP call with.
+     */
+    private static final String JAXWS_HTTP_STATUS_KEY = "http.status.code";
+
+    private final int minLimit;
+    private final int maxLimit;
+
+    @NotNull
+    private final ReentrantLock lock = new ReentrantLock();
+    @NotNull
+    private final Condition permitReleased = lock.newCondition();
+
+    private double limit;
+    private int inFlight = 0;
+    private double baselineLatency = -1;
+
+    /**
+     * Creates a limiter, that adapts the number of concurrent calls within the given bounds. The limiter starts with
+     * the lower bound.
+     *
+     * @param minLimit The minimum number of concurrent calls.
+     * @param maxLimit The maximum number of concurrent calls.
+     */
+    public ConcurrencyLimiter(int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = this.minLimit;
+    }
+
+    /**
+     * Acquires the permission for the given number of concurrent calls. The calling thread shall wait, until the
+     * calls fit into the current limit. Calls exceeding the limit on their own are permitted, when no other calls are
+     * in flight. The permission must always be returned by calling {@link #release(int, long, Outcome)}.
+     *
+     * @param calls The number of concurrent calls, that shall be permitted.
+     * @return The start time (in nanoseconds) of the calls, that shall be passed on, when releasing the permission.
+     * @throws InterruptedException Shall be thrown, if the calling thread has been interrupted while waiting.
+     */
+    public long acquire(int calls) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (inFlight > 0 && inFlight + calls > getLimit()) {
+                permitReleased.await();
+            }
+            inFlight += calls;
+        } finally {
+            lock.unlock();
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Returns a permission and adapts the limit to the outcome of the calls.
+     *
+     * @param calls     The number of calls, that had been permitted.
+     * @param startTime The start time, that has been returned, when acquiring the permission.
+     * @param outcome   The outcome of the calls.
+     */
+    public void release(int calls, long startTime, @NotNull Outcome outcome) {
+        long latency = System.nanoTime() - startTime;
+        lock.lock();
+        try {
+            inFlight = Math.max(0, inFlight - calls);
+            switch (outcome) {
+                case SUCCESS:
+                    adaptToLatency(latency);
+                    break;
+                case OVERLOAD:
+                    limit = Math.max(minLimit, limit * OVERLOAD_BACKOFF);
+                    break;
+                default:
+                    break;
+            }
+            permitReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current limit of concurrent calls.
+     *
+     * @return The current limit of concurrent calls.
+     */
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) Math.floor(limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of calls currently in flight.
+     *
+     * @return The number of calls currently in flight.
+     */
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Increases the limit, if the given latency is close to the baseline latency, and decreases it otherwise. The
+     * baseline follows the lowest latency observed and slowly drifts towards higher latencies, so that it adapts to
+     * lasting changes. The lock must be held by the calling thread.
+     *
+     * @param latency The latency (in nanoseconds) of a successful call.
+     */
+    private void adaptToLatency(long latency) {
+        if (baselineLatency < 0 || latency < baselineLatency) {
+            baselineLatency = latency;
+        } else {
+            baselineLatency += (latency - baselineLatency) * BASELINE_DRIFT;
+        }
+        if (latency <= baselineLatency * LATENCY_TOLERANCE) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        } else {
+            limit = Math.max(minLimit, limit * LATENCY_BACKOFF);
+        }
+    }
+
+    /**
+     * Returns true, if the given failure indicates, that the webPDF server is overloaded - either because a call timed
+     * out, a connection was refused, or the server answered with the HTTP status 503 (Service Unavailable).
+     *
+     * @param failure The failure of a call.
+     * @return True, if the failure indicates an overloaded server.
+     */
+    public static boolean isOverload(@Nullable Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof InterruptedIOException || cause instanceof ConnectException) {
+                return true;
+            }
+            if (getHttpStatus(cause) == HttpStatus.SC_SERVICE_UNAVAILABLE) {
+                return true;
+            }
+            if (cause instanceof ResultException && cause != ((ResultException) cause).getResult().getException()
+                    && isOverload(((ResultException) cause).getResult().getException())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the HTTP status, the given transport failure reports: The status of a failed HTTP request (REST), or of
+     * a failed SOAP call, as reported by the JAX-WS runtime.
+     *
+     * @param failure The failure, that shall be checked. Causes of the failure are not considered.
+     * @return The HTTP status, or -1 if the failure does not report a HTTP status.
+     */
+    static int getHttpStatus(@NotNull Throwable failure) {
+        if (failure instanceof HttpResponseException) {
+            return ((HttpResponseException) failure).getStatusCode();
+        }
+        if (failure instanceof HTTPException) {
+            return ((HTTPException) failure).getStatusCode();
+        }
+        if (failure instanceof WebServiceException) {
+            //THE JAX-WS RUNTIME DOES NOT EXPOSE ITS TRANSPORT EXCEPTION - ITS STATUS IS READ FROM THE LOCALIZED MESSAGE ARGUMENTS.
+            try {
+                Method getKey = failure.getClass().getMethod("getKey");
+                Method getArguments = failure.getClass().getMethod("getArguments");
+                if (JAXWS_HTTP_STATUS_KEY.equals(getKey.invoke(failure))) {
+                    Object[] arguments = (Object[]) getArguments.invoke(failure);
+                    if (arguments != null && arguments.length > 0 && arguments[0] instanceof Integer) {
+                        return (Integer) arguments[0];
+                    }
+                }
+            } catch (ReflectiveOperationException | ClassCastException | SecurityException ignore) {
+                //THE FAILURE DOES NOT REPORT A HTTP STATUS.
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The outcome of a call, as far as it is relevant to the limit of concurrent calls.
+     */
+    public enum Outcome {
+        /**
+         * The call succeeded - its latency shall be considered.
+         */
+        SUCCESS,
+        /**
+         * The call failed, as the server is overloaded - the limit shall be decreased.
+         */
+        OVERLOAD,
+        /**
+         * The call failed for reasons unrelated to the server load - the limit shall not be changed.
+         */
+        IGNORED
+    }
+
+}
@@ -0,0 +1,177 @@
+package net.webpdf.ant.task.session;
+
+import net.webpdf.wsclient.exception.ResultException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Defines whether and when a failed webservice call shall be repeated. Calls failing due to an interrupted
+ * communication with the webPDF server, or due to one of the configured error codes, shall be repeated until the
+ * maximum number of attempts is reached. The delay between attempts grows exponentially and is randomly shortened by
+ * the jitter, so that concurrent calls do not retry in lockstep.
+ */
+public class RetryPolicy {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 1;
+    public static final long DEFAULT_RETRY_DELAY = 1000;
+    public static final long DEFAULT_MAX_RETRY_DELAY = 30000;
+    public static final double DEFAULT_RETRY_JITTER = 0.5;
+
+    private final int maxAttempts;
+    private final long retryDelay;
+    private final long maxRetryDelay;
+    private final double retryJitter;
+    @NotNull
+    private final Set<Integer> retryCodes;
+
+    /**
+     * Creates a retry policy.
+     *
+     * @param maxAttempts   The maximum number of attempts for a single call. A value of 1 disables retries.
+     * @param retryDelay    The delay (in milliseconds) before the first retry.
+     * @param maxRetryDelay The maximum delay (in milliseconds) between two attempts.
+     * @param retryJitter   The fraction (0 to 1) by which a delay may randomly be shortened.
+     * @param retryCodes    The error codes of webservice results, that shall be retried.
+     */
+    public RetryPolicy(int maxAttempts, long retryDelay, long maxRetryDelay, double retryJitter,
+        @NotNull Set<Integer> retryCodes) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryDelay = Math.max(0, retryDelay);
+        this.maxRetryDelay = Math.max(this.retryDelay, maxRetryDelay);
+        this.retryJitter = Math.min(1, Math.max(0, retryJitter));
+        this.retryCodes = Collections.unmodifiableSet(new HashSet<>(retryCodes));
+    }
+
+    /**
+     * Returns the maximum number of attempts for a single call.
+     *
+     * @return The maximum number of attempts.
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Returns the delay (in milliseconds) before the first retry.
+     *
+     * @return The delay before the first retry.
+     */
+    public long getRetryDelay() {
+        return retryDelay;
+    }
+
+    /**
+     * Returns the maximum delay (in milliseconds) between two attempts.
+     *
+     * @return The maximum delay between two attempts.
+     */
+    public long getMaxRetryDelay() {
+        return maxRetryDelay;
+    }
+
+    /**
+     * Returns the fraction (0 to 1) by which a delay may randomly be shortened.
+     *
+     * @return The jitter of the delays.
+     */
+    public double getRetryJitter() {
+        return retryJitter;
+    }
+
+    /**
+     * Returns the error codes of webservice results, that shall be retried.
+     *
+     * @return The error codes, that shall be retried.
+     */
+    @NotNull
+    public Set<Integer> getRetryCodes() {
+        return retryCodes;
+    }
+
+    /**
+     * Returns true, if a call, that failed with the given failure in the given attempt, shall be repeated.
+     *
+     * @param attempt The number of the failed attempt, starting at 1.
+     * @param failure The failure of the attempt.
+     * @return True, if the call shall be repeated.
+     */
+    public boolean shouldRetry(int attempt, @Nullable Throwable failure) {
+        return attempt < maxAttempts && isRetryable(failure);
+    }
+
+    /**
+     * Returns true, if the given failure is transient: The communication with the webPDF server has been interrupted,
+     * or the server reported one of the configured error codes.
+     *
+     * @param failure The failure of a call.
+     * @return True, if the failure is transient.
+     */
+    public boolean isRetryable(@Nullable Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof ResultException) {
+                ResultException resultException = (ResultException) cause;
+                return retryCodes.contains(resultException.getResult().getCode())
+                    || resultException.getResult().getException() instanceof IOException
+                    || resultException.getCause() instanceof IOException;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the delay (in milliseconds), that shall pass after the given failed attempt. The delay doubles with each
+     * attempt, is capped by the maximum delay and is randomly shortened by up to the jitter.
+     *
+     * @param attempt The number of the failed attempt, starting at 1.
+     * @return The delay before the next attempt.
+     */
+    public long getDelay(int attempt) {
+        int exponent = Math.min(Math.max(0, attempt - 1), 30);
+        long delay = Math.min(maxRetryDelay, retryDelay * (1L << exponent));
+        return delay - (long) (delay * retryJitter * ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * Waits for the delay, that shall pass after the given failed attempt.
+     *
+     * @param attempt The number of the failed attempt, starting at 1.
+     * @throws InterruptedException Shall be thrown, if the calling thread has been interrupted while waiting.
+     */
+    public void await(int attempt) throws InterruptedException {
+        long delay = getDelay(attempt);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * Parses a comma separated list of error codes.
+     *
+     * @param retryCodes The comma separated error codes.
+     * @return The parsed error codes.
+     * @throws NumberFormatException Shall be thrown, if one of the error codes is not a number.
+     */
+    @NotNull
+    public static Set<Integer> parseRetryCodes(@Nullable String retryCodes) throws NumberFormatException {
+        Set<Integer> codes = new HashSet<>();
+        if (retryCodes == null) {
+            return codes;
+        }
+        for (String code : retryCodes.split(",")) {
+            if (!code.trim().isEmpty()) {
+                codes.add(Integer.parseInt(code.trim()));
+            }
+        }
+        return codes;
+    }
+
+}
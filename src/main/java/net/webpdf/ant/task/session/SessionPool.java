@@ -0,0 +1,315 @@
+package net.webpdf.ant.task.session;
+
+import net.webpdf.wsclient.WebServiceProtocol;
+import net.webpdf.wsclient.session.RestSession;
+import net.webpdf.wsclient.session.Session;
+import net.webpdf.wsclient.session.SessionFactory;
+import org.apache.http.auth.Credentials;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This pool manages the webservice sessions of a webPDF task. Instead of opening a fresh session (and connection) for
+ * each webservice call, operations shall borrow a session from this pool and shall return it afterwards, so that it
+ * may be reused by following operations.
+ */
+public class SessionPool implements AutoCloseable {
+
+    @NotNull
+    private final URL serverURL;
+    @Nullable
+    private final Credentials credentials;
+    @NotNull
+    private final WebServiceProtocol protocol;
+    private final int maxSessions;
+    private final long idleTimeout;
+
+    @NotNull
+    private final ReentrantLock lock = new ReentrantLock();
+    @NotNull
+    private final Condition sessionReleased = lock.newCondition();
+    @NotNull
+    private final Deque<IdleSession> idleSessions = new ArrayDeque<>();
+
+    private int openSessions = 0;
+    private boolean closed = false;
+
+    /**
+     * Creates a pool for SOAP sessions connecting to the given webPDF server.
+     *
+     * @param serverURL   The URL of the webPDF server.
+     * @param credentials The credentials, that shall be used to authenticate at the webPDF server.
+     * @param maxSessions The maximum number of sessions, that may be open at the same time.
+     * @param idleTimeout The time (in milliseconds) an unused session shall be kept open.
+     */
+    public SessionPool(@NotNull URL serverURL, @Nullable Credentials credentials, int maxSessions, long idleTimeout) {
+        this(serverURL, credentials, WebServiceProtocol.SOAP, maxSessions, idleTimeout);
+    }
+
+    /**
+     * Creates a pool for sessions connecting to the given webPDF server using the given protocol.
+     *
+     * @param serverURL   The URL of the webPDF server.
+     * @param credentials The credentials, that shall be used to authenticate at the webPDF server.
+     * @param protocol    The protocol the sessions shall use.
+     * @param maxSessions The maximum number of sessions, that may be open at the same time.
+     * @param idleTimeout The time (in milliseconds) an unused session shall be kept open.
+     */
+    public SessionPool(@NotNull URL serverURL, @Nullable Credentials credentials, @NotNull WebServiceProtocol protocol,
+        int maxSessions, long idleTimeout) {
+        this.serverURL = serverURL;
+        this.credentials = credentials;
+        this.protocol = protocol;
+        this.maxSessions = Math.max(1, maxSessions);
+        this.idleTimeout = Math.max(0, idleTimeout);
+    }
+
+    /**
+     * Borrows a session from this pool. An idle session shall be reused if possible, a new session shall be opened
+     * otherwise. If the maximum number of sessions is in use, the calling thread shall wait for a session to be
+     * released. A borrowed session must always be returned to the pool by calling {@link #release(Session, boolean)}.
+     * A new REST session shall be logged in at the webPDF server, before it is borrowed.
+     *
+     * @return A session connected to the webPDF server.
+     * @throws IOException          Shall be thrown, if a new session could not be opened or logged in.
+     * @throws InterruptedException Shall be thrown, if the calling thread has been interrupted while waiting.
+     */
+    @NotNull
+    public Session borrow() throws IOException, InterruptedException {
+        return borrow(1).get(0);
+    }
+
+    /**
+     * Borrows the given number of sessions from this pool at once. The calling thread shall wait, until all sessions
+     * are available, without holding any of them in the meantime - concurrent callers waiting for several sessions
+     * therefore can not block each other. All borrowed sessions must be returned to the pool by calling
+     * {@link #release(Session, boolean)}.
+     *
+     * @param count The number of sessions, that shall be borrowed.
+     * @return The borrowed sessions connected to the webPDF server.
+     * @throws IOException          Shall be thrown, if the pool can not provide the given number of sessions, or if a
+     *                              new session could not be opened.
+     * @throws InterruptedException Shall be thrown, if the calling thread has been interrupted while waiting.
+     */
+    @NotNull
+    public List<Session> borrow(int count) throws IOException, InterruptedException {
+        if (count < 1 || count > maxSessions) {
+            throw new IOException(String.format(
+                "%d sessions have been requested, but the session pool is limited to %d sessions.", count, maxSessions));
+        }
+        List<Session> sessions = new ArrayList<>(count);
+        int created;
+        lock.lockInterruptibly();
+        try {
+            while (true) {
+                if (closed) {
+                    throw new IOException("The session pool has already been closed.");
+                }
+                evictIdleSessions();
+                if (idleSessions.size() + maxSessions - openSessions >= count) {
+                    while (sessions.size() < count && !idleSessions.isEmpty()) {
+                        sessions.add(idleSessions.pollFirst().session);
+                    }
+                    created = count - sessions.size();
+                    openSessions += created;
+                    break;
+                }
+                sessionReleased.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (int index = 0; index < created; index++) {
+            try {
+                sessions.add(openSession());
+            } catch (IOException | RuntimeException ex) {
+                for (int remaining = index; remaining < created; remaining++) {
+                    discard();
+                }
+                for (Session session : sessions) {
+                    release(session, true);
+                }
+                throw ex;
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * Returns a borrowed session to this pool. Sessions, that may have been corrupted by a failed call, shall not be
+     * reused and shall be closed instead.
+     *
+     * @param session  The session, that shall be returned.
+     * @param reusable True, if the session may be reused by following operations.
+     */
+    public void release(@Nullable Session session, boolean reusable) {
+        if (session == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (reusable && !closed) {
+                idleSessions.addFirst(new IdleSession(session));
+                sessionReleased.signalAll();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        closeQuietly(session);
+        discard();
+    }
+
+    /**
+     * Closes all idle sessions of this pool. Sessions, that are currently borrowed, shall be closed, as soon as they
+     * are returned.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            for (IdleSession idleSession : idleSessions) {
+                closeQuietly(idleSession.session);
+                openSessions--;
+            }
+            idleSessions.clear();
+            sessionReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the protocol the sessions of this pool are using.
+     *
+     * @return The protocol of the sessions.
+     */
+    @NotNull
+    public WebServiceProtocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * Returns the maximum number of sessions, that may be opened by this pool at the same time.
+     *
+     * @return The maximum number of sessions.
+     */
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    /**
+     * Returns the number of sessions currently opened by this pool.
+     *
+     * @return The number of open sessions.
+     */
+    public int getOpenSessions() {
+        lock.lock();
+        try {
+            return openSessions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes all sessions, that have not been used for longer than the idle timeout. The lock must be held by the
+     * calling thread.
+     */
+    private void evictIdleSessions() {
+        long now = System.nanoTime();
+        Iterator<IdleSession> iterator = idleSessions.iterator();
+        while (iterator.hasNext()) {
+            IdleSession idleSession = iterator.next();
+            if (now - idleSession.idleSince > TimeUnit.MILLISECONDS.toNanos(idleTimeout)) {
+                iterator.remove();
+                closeQuietly(idleSession.session);
+                openSessions--;
+            }
+        }
+    }
+
+    /**
+     * Releases the slot of a session, that has been closed or could not be opened.
+     */
+    private void discard() {
+        lock.lock();
+        try {
+            openSessions--;
+            sessionReleased.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens a new session connected to the webPDF server. A REST session shall be logged in, as the document storage
+     * and the webservices of the server may only be accessed by an authenticated session.
+     *
+     * @return The opened session.
+     * @throws IOException Shall be thrown, if the session could not be opened or logged in.
+     */
+    @NotNull
+    private Session openSession() throws IOException {
+        Session session = SessionFactory.createInstance(protocol, serverURL);
+        try {
+            if (credentials != null) {
+                session.setCredentials(credentials);
+            }
+            if (session instanceof RestSession) {
+                ((RestSession) session).login();
+            }
+        } catch (IOException | RuntimeException ex) {
+            closeQuietly(session);
+            throw ex;
+        }
+        return session;
+    }
+
+    /**
+     * Attempts to close the given session, ignoring all failures.
+     *
+     * @param session The session, that shall be closed.
+     */
+    private static void closeQuietly(@NotNull Session session) {
+        try {
+            session.close();
+        } catch (Exception ignore) {
+            //A FAILURE TO CLOSE AN UNUSED SESSION IS IRRELEVANT.
+        }
+    }
+
+    /**
+     * An unused session and the time it has been returned to the pool.
+     */
+    private static class IdleSession {
+
+        @NotNull
+        private final Session session;
+        private final long idleSince = System.nanoTime();
+
+        /**
+         * Marks the given session as idle.
+         *
+         * @param session The session, that has been returned to the pool.
+         */
+        private IdleSession(@NotNull Session session) {
+            this.session = session;
+        }
+
+    }
+
+}
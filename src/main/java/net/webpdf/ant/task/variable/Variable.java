@@ -4,8 +4,11 @@ import net.webpdf.ant.task.AntAccess;
 import net.webpdf.ant.task.Task;
 import net.webpdf.ant.task.TaskName;
 import org.apache.tools.ant.BuildException;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Map;
+
 /**
  * Manages a task storing a variable property. This solution is entirely base on Ant-contrib Variable and an instance
  * of this class is just a wrapper providing some convenience methods.
@@ -117,4 +120,24 @@ public class Variable extends Task {
         return role;
     }
 
+    /**
+     * Replaces all references (${name}) to the given variables with their respective values. References to unknown
+     * variables shall remain untouched.
+     *
+     * @param value     The value containing variable references.
+     * @param variables The variable names mapped to their current values.
+     * @return The value, with all known variable references being replaced.
+     */
+    @Nullable
+    public static String replaceReferences(@Nullable String value, @NotNull Map<String, String> variables) {
+        if (value == null || variables.isEmpty() || !value.contains("${")) {
+            return value;
+        }
+        String result = value;
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            result = result.replace("${" + variable.getKey() + "}", variable.getValue());
+        }
+        return result;
+    }
+
 }
@@ -37,7 +37,7 @@ public class VariableMap {
      * @return The variable, that serves the given purpose, or null, if such a variable can not be found.
      */
     @Nullable
-    public Variable getVar(@Nullable VariableRole role) {
+    public synchronized Variable getVar(@Nullable VariableRole role) {
         if (role == null) {
             return null;
         }
@@ -50,7 +50,7 @@ public class VariableMap {
      *
      * @param variable The variable, that shall be added to the task container.
      */
-    public void add(@NotNull Variable variable) {
+    public synchronized void add(@NotNull Variable variable) {
         unprocessedVariables.add(variable);
     }
 
@@ -77,7 +77,7 @@ public class VariableMap {
      * @param role The role, that shall be checked.
      * @return Returns true if a variable has been assigned to the given role.
      */
-    public boolean isRoleTaken(@Nullable VariableRole role) {
+    public synchronized boolean isRoleTaken(@Nullable VariableRole role) {
         processVariables();
         return variables.containsKey(role);
     }
@@ -0,0 +1,65 @@
+package net.webpdf.ant.task.xml;
+
+import org.apache.tools.ant.Project;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.xml.bind.JAXBException;
+import java.util.Map;
+
+/**
+ * A compiled operation definition. The XML structure of an operation is analyzed once - operations, that do not
+ * reference any properties or variables, are marshalled only once and their configuration is reused for all following
+ * webservice calls. For all other operations only the attributes containing references are resolved again.
+ */
+public class OperationTemplate {
+
+    @NotNull
+    private final XMLElement xmlElement;
+    private final boolean dynamic;
+    @Nullable
+    private volatile byte[] staticConfiguration = null;
+
+    /**
+     * Compiles the given operation definition.
+     *
+     * @param xmlElement The XML structure of the operation.
+     */
+    public OperationTemplate(@NotNull XMLElement xmlElement) {
+        this.xmlElement = xmlElement;
+        this.dynamic = xmlElement.hasReferences();
+    }
+
+    /**
+     * Returns true, if the operation contains references, that must be resolved for each webservice call.
+     *
+     * @return True, if the operation contains references.
+     */
+    public boolean isDynamic() {
+        return dynamic;
+    }
+
+    /**
+     * Returns the UTF-8 encoded XML configuration of the operation. References to the given variables shall be
+     * resolved using the given values, before the project's properties are consulted. This method may be called
+     * concurrently, the compiled operation definition itself is never altered.
+     *
+     * @param project   The project, that shall be used to resolve property references.
+     * @param variables Variable values, that shall be preferred over the project's properties.
+     * @return The UTF-8 encoded XML configuration of the operation.
+     * @throws JAXBException Shall be thrown if an error occurred during JAXB marshalling.
+     */
+    @NotNull
+    public byte[] render(@Nullable Project project, @NotNull Map<String, String> variables) throws JAXBException {
+        if (dynamic) {
+            return xmlElement.resolveReferences(project, variables).marshal();
+        }
+        byte[] configuration = staticConfiguration;
+        if (configuration == null) {
+            configuration = xmlElement.marshal();
+            staticConfiguration = configuration;
+        }
+        return configuration;
+    }
+
+}
@@ -70,4 +70,14 @@ public class XMLAttribute {
         this.value = value;
     }
 
+    /**
+     * Returns true, if the original value of this attribute contains references, that must be resolved, before the
+     * attribute can be used.
+     *
+     * @return True, if the original value contains references.
+     */
+    boolean hasReferences() {
+        return originalValue.contains("$");
+    }
+
 }
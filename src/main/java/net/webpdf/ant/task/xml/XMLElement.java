@@ -1,5 +1,6 @@
 package net.webpdf.ant.task.xml;
 
+import net.webpdf.ant.task.variable.Variable;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.UnknownElement;
@@ -9,8 +10,11 @@ import org.jetbrains.annotations.Nullable;
 import javax.xml.bind.*;
 import javax.xml.bind.annotation.*;
 import javax.xml.namespace.QName;
+import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import static net.webpdf.ant.task.xml.XMLElement.OPERATION_NAMESPACE;
 
@@ -21,6 +25,27 @@ import static net.webpdf.ant.task.xml.XMLElement.OPERATION_NAMESPACE;
 public class XMLElement {
 
     static final String OPERATION_NAMESPACE = "http://schema.webpdf.de/1.0/operation";
+    /**
+     * The sub elements of an operation, that are not representing toolbox actions. (Either other webservices, or
+     * settings of the whole operation.)
+     */
+    private static final Set<String> NON_TOOLBOX_ELEMENTS = new HashSet<>(Arrays.asList(
+        "converter", "ocr", "pdfa", "signature", "barcode", "urlconverter", "billing", "password", "settings"
+    ));
+    /**
+     * The sub elements of an operation, that are defining settings of the whole operation.
+     */
+    private static final Set<String> GENERAL_ELEMENTS = new HashSet<>(Arrays.asList("billing", "password", "settings"));
+
+    /**
+     * The maximum number of idle marshallers kept for reuse.
+     */
+    private static final int MAX_IDLE_MARSHALLERS = 16;
+
+    @NotNull
+    private static final BlockingQueue<Marshaller> MARSHALLERS = new ArrayBlockingQueue<>(MAX_IDLE_MARSHALLERS);
+    @Nullable
+    private static JAXBContext jaxbContext = null;
 
     @NotNull
     private String xmlTag = "";
@@ -101,15 +126,18 @@ public class XMLElement {
     /**
      * Extracts all known attributes from the given tag and therefore initializes the state of this node.
      *
+     * @param project   The project, that shall be used to resolve property references.
+     * @param variables Variable values, that shall be preferred over the project's properties.
      * @throws BuildException shall be thrown if the projects properties could not be read.
      */
-    private void initializeAttributes(@Nullable Project project) throws BuildException {
+    private void initializeAttributes(@Nullable Project project, @NotNull Map<String, String> variables) throws BuildException {
         if (project != null) {
             for (XMLAttribute attribute : attributes) {
-                attribute.setValue(project.replaceProperties(attribute.getOriginalValue()));
+                attribute.setValue(project.replaceProperties(
+                    Variable.replaceReferences(attribute.getOriginalValue(), variables)));
             }
             for (XMLElement element : children) {
-                element.initializeAttributes(project);
+                element.initializeAttributes(project, variables);
             }
         }
     }
@@ -117,24 +145,236 @@ public class XMLElement {
     /**
      * Uses JAXB to marshall this node and it's children to XML.
      *
+     * @param project The project, that shall be used to resolve property references.
      * @return A container collecting the operation and options defined by this node.
      * @throws JAXBException Shall be thrown if an error occurred during JAXB marshalling/unmarshalling.
      */
     @NotNull
     public String prepareConfiguration(@Nullable Project project) throws JAXBException {
-        initializeAttributes(project);
+        return prepareConfiguration(project, Collections.<String, String>emptyMap());
+    }
+
+    /**
+     * Uses JAXB to marshall this node and it's children to XML. References to the given variables shall be resolved
+     * using the given values, before the project's properties are consulted.
+     * <p>
+     * As the attributes of this node are altered during the preparation, concurrent calls are serialized.
+     *
+     * @param project   The project, that shall be used to resolve property references.
+     * @param variables Variable values, that shall be preferred over the project's properties.
+     * @return A container collecting the operation and options defined by this node.
+     * @throws JAXBException Shall be thrown if an error occurred during JAXB marshalling/unmarshalling.
+     */
+    @NotNull
+    public synchronized String prepareConfiguration(@Nullable Project project, @NotNull Map<String, String> variables)
+        throws JAXBException {
+        initializeAttributes(project, variables);
         StringWriter writer = new StringWriter();
 
         //MARSHAL GENERIC OBJECT TO XML
-        Marshaller marshaller = JAXBContext.newInstance(XMLElement.class).createMarshaller();
-        marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-        marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
-        marshaller.marshal(
-            new JAXBElement<>(new QName(OPERATION_NAMESPACE, xmlTag, "ns3"), XMLElement.class, this), writer);
+        Marshaller marshaller = acquireMarshaller();
+        try {
+            marshaller.marshal(
+                new JAXBElement<>(new QName(OPERATION_NAMESPACE, xmlTag, "ns3"), XMLElement.class, this), writer);
+        } finally {
+            releaseMarshaller(marshaller);
+        }
 
         return writer.toString();
     }
 
+    /**
+     * Returns true, if any attribute of this node or of it's children contains references, that must be resolved,
+     * before the node can be marshalled.
+     *
+     * @return True, if this node or any of it's children contains references.
+     */
+    boolean hasReferences() {
+        for (XMLAttribute attribute : attributes) {
+            if (attribute.hasReferences()) {
+                return true;
+            }
+        }
+        for (XMLElement element : children) {
+            if (element.hasReferences()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true, if any attribute of this node or of it's children references the variable of the given name
+     * (${name}).
+     *
+     * @param name The name of the variable.
+     * @return True, if this node or any of it's children references the variable.
+     */
+    public boolean referencesVariable(@NotNull String name) {
+        String reference = "${" + name + "}";
+        for (XMLAttribute attribute : attributes) {
+            if (attribute.getOriginalValue().contains(reference)) {
+                return true;
+            }
+        }
+        for (XMLElement element : children) {
+            if (element.referencesVariable(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates a copy of this node, resolving all attributes containing references. In contrast to
+     * {@link #prepareConfiguration(Project, Map)} this node itself shall not be altered - attributes and sub trees
+     * without references are shared with the copy.
+     *
+     * @param project   The project, that shall be used to resolve property references.
+     * @param variables Variable values, that shall be preferred over the project's properties.
+     * @return A copy of this node, containing resolved attribute values.
+     */
+    @NotNull
+    XMLElement resolveReferences(@Nullable Project project, @NotNull Map<String, String> variables) {
+        XMLElement resolved = new XMLElement();
+        resolved.xmlTag = xmlTag;
+        for (XMLAttribute attribute : attributes) {
+            if (project != null && attribute.hasReferences()) {
+                XMLAttribute resolvedAttribute = new XMLAttribute(attribute.getKey(), attribute.getOriginalValue());
+                resolvedAttribute.setValue(project.replaceProperties(
+                    Variable.replaceReferences(attribute.getOriginalValue(), variables)));
+                resolved.attributes.add(resolvedAttribute);
+            } else {
+                resolved.attributes.add(attribute);
+            }
+        }
+        for (XMLElement element : children) {
+            resolved.children.add(element.hasReferences() ? element.resolveReferences(project, variables) : element);
+        }
+        return resolved;
+    }
+
+    /**
+     * Uses JAXB to marshall this node and it's children to UTF-8 encoded XML, without resolving any references.
+     *
+     * @return The UTF-8 encoded XML representation of this node.
+     * @throws JAXBException Shall be thrown if an error occurred during JAXB marshalling.
+     */
+    @NotNull
+    byte[] marshal() throws JAXBException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Marshaller marshaller = acquireMarshaller();
+        try {
+            marshaller.marshal(
+                new JAXBElement<>(new QName(OPERATION_NAMESPACE, xmlTag, "ns3"), XMLElement.class, this), outputStream);
+        } finally {
+            releaseMarshaller(marshaller);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Returns the JAXB context for this class. The context is expensive to create, thread safe and shall therefore
+     * only be created once.
+     *
+     * @return The JAXB context for this class.
+     * @throws JAXBException Shall be thrown if the JAXB context could not be created.
+     */
+    @NotNull
+    private static synchronized JAXBContext getJAXBContext() throws JAXBException {
+        if (jaxbContext == null) {
+            jaxbContext = JAXBContext.newInstance(XMLElement.class);
+        }
+        return jaxbContext;
+    }
+
+    /**
+     * Takes an idle marshaller from the pool, or creates a new one, if none is idle. Marshallers are not thread safe -
+     * the marshaller is exclusively used by the calling thread, until it is returned by
+     * {@link #releaseMarshaller(Marshaller)}. In contrast to a marshaller per thread, pooled marshallers are also
+     * reused by short lived (virtual) threads.
+     *
+     * @return A marshaller, that may be used by the calling thread.
+     * @throws JAXBException Shall be thrown if the marshaller could not be created.
+     */
+    @NotNull
+    private static Marshaller acquireMarshaller() throws JAXBException {
+        Marshaller marshaller = MARSHALLERS.poll();
+        if (marshaller == null) {
+            marshaller = getJAXBContext().createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+        }
+        return marshaller;
+    }
+
+    /**
+     * Returns a marshaller taken by {@link #acquireMarshaller()} to the pool. If the pool already contains the maximum
+     * number of idle marshallers, the marshaller is discarded.
+     *
+     * @param marshaller The marshaller, that is no longer used by the calling thread.
+     */
+    private static void releaseMarshaller(@NotNull Marshaller marshaller) {
+        MARSHALLERS.offer(marshaller);
+    }
+
+    /**
+     * Returns true, if this node is an operation, that solely consists of toolbox actions. Such operations may be
+     * combined to one call of the toolbox webservice.
+     *
+     * @return True, if this node is an operation solely consisting of toolbox actions.
+     */
+    public boolean isToolboxOperation() {
+        if (!attributes.isEmpty() || children.isEmpty()) {
+            return false;
+        }
+        for (XMLElement element : children) {
+            if (NON_TOOLBOX_ELEMENTS.contains(element.xmlTag.toLowerCase(Locale.ENGLISH))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the name of the webservice, that is called by this operation - for example "converter" or "toolbox".
+     *
+     * @return The name of the called webservice, or "unknown" if this node does not define a webservice call.
+     */
+    @NotNull
+    public String getOperationType() {
+        boolean toolbox = false;
+        for (XMLElement element : children) {
+            String tag = element.xmlTag.toLowerCase(Locale.ENGLISH);
+            if (!NON_TOOLBOX_ELEMENTS.contains(tag)) {
+                toolbox = true;
+            } else if (!GENERAL_ELEMENTS.contains(tag)) {
+                return tag;
+            }
+        }
+        return toolbox ? "toolbox" : "unknown";
+    }
+
+    /**
+     * Combines the given toolbox operations to one operation, containing all toolbox actions in the given order.
+     *
+     * @param operations The toolbox operations, that shall be combined.
+     * @return An operation containing all toolbox actions of the given operations.
+     * @throws BuildException Shall be thrown if any of the given nodes is not a toolbox operation.
+     */
+    @NotNull
+    public static XMLElement mergeToolboxOperations(@NotNull List<XMLElement> operations) throws BuildException {
+        XMLElement merged = new XMLElement();
+        for (XMLElement operation : operations) {
+            if (!operation.isToolboxOperation()) {
+                throw new BuildException("Only toolbox operations may be combined: " + operation.xmlTag);
+            }
+            merged.xmlTag = operation.xmlTag;
+            merged.children.addAll(operation.children);
+        }
+        return merged;
+    }
+
     /**
      * This static access method allows to parse an unknown ANT element to an executable OperationTask, that is
      * representing a call to a webPDF webservice. (a specific operation)
@@ -0,0 +1,149 @@
+package net.webpdf.ant;
+
+import net.webpdf.ant.task.TaskConfiguration;
+import net.webpdf.ant.task.files.IterativeTaskFile;
+import net.webpdf.ant.task.files.TempDir;
+import net.webpdf.wsclient.documents.RestDocument;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GroupTaskTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private TempDir tempDir;
+    private GroupTask groupTask;
+    private IterativeTaskFile files;
+    private List<OperationTask> operations;
+    private List<byte[]> configurations;
+
+    @Before
+    public void prepare() throws Exception {
+        tempDir = new TempDir();
+        Project project = new Project();
+        groupTask = new GroupTask();
+        groupTask.setProject(project);
+        groupTask.setTaskConfiguration(new TaskConfiguration());
+        File source = temporaryFolder.newFile("source.pdf");
+        Files.write(source.toPath(), "source".getBytes(StandardCharsets.UTF_8));
+        files = new IterativeTaskFile(source, "target.pdf", tempDir);
+        operations = Arrays.asList(new OperationTask(null, project), new OperationTask(null, project));
+        configurations = Arrays.asList(new byte[0], new byte[0]);
+    }
+
+    @After
+    public void cleanup() {
+        tempDir.cleanTemp();
+    }
+
+    @Test
+    public void testProcessStoredDocument() throws Exception {
+        RecordingStorage storage = new RecordingStorage(-1, false);
+        groupTask.processStoredDocument(storage, operations, configurations, files);
+        assertEquals("The source should have been uploaded, processed by all operations, downloaded and deleted.",
+            Arrays.asList("upload", "process:document-0", "process:document-1", "download:document-2",
+                "delete:document-0", "delete:document-1", "delete:document-2"),
+            storage.calls);
+        assertEquals("The downloaded result should have been written to the target.", "document-2",
+            new String(Files.readAllBytes(files.getCurrentTarget().toPath()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDeleteStoredDocumentsOnRejection() throws Exception {
+        RecordingStorage storage = new RecordingStorage(1, false);
+        try {
+            groupTask.processStoredDocument(storage, operations, configurations, files);
+            fail("The rejected operation should have failed the sequence.");
+        } catch (BuildException ignore) {
+        }
+        assertEquals("All stored documents should have been deleted, after an operation has been rejected.",
+            Arrays.asList("upload", "process:document-0", "process:document-1", "delete:document-0",
+                "delete:document-1"),
+            storage.calls);
+    }
+
+    @Test
+    public void testKeepStoredDocumentsOnTransportFailure() throws Exception {
+        RecordingStorage storage = new RecordingStorage(-1, true);
+        try {
+            groupTask.processStoredDocument(storage, operations, configurations, files);
+            fail("The failed download should have failed the sequence.");
+        } catch (IOException ignore) {
+        }
+        assertEquals("No deletion should have been attempted via the failed session.",
+            Arrays.asList("upload", "process:document-0", "process:document-1", "download:document-2"),
+            storage.calls);
+    }
+
+    /**
+     * A document storage recording all calls, that numbers the stored documents in the order they are stored.
+     */
+    private static class RecordingStorage implements GroupTask.DocumentStorage {
+
+        private final List<String> calls = new ArrayList<>();
+        private final int rejectedOperation;
+        private final boolean failDownload;
+        private int storedDocuments = 0;
+
+        private RecordingStorage(int rejectedOperation, boolean failDownload) {
+            this.rejectedOperation = rejectedOperation;
+            this.failDownload = failDownload;
+        }
+
+        @NotNull
+        @Override
+        public RestDocument upload(@NotNull File source) {
+            calls.add("upload");
+            return store();
+        }
+
+        @NotNull
+        @Override
+        public RestDocument process(@NotNull OperationTask operation, @NotNull byte[] configuration,
+            @NotNull RestDocument document) throws BuildException {
+            calls.add("process:" + document.getSourceDocumentId());
+            if (storedDocuments - 1 == rejectedOperation) {
+                throw new BuildException("The document is invalid.");
+            }
+            return store();
+        }
+
+        @Override
+        public void download(@NotNull RestDocument document, @NotNull OutputStream target) throws IOException {
+            calls.add("download:" + document.getSourceDocumentId());
+            if (failDownload) {
+                throw new IOException("The connection has been reset.");
+            }
+            target.write(document.getSourceDocumentId().getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void delete(@NotNull String documentId) {
+            calls.add("delete:" + documentId);
+        }
+
+        private RestDocument store() {
+            return new RestDocument("document-" + storedDocuments++);
+        }
+
+    }
+
+}
@@ -0,0 +1,68 @@
+package net.webpdf.ant;
+
+import net.webpdf.ant.task.TaskConfiguration;
+import net.webpdf.ant.task.files.IterativeTaskFile;
+import net.webpdf.ant.task.files.TempDir;
+import net.webpdf.ant.task.logging.LogTag;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class OperationTaskTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private TempDir tempDir;
+    private OperationTask operationTask;
+    private IterativeTaskFile files;
+
+    @Before
+    public void prepare() throws Exception {
+        tempDir = new TempDir();
+        operationTask = new OperationTask(null, new Project());
+        operationTask.setTaskConfiguration(new TaskConfiguration());
+        File source = temporaryFolder.newFile("source.pdf");
+        Files.write(source.toPath(), "source".getBytes(StandardCharsets.UTF_8));
+        files = new IterativeTaskFile(source, "target.pdf", tempDir);
+    }
+
+    @After
+    public void cleanup() {
+        operationTask.getTaskConfiguration().closeLoadBalancer();
+        tempDir.cleanTemp();
+    }
+
+    @Test
+    public void testDropTargetOnUnexpectedFailure() throws Exception {
+        IllegalStateException failure = new IllegalStateException("The client is in an invalid state.");
+        try {
+            OperationTask.executeWithRetry(operationTask, operationTask.getTaskConfiguration().getRetryPolicy(), files,
+                LogTag.OPERATION, null, endpoint -> {
+                    try (OutputStream target = files.openCurrentTarget()) {
+                        target.write("partial".getBytes(StandardCharsets.UTF_8));
+                    } catch (IOException ex) {
+                        throw new BuildException(ex.getMessage(), ex);
+                    }
+                    throw failure;
+                });
+            fail("The failed call should have failed the operation.");
+        } catch (BuildException ex) {
+            assertSame("The unexpected failure should have been wrapped.", failure, ex.getCause());
+        }
+        assertTrue("The source file should have been marked as failed.", files.hasFailed());
+    }
+
+}
@@ -7,7 +7,8 @@ public enum TestArgument {
     SERVER_IP("serverip"),
     PORT("port"),
     SSL_PORT("sslport"),
-    PATH("path");
+    PATH("path"),
+    STUB("stub");
 
     private final String key;
 
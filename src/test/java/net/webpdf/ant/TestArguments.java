@@ -1,10 +1,14 @@
 package net.webpdf.ant;
 
+import net.webpdf.ant.stub.StubWebPDFServer;
+
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 
 class TestArguments {
     private static final String WEBPDF_FALLBACK = "http://localhost:8080/webPDF/";
+    private static StubWebPDFServer stubServer;
 
     private String protocol = getArgument(TestArgument.PROTOCOL);
     private String username = getArgument(TestArgument.USERNAME);
@@ -15,12 +19,26 @@ class TestArguments {
     private String path = getArgument(TestArgument.PATH);
 
     URL buildServerUrl() throws MalformedURLException {
+        if (Boolean.parseBoolean(getArgument(TestArgument.STUB))) {
+            return getStubServer().getURL();
+        }
         if (protocol == null || username == null || password == null || ip == null || port == null || path == null || sslPort == null) {
             return new URL(WEBPDF_FALLBACK);
         }
         return new URL(protocol + "://" + "" + ip + ":" + port + "/" + path);
     }
 
+    private static synchronized StubWebPDFServer getStubServer() {
+        if (stubServer == null) {
+            try {
+                stubServer = new StubWebPDFServer().start();
+            } catch (IOException ex) {
+                throw new IllegalStateException("The stub server could not be started.", ex);
+            }
+        }
+        return stubServer;
+    }
+
     private static String getArgument(TestArgument argument) {
         return System.getProperty(argument.getKey());
     }
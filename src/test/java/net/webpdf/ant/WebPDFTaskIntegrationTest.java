@@ -6,6 +6,7 @@ import net.webpdf.ant.task.credentials.UserCredentials;
 import net.webpdf.ant.task.variable.Variable;
 import net.webpdf.ant.task.variable.VariableRole;
 import net.webpdf.ant.task.xml.XMLElement;
+import org.apache.commons.io.FileUtils;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.RuntimeConfigurable;
@@ -298,6 +299,90 @@ public class WebPDFTaskIntegrationTest {
         Assert.assertTrue("Output file should have been created.", new File(outputValue).exists());
     }
 
+    @Test
+    public void testParallelism() throws Exception {
+        setup(testResources.getArguments().buildServerUrl().toString(), null);
+        File targetDir = temporaryFolder.newFolder();
+        webPDFTask.setTargetDir(targetDir);
+        webPDFTask.setParallelism("2");
+        File testFile = testResources.getResource("test.pdf");
+        File testFile2 = new File(temporaryFolder.newFolder(), "test2.pdf");
+        FileUtils.copyFile(testFile, testFile2);
+        webPDFTask.add(new FileResource(testFile));
+        webPDFTask.add(new FileResource(testFile2));
+
+        UnknownElement operation = new UnknownElement("operation");
+        UnknownElement converter = new UnknownElement("converter");
+        operation.addChild(converter);
+
+        RuntimeConfigurable runtimeConfigurable = new RuntimeConfigurable(converter, "converter");
+        converter.setRuntimeConfigurableWrapper(runtimeConfigurable);
+        groupTask.add(operation);
+        webPDFTask.execute();
+
+        Variable output = webPDFTask.getVariables().getVar(VariableRole.OUTPUT);
+        assertNotNull(output);
+        String outputValue = output.getValue();
+        assertNotNull(outputValue);
+        Assert.assertTrue("Output file should have been created.", new File(outputValue).exists());
+    }
+
+    @Test
+    public void testStaged() throws Exception {
+        setup(testResources.getArguments().buildServerUrl().toString(), null);
+        File targetDir = temporaryFolder.newFolder();
+        webPDFTask.setTargetDir(targetDir);
+        webPDFTask.setStaged(true);
+        File testFile = testResources.getResource("test.pdf");
+        File testFile2 = new File(temporaryFolder.newFolder(), "test2.pdf");
+        FileUtils.copyFile(testFile, testFile2);
+        webPDFTask.add(new FileResource(testFile));
+        webPDFTask.add(new FileResource(testFile2));
+
+        UnknownElement operation = new UnknownElement("operation");
+        UnknownElement converter = new UnknownElement("converter");
+        operation.addChild(converter);
+        RuntimeConfigurable runtimeConfigurable = new RuntimeConfigurable(converter, "converter");
+        converter.setRuntimeConfigurableWrapper(runtimeConfigurable);
+        groupTask.add(operation);
+        webPDFTask.execute();
+
+        Assert.assertTrue("The first target file should have been created.", new File(targetDir, "test.pdf").exists());
+        Assert.assertTrue("The second target file should have been created.", new File(targetDir, "test2.pdf").exists());
+    }
+
+    @Test
+    public void testPipelinedGroup() throws Exception {
+        setup(testResources.getArguments().buildServerUrl().toString(), null);
+        File targetDir = temporaryFolder.newFolder();
+        webPDFTask.setTargetDir(targetDir);
+        webPDFTask.add(new FileResource(testResources.getResource("test.pdf")));
+        groupTask.setPipelined(true);
+
+        for (int index = 0; index < 2; index++) {
+            UnknownElement operation = new UnknownElement("operation");
+            UnknownElement converter = new UnknownElement("converter");
+            operation.addChild(converter);
+            RuntimeConfigurable runtimeConfigurable = new RuntimeConfigurable(converter, "converter");
+            converter.setRuntimeConfigurableWrapper(runtimeConfigurable);
+            groupTask.add(operation);
+        }
+        webPDFTask.execute();
+
+        Variable output = webPDFTask.getVariables().getVar(VariableRole.OUTPUT);
+        assertNotNull(output);
+        String outputValue = output.getValue();
+        assertNotNull(outputValue);
+        Assert.assertTrue("Output file should have been created.", new File(outputValue).exists());
+    }
+
+    @Test(expected = BuildException.class)
+    public void testInvalidParallelism() throws Exception {
+        setup(testResources.getArguments().buildServerUrl().toString(),
+            new File(temporaryFolder.getRoot(), "value.txt"));
+        webPDFTask.setParallelism("none");
+    }
+
     @Test(expected = BuildException.class)
     public void testInvalidTargetDir() throws Exception {
         setup(testResources.getArguments().buildServerUrl().toString(),
@@ -0,0 +1,170 @@
+package net.webpdf.ant;
+
+import net.webpdf.ant.stub.StubWebPDFServer;
+import net.webpdf.ant.task.variable.Variable;
+import net.webpdf.ant.task.variable.VariableRole;
+import org.apache.commons.io.FileUtils;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.RuntimeConfigurable;
+import org.apache.tools.ant.UnknownElement;
+import org.apache.tools.ant.types.FileSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+public class WebPDFTaskLoadIntegrationTest {
+
+    private static final int DOCUMENT_COUNT = 40;
+
+    private final TestResources testResources = new TestResources(WebPDFTaskLoadIntegrationTest.class);
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private StubWebPDFServer server;
+    private File sourceDirectory;
+    private File targetDirectory;
+
+    @Before
+    public void prepare() throws Exception {
+        server = new StubWebPDFServer().start();
+        sourceDirectory = temporaryFolder.newFolder("sources");
+        targetDirectory = temporaryFolder.newFolder("targets");
+        File testFile = testResources.getResource("test.pdf");
+        for (int index = 0; index < DOCUMENT_COUNT; index++) {
+            FileUtils.copyFile(testFile, new File(sourceDirectory, "document-" + index + ".pdf"));
+        }
+    }
+
+    @After
+    public void cleanup() {
+        server.close();
+    }
+
+    @Test
+    public void testParallelCallsLimitedByConnections() throws Exception {
+        server.setLatency(50);
+        WebPDFTask webPDFTask = createTask(1);
+        webPDFTask.setParallelism("8");
+        webPDFTask.setMaxConnections(4);
+        webPDFTask.execute();
+
+        assertTargetsCreated();
+        assertEquals("Each document should have been sent once.", DOCUMENT_COUNT, server.getRequestCount());
+        assertTrue(String.format("The calls should have been executed concurrently: %d", server.getMaxConcurrentRequests()),
+            server.getMaxConcurrentRequests() > 1);
+        assertTrue(String.format("The calls should have been limited by the connections: %d",
+            server.getMaxConcurrentRequests()), server.getMaxConcurrentRequests() <= 4);
+    }
+
+    @Test
+    public void testChainedOperations() throws Exception {
+        WebPDFTask webPDFTask = createTask(3);
+        webPDFTask.setParallelism("4");
+        webPDFTask.execute();
+
+        assertTargetsCreated();
+        assertEquals("Each operation should have been called for each document.",
+            3 * DOCUMENT_COUNT, server.getRequestCount());
+    }
+
+    @Test
+    public void testRetryTransientFailures() throws Exception {
+        server.setErrorRate(0.3);
+        WebPDFTask webPDFTask = createTask(1);
+        webPDFTask.setParallelism("4");
+        webPDFTask.setMaxAttempts(20);
+        webPDFTask.setRetryDelay(1);
+        webPDFTask.setMaxRetryDelay(10);
+        webPDFTask.execute();
+
+        assertTargetsCreated();
+        assertTrue("Some calls should have failed.", server.getFailedRequestCount() > 0);
+        assertEquals("Each failed call should have been retried.",
+            DOCUMENT_COUNT + server.getFailedRequestCount(), server.getRequestCount());
+    }
+
+    @Test
+    public void testCircuitBreakerRejectsCalls() throws Exception {
+        server.setErrorRate(1);
+        WebPDFTask webPDFTask = createTask(1);
+        webPDFTask.setFailOnError(false);
+        webPDFTask.setBreakerThreshold(3);
+        webPDFTask.setBreakerTimeout(60000);
+        webPDFTask.execute();
+
+        assertTrue(String.format("The open circuit breaker should have rejected calls: %d", server.getRequestCount()),
+            server.getRequestCount() < DOCUMENT_COUNT);
+    }
+
+    @Test
+    public void testFanOutBranchingGroups() throws Exception {
+        server.setLatency(50);
+        WebPDFTask webPDFTask = createTask(1);
+        webPDFTask.setFanOut(true);
+        for (String output : new String[]{"archive", "preview"}) {
+            GroupTask groupTask = createGroup(webPDFTask.getProject(), 1);
+            Variable variable = new Variable();
+            variable.setName(output);
+            variable.setRole(VariableRole.OUTPUT);
+            groupTask.add(variable);
+            webPDFTask.add(groupTask);
+        }
+        webPDFTask.execute();
+
+        assertTargetsCreated();
+        assertEquals("Each branch should have been processed for each document.",
+            3 * DOCUMENT_COUNT, server.getRequestCount());
+        assertTrue(String.format("The branches should have been executed concurrently: %d",
+            server.getMaxConcurrentRequests()), server.getMaxConcurrentRequests() > 1);
+    }
+
+    private WebPDFTask createTask(int operations) throws Exception {
+        Project project = new Project();
+        project.init();
+
+        WebPDFTask webPDFTask = new WebPDFTask();
+        webPDFTask.setProject(project);
+        webPDFTask.setServerUrl(server.getURL().toString());
+        webPDFTask.setFailOnError(true);
+        webPDFTask.setTempDir(temporaryFolder.newFolder());
+        webPDFTask.setTargetDir(targetDirectory);
+
+        FileSet fileSet = new FileSet();
+        fileSet.setProject(project);
+        fileSet.setDir(sourceDirectory);
+        webPDFTask.add(fileSet);
+
+        webPDFTask.add(createGroup(project, operations));
+        return webPDFTask;
+    }
+
+    private GroupTask createGroup(Project project, int operations) {
+        GroupTask groupTask = new GroupTask();
+        groupTask.setProject(project);
+        for (int index = 0; index < operations; index++) {
+            UnknownElement operation = new UnknownElement("operation");
+            operation.setRuntimeConfigurableWrapper(new RuntimeConfigurable(operation, "operation"));
+            UnknownElement rotate = new UnknownElement("rotate");
+            RuntimeConfigurable runtimeConfigurable = new RuntimeConfigurable(rotate, "rotate");
+            runtimeConfigurable.setAttribute("degrees", "90");
+            rotate.setRuntimeConfigurableWrapper(runtimeConfigurable);
+            operation.addChild(rotate);
+            groupTask.add(operation);
+        }
+        return groupTask;
+    }
+
+    private void assertTargetsCreated() {
+        for (int index = 0; index < DOCUMENT_COUNT; index++) {
+            File target = new File(targetDirectory, "document-" + index + ".pdf");
+            assertTrue("The target should have been created: " + target.getName(), target.exists());
+        }
+    }
+
+}
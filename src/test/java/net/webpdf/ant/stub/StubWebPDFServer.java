@@ -0,0 +1,665 @@
+package net.webpdf.ant.stub;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An embeddable fake of the SOAP webservices of a webPDF server. It shall accept the documents sent by the operations
+ * of a webPDF task and shall answer with the echoed or transformed document. The latency, the error rate and the
+ * bandwidth of the server may be configured at any time, to reproduce the behaviour of a loaded or unreliable server.
+ * <p>
+ * The webservices are published at {@link #getURL()}, the WSDL of a webservice is provided at
+ * "soap/{webservice}?wsdl".
+ */
+public class StubWebPDFServer implements AutoCloseable {
+
+    public static final String CONTEXT_PATH = "/webPDF/";
+    public static final int DEFAULT_ERROR_STATUS = 503;
+
+    private static final String SOAP_11_NAMESPACE = "http://schemas.xmlsoap.org/soap/envelope/";
+    private static final String SOAP_12_NAMESPACE = "http://www.w3.org/2003/05/soap-envelope";
+    private static final String SOAP_NAMESPACE = "http://schema.webpdf.de/1.0/soap/";
+    private static final Pattern SOAP_PATH = Pattern.compile(CONTEXT_PATH + "soap/(\\w+)/?");
+    private static final Pattern INLINE_VALUE = Pattern.compile(
+        "<(?:\\w+:)?value(?:\\s[^>]*)?>([^<]*)</(?:\\w+:)?value>");
+    private static final Pattern XOP_INCLUDE = Pattern.compile("<(?:\\w+:)?Include[^>]*href=\"cid:([^\"]+)\"");
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=\"?([^\";]+)\"?");
+    private static final int CHUNK_SIZE = 8192;
+
+    @NotNull
+    private final AtomicInteger requests = new AtomicInteger();
+    @NotNull
+    private final AtomicInteger failedRequests = new AtomicInteger();
+    @NotNull
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    @NotNull
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+    @NotNull
+    private final AtomicLong receivedBytes = new AtomicLong();
+    @NotNull
+    private final AtomicLong sentBytes = new AtomicLong();
+
+    private volatile long latency = 0;
+    private volatile long latencyJitter = 0;
+    private volatile double errorRate = 0;
+    private volatile int errorStatus = DEFAULT_ERROR_STATUS;
+    private volatile long bandwidth = 0;
+    @NotNull
+    private volatile UnaryOperator<byte[]> transformer = UnaryOperator.identity();
+
+    @Nullable
+    private HttpServer httpServer;
+    @Nullable
+    private ExecutorService executor;
+
+    /**
+     * Starts the server on a free port of the loopback interface.
+     *
+     * @return This server.
+     * @throws IOException Shall be thrown, if the server could not be started.
+     */
+    @NotNull
+    public synchronized StubWebPDFServer start() throws IOException {
+        if (httpServer != null) {
+            return this;
+        }
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-webPDF-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        httpServer.createContext(CONTEXT_PATH, this::handle);
+        httpServer.setExecutor(executor);
+        httpServer.start();
+        return this;
+    }
+
+    /**
+     * Stops the server and aborts all pending requests.
+     */
+    @Override
+    public synchronized void close() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Returns the URL of the started server, as it shall be set as the server URL of a webPDF task.
+     *
+     * @return The URL of the server.
+     * @throws IllegalStateException Shall be thrown, if the server has not been started.
+     */
+    @NotNull
+    public synchronized URL getURL() {
+        if (httpServer == null) {
+            throw new IllegalStateException("The stub server has not been started.");
+        }
+        InetSocketAddress address = httpServer.getAddress();
+        try {
+            return new URL("http", address.getHostString(), address.getPort(), CONTEXT_PATH);
+        } catch (MalformedURLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Sets the time (in milliseconds) each webservice call shall be delayed by. (DEFAULT is 0)
+     *
+     * @param latency The delay of each webservice call.
+     * @return This server.
+     */
+    @NotNull
+    public StubWebPDFServer setLatency(long latency) {
+        this.latency = Math.max(0, latency);
+        return this;
+    }
+
+    /**
+     * Sets the maximum time (in milliseconds) randomly added to the latency of each webservice call. (DEFAULT is 0)
+     *
+     * @param latencyJitter The maximum random delay added to each webservice call.
+     * @return This server.
+     */
+    @NotNull
+    public StubWebPDFServer setLatencyJitter(long latencyJitter) {
+        this.latencyJitter = Math.max(0, latencyJitter);
+        return this;
+    }
+
+    /**
+     * Sets the fraction of webservice calls, that shall fail with the error status. (DEFAULT is 0)
+     *
+     * @param errorRate The fraction (0 to 1) of failing webservice calls.
+     * @return This server.
+     */
+    @NotNull
+    public StubWebPDFServer setErrorRate(double errorRate) {
+        this.errorRate = Math.min(1, Math.max(0, errorRate));
+        return this;
+    }
+
+    /**
+     * Sets the HTTP status, failing webservice calls shall be answered with. (DEFAULT is 503)
+     *
+     * @param errorStatus The HTTP status of failing webservice calls.
+     * @return This server.
+     */
+    @NotNull
+    public StubWebPDFServer setErrorStatus(int errorStatus) {
+        this.errorStatus = errorStatus;
+        return this;
+    }
+
+    /**
+     * Sets the rate (in bytes per second), each request shall be read and each response shall be written with.
+     * (DEFAULT is 0 - unlimited)
+     *
+     * @param bandwidth The transfer rate of each webservice call.
+     * @return This server.
+     */
+    @NotNull
+    public StubWebPDFServer setBandwidth(long bandwidth) {
+        this.bandwidth = Math.max(0, bandwidth);
+        return this;
+    }
+
+    /**
+     * Sets the function, that shall produce the result document of a webservice call from the received document.
+     * (DEFAULT echoes the received document)
+     *
+     * @param transformer The function transforming the received document.
+     * @return This server.
+     */
+    @NotNull
+    public StubWebPDFServer setTransformer(@NotNull UnaryOperator<byte[]> transformer) {
+        this.transformer = transformer;
+        return this;
+    }
+
+    /**
+     * Returns the number of webservice calls, that have been received.
+     *
+     * @return The number of received webservice calls.
+     */
+    public int getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * Returns the number of webservice calls, that have been answered with an error.
+     *
+     * @return The number of failed webservice calls.
+     */
+    public int getFailedRequestCount() {
+        return failedRequests.get();
+    }
+
+    /**
+     * Returns the highest number of webservice calls, that have been processed at the same time.
+     *
+     * @return The highest number of concurrent webservice calls.
+     */
+    public int getMaxConcurrentRequests() {
+        return maxActiveRequests.get();
+    }
+
+    /**
+     * Returns the number of bytes, that have been received by webservice calls.
+     *
+     * @return The number of received bytes.
+     */
+    public long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+
+    /**
+     * Returns the number of bytes, that have been sent by answers to webservice calls.
+     *
+     * @return The number of sent bytes.
+     */
+    public long getSentBytes() {
+        return sentBytes.get();
+    }
+
+    /**
+     * Resets all counters of this server.
+     */
+    public void resetStatistics() {
+        requests.set(0);
+        failedRequests.set(0);
+        maxActiveRequests.set(0);
+        receivedBytes.set(0);
+        sentBytes.set(0);
+    }
+
+    /**
+     * Answers the given request, either with a WSDL, or with the result of a webservice call.
+     *
+     * @param exchange The request, that shall be answered.
+     * @throws IOException Shall be thrown, if the request could not be read or answered.
+     */
+    private void handle(@NotNull HttpExchange exchange) throws IOException {
+        try {
+            Matcher pathMatcher = SOAP_PATH.matcher(exchange.getRequestURI().getPath());
+            if (!pathMatcher.matches()) {
+                respond(exchange, 404, "text/plain", "Not Found".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            String webservice = pathMatcher.group(1);
+            String query = exchange.getRequestURI().getQuery();
+            if ("GET".equalsIgnoreCase(exchange.getRequestMethod()) && query != null && query.equalsIgnoreCase("wsdl")) {
+                String location = "http://" + exchange.getRequestHeaders().getFirst("Host") +
+                    exchange.getRequestURI().getPath();
+                respond(exchange, 200, "text/xml; charset=utf-8",
+                    createWSDL(webservice, location).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                respond(exchange, 405, "text/plain", "Method Not Allowed".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            execute(exchange, webservice);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Executes a webservice call, answering with the transformed document, or with an error.
+     *
+     * @param exchange   The webservice call.
+     * @param webservice The name of the called webservice.
+     * @throws IOException Shall be thrown, if the call could not be read or answered.
+     */
+    private void execute(@NotNull HttpExchange exchange, @NotNull String webservice) throws IOException {
+        requests.incrementAndGet();
+        maxActiveRequests.accumulateAndGet(activeRequests.incrementAndGet(), Math::max);
+        try {
+            byte[] request = read(exchange.getRequestBody());
+            receivedBytes.addAndGet(request.length);
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            delay();
+            double rate = errorRate;
+            if (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate) {
+                failedRequests.incrementAndGet();
+                respond(exchange, errorStatus, "text/plain", "Service Unavailable".getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            boolean soap12 = contentType != null && contentType.contains("application/soap+xml");
+            byte[] document = extractDocument(request, contentType);
+            if (document == null) {
+                failedRequests.incrementAndGet();
+                respond(exchange, 500, soap12 ? "application/soap+xml; charset=utf-8" : "text/xml; charset=utf-8",
+                    createFault(soap12, "The request does not contain a document.").getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            byte[] result = transformer.apply(document);
+            respond(exchange, 200, soap12 ? "application/soap+xml; charset=utf-8" : "text/xml; charset=utf-8",
+                createResponse(soap12, webservice, result).getBytes(StandardCharsets.UTF_8));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("The webservice call has been interrupted.", ex);
+        } finally {
+            activeRequests.decrementAndGet();
+        }
+    }
+
+    /**
+     * Delays the current webservice call by the latency and a random jitter.
+     *
+     * @throws InterruptedException Shall be thrown, if the calling thread has been interrupted while waiting.
+     */
+    private void delay() throws InterruptedException {
+        long delay = latency;
+        long jitter = latencyJitter;
+        if (jitter > 0) {
+            delay += ThreadLocalRandom.current().nextLong(jitter + 1);
+        }
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    /**
+     * Reads the given stream completely, limited by the bandwidth.
+     *
+     * @param inputStream The stream, that shall be read.
+     * @return The read bytes.
+     * @throws IOException          Shall be thrown, if the stream could not be read.
+     * @throws InterruptedException Shall be thrown, if the calling thread has been interrupted while waiting.
+     */
+    @NotNull
+    private byte[] read(@NotNull InputStream inputStream) throws IOException, InterruptedException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[CHUNK_SIZE];
+        long startTime = System.nanoTime();
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+            throttle(outputStream.size(), startTime);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Answers the current request, limited by the bandwidth.
+     *
+     * @param exchange    The request, that shall be answered.
+     * @param status      The HTTP status of the answer.
+     * @param contentType The content type of the answer.
+     * @param body        The body of the answer.
+     * @throws IOException Shall be thrown, if the answer could not be written.
+     */
+    private void respond(@NotNull HttpExchange exchange, int status, @NotNull String contentType, @NotNull byte[] body)
+        throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        long startTime = System.nanoTime();
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            for (int offset = 0; offset < body.length; offset += CHUNK_SIZE) {
+                int length = Math.min(CHUNK_SIZE, body.length - offset);
+                sentBytes.addAndGet(length);
+                outputStream.write(body, offset, length);
+                throttle(offset + length, startTime);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("The answer has been interrupted.", ex);
+        }
+    }
+
+    /**
+     * Waits, until the given number of bytes may have been transferred since the given start time.
+     *
+     * @param transferred The number of bytes transferred since the start time.
+     * @param startTime   The time (in nanoseconds) the transfer has been started.
+     * @throws InterruptedException Shall be thrown, if the calling thread has been interrupted while waiting.
+     */
+    private void throttle(long transferred, long startTime) throws InterruptedException {
+        long rate = bandwidth;
+        if (rate <= 0) {
+            return;
+        }
+        long wait = TimeUnit.SECONDS.toNanos(transferred) / rate - (System.nanoTime() - startTime);
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Extracts the document from a webservice call. The document may either be contained in the SOAP message, or it
+     * may be attached to a MTOM message.
+     *
+     * @param request     The received webservice call.
+     * @param contentType The content type of the webservice call.
+     * @return The contained document, or null if the call does not contain a document.
+     */
+    @Nullable
+    static byte[] extractDocument(@NotNull byte[] request, @Nullable String contentType) {
+        Matcher boundaryMatcher = contentType != null && contentType.toLowerCase().startsWith("multipart/") ?
+            BOUNDARY.matcher(contentType) : null;
+        if (boundaryMatcher == null || !boundaryMatcher.find()) {
+            return extractInlineDocument(new String(request, StandardCharsets.UTF_8));
+        }
+        MultipartMessage message = new MultipartMessage(request, boundaryMatcher.group(1));
+        String envelope = message.getRootPart();
+        if (envelope == null) {
+            return null;
+        }
+        Matcher includeMatcher = XOP_INCLUDE.matcher(envelope);
+        if (includeMatcher.find()) {
+            return message.getAttachment(includeMatcher.group(1));
+        }
+        return extractInlineDocument(envelope);
+    }
+
+    /**
+     * Extracts a base64 encoded document from the given SOAP message.
+     *
+     * @param envelope The SOAP message.
+     * @return The contained document, or null if the message does not contain a document.
+     */
+    @Nullable
+    private static byte[] extractInlineDocument(@NotNull String envelope) {
+        Matcher valueMatcher = INLINE_VALUE.matcher(envelope);
+        if (!valueMatcher.find()) {
+            return null;
+        }
+        try {
+            return Base64.getMimeDecoder().decode(valueMatcher.group(1).trim());
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates the SOAP message answering a webservice call with the given result document.
+     *
+     * @param soap12     True, if a SOAP 1.2 message shall be created.
+     * @param webservice The name of the called webservice.
+     * @param result     The result document.
+     * @return The SOAP message.
+     */
+    @NotNull
+    private static String createResponse(boolean soap12, @NotNull String webservice, @NotNull byte[] result) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soap:Envelope xmlns:soap=\"" + (soap12 ? SOAP_12_NAMESPACE : SOAP_11_NAMESPACE) + "\">" +
+            "<soap:Body>" +
+            "<ns:executeResponse xmlns:ns=\"" + SOAP_NAMESPACE + webservice + "\">" +
+            "<return source=\"value\"><value>" + Base64.getEncoder().encodeToString(result) + "</value></return>" +
+            "</ns:executeResponse>" +
+            "</soap:Body>" +
+            "</soap:Envelope>";
+    }
+
+    /**
+     * Creates a SOAP fault having the given reason.
+     *
+     * @param soap12 True, if a SOAP 1.2 fault shall be created.
+     * @param reason The reason of the fault.
+     * @return The SOAP fault.
+     */
+    @NotNull
+    private static String createFault(boolean soap12, @NotNull String reason) {
+        String fault = soap12 ?
+            "<soap:Code><soap:Value>soap:Receiver</soap:Value></soap:Code>" +
+                "<soap:Reason><soap:Text xml:lang=\"en\">" + reason + "</soap:Text></soap:Reason>" :
+            "<faultcode>soap:Server</faultcode><faultstring>" + reason + "</faultstring>";
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<soap:Envelope xmlns:soap=\"" + (soap12 ? SOAP_12_NAMESPACE : SOAP_11_NAMESPACE) + "\">" +
+            "<soap:Body><soap:Fault>" + fault + "</soap:Fault></soap:Body>" +
+            "</soap:Envelope>";
+    }
+
+    /**
+     * Creates a WSDL describing the "execute" operation of the given webservice.
+     *
+     * @param webservice The name of the webservice.
+     * @param location   The URL the webservice is published at.
+     * @return The WSDL.
+     */
+    @NotNull
+    private static String createWSDL(@NotNull String webservice, @NotNull String location) {
+        String name = Character.toUpperCase(webservice.charAt(0)) + webservice.substring(1);
+        String namespace = SOAP_NAMESPACE + webservice;
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<definitions xmlns=\"http://schemas.xmlsoap.org/wsdl/\" " +
+            "xmlns:soap=\"http://schemas.xmlsoap.org/wsdl/soap/\" " +
+            "xmlns:xs=\"http://www.w3.org/2001/XMLSchema\" " +
+            "xmlns:tns=\"" + namespace + "\" targetNamespace=\"" + namespace + "\" name=\"" + name + "Service\">" +
+            "<types><xs:schema targetNamespace=\"" + namespace + "\" elementFormDefault=\"unqualified\">" +
+            "<xs:element name=\"execute\"><xs:complexType><xs:sequence>" +
+            "<xs:any minOccurs=\"0\" maxOccurs=\"unbounded\" processContents=\"lax\"/>" +
+            "</xs:sequence></xs:complexType></xs:element>" +
+            "<xs:element name=\"executeResponse\"><xs:complexType><xs:sequence>" +
+            "<xs:any minOccurs=\"0\" maxOccurs=\"unbounded\" processContents=\"lax\"/>" +
+            "</xs:sequence></xs:complexType></xs:element>" +
+            "</xs:schema></types>" +
+            "<message name=\"execute\"><part name=\"parameters\" element=\"tns:execute\"/></message>" +
+            "<message name=\"executeResponse\"><part name=\"parameters\" element=\"tns:executeResponse\"/></message>" +
+            "<portType name=\"" + name + "\"><operation name=\"execute\">" +
+            "<input message=\"tns:execute\"/><output message=\"tns:executeResponse\"/>" +
+            "</operation></portType>" +
+            "<binding name=\"" + name + "PortBinding\" type=\"tns:" + name + "\">" +
+            "<soap:binding transport=\"http://schemas.xmlsoap.org/soap/http\" style=\"document\"/>" +
+            "<operation name=\"execute\"><soap:operation soapAction=\"\"/>" +
+            "<input><soap:body use=\"literal\"/></input><output><soap:body use=\"literal\"/></output>" +
+            "</operation></binding>" +
+            "<service name=\"" + name + "Service\">" +
+            "<port name=\"" + name + "Port\" binding=\"tns:" + name + "PortBinding\">" +
+            "<soap:address location=\"" + location + "\"/>" +
+            "</port></service>" +
+            "</definitions>";
+    }
+
+    /**
+     * The parts of a received MTOM message.
+     */
+    private static class MultipartMessage {
+
+        @NotNull
+        private final byte[] message;
+        @NotNull
+        private final byte[] delimiter;
+
+        /**
+         * Prepares the given message for reading it's parts.
+         *
+         * @param message  The received message.
+         * @param boundary The boundary separating the parts of the message.
+         */
+        private MultipartMessage(@NotNull byte[] message, @NotNull String boundary) {
+            this.message = message;
+            this.delimiter = ("--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        }
+
+        /**
+         * Returns the first part of the message, containing the SOAP message.
+         *
+         * @return The SOAP message, or null if the message does not contain any parts.
+         */
+        @Nullable
+        private String getRootPart() {
+            byte[] body = getPart(null);
+            return body != null ? new String(body, StandardCharsets.UTF_8) : null;
+        }
+
+        /**
+         * Returns the body of the part having the given content ID.
+         *
+         * @param contentId The content ID of the part.
+         * @return The body of the part, or null if the message does not contain a matching part.
+         */
+        @Nullable
+        private byte[] getAttachment(@NotNull String contentId) {
+            return getPart(contentId);
+        }
+
+        /**
+         * Returns the body of the part having the given content ID, or the body of the first part.
+         *
+         * @param contentId The content ID of the part, or null to select the first part.
+         * @return The body of the part, or null if the message does not contain a matching part.
+         */
+        @Nullable
+        private byte[] getPart(@Nullable String contentId) {
+            int start = indexOf(delimiter, 0);
+            while (start != -1) {
+                int headerStart = start + delimiter.length;
+                if (headerStart + 1 < message.length && message[headerStart] == '-' && message[headerStart + 1] == '-') {
+                    return null;
+                }
+                int bodyStart = indexOf("\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1), headerStart);
+                int end = indexOf(delimiter, headerStart);
+                if (bodyStart == -1 || end == -1) {
+                    return null;
+                }
+                String headers = new String(message, headerStart, bodyStart - headerStart, StandardCharsets.ISO_8859_1);
+                bodyStart += 4;
+                int bodyEnd = end >= 2 && message[end - 2] == '\r' && message[end - 1] == '\n' ? end - 2 : end;
+                if (contentId == null || matchesContentId(headers, contentId)) {
+                    byte[] body = new byte[Math.max(0, bodyEnd - bodyStart)];
+                    System.arraycopy(message, bodyStart, body, 0, body.length);
+                    return body;
+                }
+                start = end;
+            }
+            return null;
+        }
+
+        /**
+         * Returns true, if the given part headers contain the given content ID.
+         *
+         * @param headers   The headers of a part.
+         * @param contentId The content ID, that shall be found.
+         * @return True, if the headers contain the content ID.
+         */
+        private static boolean matchesContentId(@NotNull String headers, @NotNull String contentId) {
+            String decoded;
+            try {
+                decoded = URLDecoder.decode(contentId, "UTF-8");
+            } catch (UnsupportedEncodingException | IllegalArgumentException ex) {
+                decoded = contentId;
+            }
+            for (String header : headers.split("\r\n")) {
+                if (header.toLowerCase().startsWith("content-id:") && header.contains(decoded)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Finds the given bytes in the message.
+         *
+         * @param pattern The bytes, that shall be found.
+         * @param from    The index the search shall start at.
+         * @return The index of the bytes, or -1 if the bytes could not be found.
+         */
+        private int indexOf(@NotNull byte[] pattern, int from) {
+            outer:
+            for (int index = Math.max(0, from); index <= message.length - pattern.length; index++) {
+                for (int offset = 0; offset < pattern.length; offset++) {
+                    if (message[index + offset] != pattern[offset]) {
+                        continue outer;
+                    }
+                }
+                return index;
+            }
+            return -1;
+        }
+
+    }
+
+}
@@ -0,0 +1,171 @@
+package net.webpdf.ant.stub;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class StubWebPDFServerTest {
+
+    private StubWebPDFServer server;
+
+    @Before
+    public void prepare() throws Exception {
+        server = new StubWebPDFServer().start();
+    }
+
+    @After
+    public void cleanup() {
+        server.close();
+    }
+
+    @Test
+    public void testWSDL() throws Exception {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.getURL(), "soap/converter?wsdl").openConnection();
+        assertEquals("The WSDL should have been provided.", 200, connection.getResponseCode());
+        String wsdl = new String(IOUtils.toByteArray(connection.getInputStream()), StandardCharsets.UTF_8);
+        assertTrue("The WSDL should describe the converter service.", wsdl.contains("name=\"ConverterService\""));
+        assertTrue("The WSDL should contain the address of the service.",
+            wsdl.contains(new URL(server.getURL(), "soap/converter").getPath()));
+    }
+
+    @Test
+    public void testEchoInlineDocument() throws Exception {
+        byte[] document = createDocument(4096);
+        Response response = call("toolbox", "text/xml; charset=utf-8", createEnvelope(
+            "<value>" + Base64.getEncoder().encodeToString(document) + "</value>"));
+        assertEquals("The call should have succeeded.", 200, response.status);
+        assertArrayEquals("The document should have been echoed.", document,
+            StubWebPDFServer.extractDocument(response.body, "text/xml"));
+        assertEquals("One call should have been counted.", 1, server.getRequestCount());
+        assertEquals("No call should have failed.", 0, server.getFailedRequestCount());
+    }
+
+    @Test
+    public void testTransformAttachedDocument() throws Exception {
+        server.setTransformer(document -> {
+            byte[] result = new byte[document.length];
+            for (int index = 0; index < document.length; index++) {
+                result[index] = document[document.length - 1 - index];
+            }
+            return result;
+        });
+        byte[] document = createDocument(4096);
+        String boundary = "uuid:4711";
+        ByteArrayOutputStream message = new ByteArrayOutputStream();
+        message.write(("--" + boundary + "\r\n" +
+            "Content-Type: application/xop+xml; charset=utf-8; type=\"text/xml\"\r\n" +
+            "Content-Id: <root.message@cxf.apache.org>\r\n\r\n" +
+            createEnvelope("<value><xop:Include xmlns:xop=\"http://www.w3.org/2004/08/xop/include\" " +
+                "href=\"cid:document%40webpdf.de\"/></value>") +
+            "\r\n--" + boundary + "\r\n" +
+            "Content-Type: application/octet-stream\r\n" +
+            "Content-Transfer-Encoding: binary\r\n" +
+            "Content-Id: <document@webpdf.de>\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        message.write(document);
+        message.write(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+
+        Response response = call("converter", "multipart/related; type=\"application/xop+xml\"; " +
+            "boundary=\"" + boundary + "\"; start=\"<root.message@cxf.apache.org>\"", message.toByteArray());
+        assertEquals("The call should have succeeded.", 200, response.status);
+        byte[] result = StubWebPDFServer.extractDocument(response.body, "text/xml");
+        assertNotNull("The response should contain a document.", result);
+        assertEquals("The attached document should have been transformed.", document[0], result[result.length - 1]);
+        assertEquals("The attached document should have been transformed.", document[document.length - 1], result[0]);
+    }
+
+    @Test
+    public void testErrorRate() throws Exception {
+        server.setErrorRate(1);
+        Response response = call("converter", "text/xml; charset=utf-8", createEnvelope("<value>AAAA</value>"));
+        assertEquals("The call should have failed with the error status.",
+            StubWebPDFServer.DEFAULT_ERROR_STATUS, response.status);
+        assertEquals("The failed call should have been counted.", 1, server.getFailedRequestCount());
+    }
+
+    @Test
+    public void testMissingDocument() throws Exception {
+        Response response = call("converter", "text/xml; charset=utf-8", createEnvelope(""));
+        assertEquals("A call without document should have caused a fault.", 500, response.status);
+        assertTrue("A SOAP fault should have been sent.",
+            new String(response.body, StandardCharsets.UTF_8).contains("Fault"));
+    }
+
+    @Test
+    public void testLatency() throws Exception {
+        server.setLatency(200);
+        long startTime = System.nanoTime();
+        call("converter", "text/xml; charset=utf-8", createEnvelope("<value>AAAA</value>"));
+        long elapsed = (System.nanoTime() - startTime) / 1000000;
+        assertTrue(String.format("The call should have been delayed: %d ms", elapsed), elapsed >= 200);
+    }
+
+    @Test
+    public void testBandwidth() throws Exception {
+        server.setBandwidth(100000);
+        byte[] document = createDocument(20000);
+        long startTime = System.nanoTime();
+        Response response = call("converter", "text/xml; charset=utf-8", createEnvelope(
+            "<value>" + Base64.getEncoder().encodeToString(document) + "</value>"));
+        long elapsed = (System.nanoTime() - startTime) / 1000000;
+        assertEquals("The call should have succeeded.", 200, response.status);
+        assertTrue(String.format("The transfer should have been limited: %d ms", elapsed), elapsed >= 400);
+        assertTrue("The received bytes should have been counted.", server.getReceivedBytes() > document.length);
+        assertTrue("The sent bytes should have been counted.", server.getSentBytes() > document.length);
+    }
+
+    private Response call(String webservice, String contentType, String body) throws IOException {
+        return call(webservice, contentType, body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Response call(String webservice, String contentType, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(server.getURL(), "soap/" + webservice).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", contentType);
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(body);
+        }
+        int status = connection.getResponseCode();
+        try (InputStream inputStream = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, inputStream != null ? IOUtils.toByteArray(inputStream) : new byte[0]);
+        }
+    }
+
+    private static String createEnvelope(String data) {
+        return "<soap:Envelope xmlns:soap=\"http://schemas.xmlsoap.org/soap/envelope/\"><soap:Body>" +
+            "<ns:execute xmlns:ns=\"http://schema.webpdf.de/1.0/soap/converter\">" +
+            "<operation xmlns=\"http://schema.webpdf.de/1.0/operation\"><converter/></operation>" +
+            "<data source=\"value\">" + data + "</data>" +
+            "</ns:execute></soap:Body></soap:Envelope>";
+    }
+
+    private static byte[] createDocument(int size) {
+        byte[] document = new byte[size];
+        new Random(size).nextBytes(document);
+        return document;
+    }
+
+    private static class Response {
+        private final int status;
+        private final byte[] body;
+
+        private Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+}
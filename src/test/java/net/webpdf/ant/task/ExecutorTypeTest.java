@@ -0,0 +1,35 @@
+package net.webpdf.ant.task;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ExecutorTypeTest {
+
+    @Test
+    public void testCreateExecutor() throws Exception {
+        for (ExecutorType executorType : ExecutorType.values()) {
+            ExecutorService executor = executorType.createExecutor(2);
+            try {
+                Future<String> result = executor.submit(() -> "done");
+                assertEquals("The task should have been executed.", "done", result.get(5, TimeUnit.SECONDS));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void testFromName() {
+        for (ExecutorType executorType : ExecutorType.values()) {
+            assertEquals("The executor type should have been found by name.", executorType,
+                ExecutorType.fromName(executorType.getName().toUpperCase()));
+        }
+        assertNull("An unknown executor type should not have been found.", ExecutorType.fromName("carrier"));
+    }
+
+}
@@ -0,0 +1,95 @@
+package net.webpdf.ant.task.cache;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ResultCacheTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testStoreAndLookup() throws Exception {
+        ResultCache resultCache = new ResultCache(temporaryFolder.newFolder(), 1024);
+        String key = ResultCache.createKey("http://localhost:8080", bytes("configuration"), stream("source"));
+        assertNull("An unknown result should not have been found.", resultCache.lookup(key));
+
+        resultCache.store(key, stream("result"));
+        File cached = resultCache.lookup(key);
+        assertNotNull("The stored result should have been found.", cached);
+        assertEquals("The stored result should have been returned.", "result",
+            FileUtils.readFileToString(cached, StandardCharsets.UTF_8));
+        assertEquals("One hit should have been counted.", 1, resultCache.getHits());
+        assertEquals("One miss should have been counted.", 1, resultCache.getMisses());
+        assertEquals("The size of the stored result should have been counted.", 6, resultCache.getSize());
+    }
+
+    @Test
+    public void testCreateKey() throws Exception {
+        String key = ResultCache.createKey("http://localhost:8080", bytes("configuration"), stream("source"));
+        assertEquals("The same configuration and source should result in the same key.", key,
+            ResultCache.createKey("http://localhost:8080", bytes("configuration"), stream("source")));
+        assertNotEquals("A different source should result in a different key.", key,
+            ResultCache.createKey("http://localhost:8080", bytes("configuration"), stream("other source")));
+        assertNotEquals("A different configuration should result in a different key.", key,
+            ResultCache.createKey("http://localhost:8080", bytes("other configuration"), stream("source")));
+        assertNotEquals("A different server should result in a different key.", key,
+            ResultCache.createKey("http://localhost:9090", bytes("configuration"), stream("source")));
+    }
+
+    @Test
+    public void testRemoveStaleTempFiles() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        File stale = new File(directory, "stale.temp");
+        File inFlight = new File(directory, "inFlight.temp");
+        FileUtils.writeStringToFile(stale, "stale", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(inFlight, "in flight", StandardCharsets.UTF_8);
+        assertTrue("The modification time should have been set.",
+            stale.setLastModified(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(2)));
+
+        new ResultCache(directory, 1024);
+        assertFalse("A stale temporary file should have been removed.", stale.exists());
+        assertTrue("A result stored by another execution should have been kept.", inFlight.exists());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        ResultCache resultCache = new ResultCache(directory, 10);
+        resultCache.store("first", stream("aaaa"));
+        resultCache.store("second", stream("bbbb"));
+        assertNotNull("The first result should have been stored.", resultCache.lookup("first"));
+        resultCache.store("third", stream("cccc"));
+
+        assertNull("The least recently used result should have been evicted.", resultCache.lookup("second"));
+        assertNotNull("A recently used result should have been kept.", resultCache.lookup("first"));
+        assertNotNull("The newest result should have been kept.", resultCache.lookup("third"));
+        assertEquals("The maximum size should not have been exceeded.", 8, resultCache.getSize());
+
+        resultCache.store("large", stream("larger than the cache"));
+        assertNull("A result exceeding the cache should not have been stored.", resultCache.lookup("large"));
+
+        ResultCache reloaded = new ResultCache(directory, 10);
+        assertEquals("The stored results should have been loaded.", 8, reloaded.getSize());
+        assertNotNull("A stored result should have been loaded.", reloaded.lookup("first"));
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static InputStream stream(String value) {
+        return new ByteArrayInputStream(bytes(value));
+    }
+
+}
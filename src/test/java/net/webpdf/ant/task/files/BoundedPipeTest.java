@@ -0,0 +1,65 @@
+package net.webpdf.ant.task.files;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class BoundedPipeTest {
+
+    @Test
+    public void testStreamThroughSmallBuffer() throws Exception {
+        byte[] data = new byte[100000];
+        new Random(42).nextBytes(data);
+        BoundedPipe pipe = new BoundedPipe(1000);
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try (OutputStream output = pipe.getOutputStream()) {
+                for (int offset = 0; offset < data.length; offset += 777) {
+                    output.write(data, offset, Math.min(777, data.length - offset));
+                }
+            } catch (IOException ex) {
+                failure.set(ex);
+            }
+        });
+        writer.start();
+
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+        try (InputStream input = pipe.getInputStream()) {
+            byte[] buffer = new byte[512];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                received.write(buffer, 0, read);
+            }
+        }
+        writer.join(5000);
+        assertNull("The writer should not have failed.", failure.get());
+        assertArrayEquals("All written data should have been read in order.", data, received.toByteArray());
+    }
+
+    @Test
+    public void testWriteAfterReaderClosed() throws Exception {
+        BoundedPipe pipe = new BoundedPipe(4);
+        AtomicReference<IOException> failure = new AtomicReference<>();
+        Thread writer = new Thread(() -> {
+            try {
+                pipe.getOutputStream().write(new byte[16]);
+            } catch (IOException ex) {
+                failure.set(ex);
+            }
+        });
+        writer.start();
+        Thread.sleep(50);
+        assertTrue("The writer should have been waiting for the reader.", writer.isAlive());
+        pipe.getInputStream().close();
+        writer.join(5000);
+        assertNotNull("The waiting writer should have failed, when the reader has been closed.", failure.get());
+    }
+
+}
@@ -0,0 +1,59 @@
+package net.webpdf.ant.task.files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DirectoryWalkerTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testWalkDepthFirst() throws Exception {
+        File root = temporaryFolder.newFolder("root");
+        File first = new File(root, "a");
+        File deep = new File(first, "sub/deep.txt");
+        assertTrue("The directory tree should have been created.", deep.getParentFile().mkdirs());
+        File shallow = new File(first, "a1.txt");
+        File second = new File(root, "b/b1.txt");
+        assertTrue("The directory tree should have been created.", second.getParentFile().mkdirs());
+        for (File file : Arrays.asList(deep, shallow, second)) {
+            assertTrue("The file should have been created.", file.createNewFile());
+        }
+
+        List<File> files = new ArrayList<>();
+        try (DirectoryWalker walker = new DirectoryWalker(Collections.singletonList(root).iterator())) {
+            while (walker.hasNext()) {
+                files.add(walker.next());
+            }
+        }
+        assertEquals("All files of the directory tree should have been found.", 3, files.size());
+        assertEquals("The files of a sub directory should have been provided one after another.", 1,
+            Math.abs(files.indexOf(deep) - files.indexOf(shallow)));
+    }
+
+    @Test
+    public void testCloseAbandonedWalk() throws Exception {
+        File root = temporaryFolder.newFolder("abandoned");
+        File nested = new File(root, "sub/nested.txt");
+        assertTrue("The directory tree should have been created.", nested.getParentFile().mkdirs());
+        assertTrue("The file should have been created.", nested.createNewFile());
+        File other = temporaryFolder.newFile("other.txt");
+
+        DirectoryWalker walker = new DirectoryWalker(Arrays.asList(root, other).iterator());
+        assertEquals("The nested file should have been found first.", nested, walker.next());
+        walker.close();
+        assertEquals("The remaining files should still have been provided.", other, walker.next());
+        assertFalse("The walk should have been finished.", walker.hasNext());
+    }
+
+}
@@ -13,7 +13,10 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
 
 import static org.junit.Assert.*;
 
@@ -155,6 +158,41 @@ public class IterativeTaskFileMapTest {
         }
     }
 
+    @Test
+    public void testMapNestedDirectory() throws Exception {
+        TempDir tempDir = new TempDir();
+        File sourceDir = new File(tempDir.getTempDir() + "/nestedSourceDir/");
+        File subDir = new File(sourceDir, "/subDir/");
+        subDir.mkdirs();
+        File sourceFile = new File(sourceDir, "/sourceFile.temp");
+        sourceFile.createNewFile();
+        File subSourceFile = new File(subDir, "/subSourceFile.temp");
+        subSourceFile.createNewFile();
+        iterativeTaskFileMap.setTempDir(tempDir.getTempDir());
+        try {
+            Project project = new Project();
+            iterativeTaskFileMap.add(new FileResource(project, sourceDir));
+            Set<String> names = new HashSet<>();
+            for (IterativeTaskFile iterativeTaskFile : iterativeTaskFileMap) {
+                names.add(iterativeTaskFile.getCurrentSource().getName());
+            }
+            assertEquals("All files of the directory tree should have been mapped.",
+                new HashSet<>(Arrays.asList(sourceFile.getName(), subSourceFile.getName())), names);
+            try (IterativeTaskFileMap.TaskFileIterator it = iterativeTaskFileMap.iterator()) {
+                assertTrue("The directory tree should have been scanned.", it.hasNext());
+                it.next();
+                it.close();
+                assertFalse("A closed iterator should not have provided further entries.", it.hasNext());
+            }
+        } finally {
+            tempDir.cleanTemp();
+            subSourceFile.delete();
+            sourceFile.delete();
+            subDir.delete();
+            sourceDir.delete();
+        }
+    }
+
     @Test
     public void testMapInexistentResource() throws Exception {
         TempDir tempDir = new TempDir();
@@ -6,6 +6,7 @@ import net.webpdf.ant.task.TaskName;
 import net.webpdf.ant.task.variable.Variable;
 import net.webpdf.ant.task.variable.VariableRole;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.junit.After;
@@ -13,6 +14,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.Assert.*;
 
@@ -123,6 +127,91 @@ public class IterativeTaskFileTest {
         assertEquals("The last processed file should have been returned.", iterativeTaskFile.getLastProcessed(), iterativeTaskFile.finalizeAndReset(null, null));
     }
 
+    @Test
+    public void finalizeByMove() throws Exception {
+        File source = testResources.getResource("donald-duck.jpg");
+        IterativeTaskFile iterativeTaskFile = new IterativeTaskFile(source, "donald-duck.pdf", tempDir);
+
+        File targetFile = new File(tempDir.getTempDir(), "moved.pdf");
+        File result = iterativeTaskFile.getCurrentTarget();
+        FileUtils.writeStringToFile(result, "result", "UTF-8");
+        iterativeTaskFile.prepareNextOperation();
+        assertEquals("The result should have become the current source.", result, iterativeTaskFile.getCurrentSource());
+
+        assertEquals("The result should have been published to the given file.", targetFile,
+            iterativeTaskFile.finalizeAndReset(targetFile, null, FinalizeMode.MOVE));
+        assertEquals("The result should have been moved to the given file.", "result",
+            FileUtils.readFileToString(targetFile, "UTF-8"));
+        assertFalse("The temporary result should have been moved.", result.exists());
+        assertEquals("Source should have been reset.", source, iterativeTaskFile.getCurrentSource());
+
+        targetFile = new File(tempDir.getTempDir(), "copied.jpg");
+        iterativeTaskFile.finalizeAndReset(targetFile, null, FinalizeMode.MOVE);
+        assertTrue("The unprocessed source should have been copied.", source.exists() && targetFile.exists());
+        assertTrue("The unprocessed source should not have been altered.", FileUtils.contentEquals(source, targetFile));
+    }
+
+    @Test
+    public void finalizeByLink() throws Exception {
+        File source = testResources.getResource("donald-duck.jpg");
+        IterativeTaskFile iterativeTaskFile = new IterativeTaskFile(source, "donald-duck.pdf", tempDir);
+
+        File targetFile = new File(tempDir.getTempDir(), "linked.pdf");
+        File result = iterativeTaskFile.getCurrentTarget();
+        FileUtils.writeStringToFile(result, "result", "UTF-8");
+        iterativeTaskFile.prepareNextOperation();
+
+        iterativeTaskFile.finalizeAndReset(targetFile, null, FinalizeMode.LINK);
+        assertEquals("The result should have been published to the given file.", "result",
+            FileUtils.readFileToString(targetFile, "UTF-8"));
+        assertFalse("The temporary result should have been removed.", result.exists());
+
+        targetFile = new File(tempDir.getTempDir(), "unlinked.jpg");
+        iterativeTaskFile.finalizeAndReset(targetFile, null, FinalizeMode.LINK);
+        assertTrue("The unprocessed source should have been copied.", FileUtils.contentEquals(source, targetFile));
+        FileUtils.writeStringToFile(targetFile, "altered", "UTF-8");
+        assertNotEquals("The unprocessed source must not be altered via the target.", "altered",
+            FileUtils.readFileToString(source, "UTF-8"));
+        assertTrue("The target should have been deleted.", targetFile.delete());
+    }
+
+    @Test
+    public void memoryChain() throws Exception {
+        File source = testResources.getResource("donald-duck.jpg");
+        tempDir.setMemoryThreshold(1024);
+        IterativeTaskFile iterativeTaskFile = new IterativeTaskFile(source, "donald-duck.pdf", tempDir);
+        assertTrue("Intermediate results should be held in memory.", iterativeTaskFile.isMemoryEnabled());
+
+        try (OutputStream outputStream = iterativeTaskFile.openCurrentTarget()) {
+            outputStream.write("first".getBytes(StandardCharsets.UTF_8));
+        }
+        iterativeTaskFile.prepareNextOperation();
+        try (InputStream inputStream = iterativeTaskFile.openCurrentSource();
+             OutputStream outputStream = iterativeTaskFile.openCurrentTarget()) {
+            assertEquals("The previous result should have been read from memory.", "first",
+                IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+            outputStream.write("second".getBytes(StandardCharsets.UTF_8));
+        }
+        iterativeTaskFile.prepareNextOperation();
+        assertTrue("The source file should not have been deleted.", source.exists());
+
+        File targetFile = new File(tempDir.getTempDir(), "memory.pdf");
+        iterativeTaskFile.finalizeAndReset(targetFile, null, FinalizeMode.MOVE);
+        assertEquals("The result should have been published to the given file.", "second",
+            FileUtils.readFileToString(targetFile, StandardCharsets.UTF_8));
+        assertEquals("Source should have been reset.", source, iterativeTaskFile.getCurrentSource());
+        assertEquals("All memory should have been released.", 0, tempDir.getReservedMemory());
+    }
+
+    @Test
+    public void finalizeModeNames() {
+        for (FinalizeMode mode : FinalizeMode.values()) {
+            assertEquals("The mode should have been found by name.", mode, FinalizeMode.fromName(mode.getName().toUpperCase()));
+        }
+        assertNull("An unknown mode should not have been found.", FinalizeMode.fromName("rename"));
+        assertNull("An unknown mode should not have been found.", FinalizeMode.fromName(null));
+    }
+
     @Test
     public void testChangeSource() throws Exception {
         File source = testResources.getResource("donald-duck.jpg");
@@ -171,5 +260,89 @@ public class IterativeTaskFileTest {
         var.setOwningTask(task);
         iterativeTaskFile.tryPublish(var);
         assertEquals("Value should have been published to project.", currentTarget.getAbsolutePath().replaceAll("\\\\", "/"), proj.getProperty("name"));
+        assertEquals("Value should have been published for the source file.",
+            currentTarget.getAbsolutePath().replaceAll("\\\\", "/"), iterativeTaskFile.getPublishedVariables().get("name"));
+        assertEquals("Published variables should have been resolved.",
+            "file:///" + currentTarget.getAbsolutePath().replaceAll("\\\\", "/"), iterativeTaskFile.replaceVariables("file:///${name}"));
+        iterativeTaskFile.reset();
+        assertTrue("Published variables should have been dropped.", iterativeTaskFile.getPublishedVariables().isEmpty());
+    }
+
+    @Test
+    public void testBranchAndMerge() throws Exception {
+        File source = testResources.getResource("donald-duck.jpg");
+        IterativeTaskFile iterativeTaskFile = new IterativeTaskFile(source, "donald-duck.pdf", tempDir);
+        try (OutputStream outputStream = iterativeTaskFile.openCurrentTarget()) {
+            outputStream.write("intermediate".getBytes(StandardCharsets.UTF_8));
+        }
+        iterativeTaskFile.prepareNextOperation();
+        File sharedSource = iterativeTaskFile.getCurrentSource();
+
+        IterativeTaskFile first = iterativeTaskFile.branch();
+        IterativeTaskFile second = iterativeTaskFile.branch();
+        assertEquals("The branch should start with the current source.", sharedSource, first.getCurrentSource());
+        assertEquals("All branches should share the same source.", sharedSource, second.getCurrentSource());
+
+        File firstTarget = first.getCurrentTarget();
+        first.prepareNextOperation();
+        assertNotEquals("The branches should create their own targets.", firstTarget, second.getCurrentTarget());
+        second.dropCurrentTarget();
+        first.reset();
+        assertTrue("The shared source must not be deleted by a branch.", sharedSource.exists());
+
+        iterativeTaskFile.merge(first);
+        assertFalse("A successful branch should not have marked the source file as failed.", iterativeTaskFile.hasFailed());
+        iterativeTaskFile.merge(second);
+        assertTrue("A failed branch should have marked the source file as failed.", iterativeTaskFile.hasFailed());
+        assertTrue("The shared source must not be deleted by a merged branch.", sharedSource.exists());
+        assertEquals("The source should not have been changed by the branches.", sharedSource,
+            iterativeTaskFile.getCurrentSource());
+    }
+
+    @Test
+    public void testBranchRetainsSharedSource() throws Exception {
+        File source = testResources.getResource("donald-duck.jpg");
+        IterativeTaskFile iterativeTaskFile = new IterativeTaskFile(source, "donald-duck.pdf", tempDir);
+        iterativeTaskFile.getCurrentTarget();
+        iterativeTaskFile.prepareNextOperation();
+        File sharedSource = iterativeTaskFile.getCurrentSource();
+        IterativeTaskFile branch = iterativeTaskFile.branch();
+        assertEquals("The shared source should have been retained by the branch.", 2, tempDir.getReferenceCount(sharedSource));
+
+        iterativeTaskFile.getCurrentTarget();
+        iterativeTaskFile.prepareNextOperation();
+        assertTrue("The shared source must not be deleted, while a branch still references it.", sharedSource.exists());
+        iterativeTaskFile.merge(branch);
+        assertFalse("The shared source should have been deleted with it's last reference.", sharedSource.exists());
+        iterativeTaskFile.reset();
+    }
+
+    @Test
+    public void testResetReleasesPublishedFiles() throws Exception {
+        File source = testResources.getResource("donald-duck.jpg");
+        IterativeTaskFile iterativeTaskFile = new IterativeTaskFile(source, "donald-duck.pdf", tempDir);
+        IterativeTaskFile branch = iterativeTaskFile.branch();
+        File published = branch.getCurrentTarget();
+        Variable variable = new Variable();
+        variable.setName("published");
+        variable.setRole(VariableRole.OUTPUT);
+        final Project proj = new Project();
+        variable.setOwningTask(new Task(TaskName.OPERATION) {
+            @Override
+            public void execute() throws BuildException {
+                //DO NOTHING
+            }
+
+            @Override
+            public Project getProject() {
+                return proj;
+            }
+        });
+        branch.tryPublish(variable);
+        iterativeTaskFile.merge(branch);
+        assertTrue("A merged result should have been kept for the following groups.", published.exists());
+        iterativeTaskFile.reset();
+        assertFalse("The published result should have been released, when the source file has been reset.", published.exists());
+        assertEquals("The published result should have been forgotten.", 0, tempDir.getReferenceCount(published));
     }
 }
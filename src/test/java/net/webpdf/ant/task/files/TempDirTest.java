@@ -1,8 +1,15 @@
 package net.webpdf.ant.task.files;
 
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.*;
 
@@ -44,4 +51,119 @@ public class TempDirTest {
         tempDir.cleanTemp();
         assertFalse("Temp file should have been deleted.", tempFile.isFile() && tempFile.exists());
     }
+
+    @Test
+    public void createTempBufferInMemory() throws Exception {
+        TempDir tempDir = new TempDir();
+        tempDir.setMemoryThreshold(16);
+        tempDir.setMemoryBudget(16);
+        TempBuffer tempBuffer = tempDir.tryCreateTempBuffer();
+        assertEquals("Memory should have been reserved.", 16, tempDir.getReservedMemory());
+        TempBuffer exceedingBuffer = tempDir.tryCreateTempBuffer();
+        assertEquals("The memory budget should not have been exceeded.", 16, tempDir.getReservedMemory());
+
+        try (OutputStream outputStream = tempBuffer.openOutputStream()) {
+            outputStream.write("small".getBytes(StandardCharsets.UTF_8));
+        }
+        assertTrue("A small result should have been held in memory.", tempBuffer.isInMemory());
+        try (InputStream inputStream = tempBuffer.openInputStream()) {
+            assertEquals("The result should have been read from memory.", "small", IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+        }
+
+        try (OutputStream outputStream = exceedingBuffer.openOutputStream()) {
+            outputStream.write("small".getBytes(StandardCharsets.UTF_8));
+        }
+        assertFalse("A result exceeding the budget should have been written to disk.", exceedingBuffer.isInMemory());
+
+        File file = tempBuffer.toFile();
+        assertEquals("The result should have been spilled to disk.", "small", FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        assertEquals("The reserved memory should have been released.", 0, tempDir.getReservedMemory());
+        tempBuffer.dispose();
+        exceedingBuffer.dispose();
+        assertFalse("The temporary file should have been deleted.", file.exists());
+        tempDir.cleanTemp();
+    }
+
+    @Test
+    public void createTempBufferSpilled() throws Exception {
+        TempDir tempDir = new TempDir();
+        tempDir.setMemoryThreshold(4);
+        TempBuffer tempBuffer = tempDir.tryCreateTempBuffer();
+        try (OutputStream outputStream = tempBuffer.openOutputStream()) {
+            outputStream.write("la".getBytes(StandardCharsets.UTF_8));
+            outputStream.write("rger".getBytes(StandardCharsets.UTF_8));
+        }
+        assertFalse("A large result should have been spilled to disk.", tempBuffer.isInMemory());
+        assertEquals("The reserved memory should have been released.", 0, tempDir.getReservedMemory());
+        try (InputStream inputStream = tempBuffer.openInputStream()) {
+            assertEquals("The result should have been read from disk.", "larger", IOUtils.toString(inputStream, StandardCharsets.UTF_8));
+        }
+        tempBuffer.dispose();
+        tempDir.cleanTemp();
+    }
+
+    @Test
+    public void releaseTempFileReferences() throws Exception {
+        TempDir tempDir = new TempDir();
+        File tempFile = tempDir.tryCreateTempFile();
+        assertEquals("A temp file should have been created with a single reference.", 1, tempDir.getReferenceCount(tempFile));
+        assertTrue("The temp file should have been retained.", tempDir.retain(tempFile));
+        assertTrue("The temp file should have been released.", tempDir.release(tempFile));
+        assertTrue("A retained temp file should not have been deleted.", tempFile.exists());
+        assertTrue("The temp file should have been released.", tempDir.release(tempFile));
+        assertFalse("The temp file should have been deleted with it's last reference.", tempFile.exists());
+        assertEquals("A deleted temp file should have been forgotten.", 0, tempDir.getReferenceCount(tempFile));
+        assertFalse("An unknown file should not have been released.", tempDir.release(tempFile));
+        assertFalse("An unknown file should not have been retained.", tempDir.retain(tempFile));
+        tempDir.cleanTemp();
+    }
+
+    @Test
+    public void blockSourceFilesExceedingTempQuota() throws Exception {
+        TempDir tempDir = new TempDir();
+        tempDir.setTempQuota(4);
+        File tempFile = tempDir.tryCreateTempFile();
+        FileUtils.writeStringToFile(tempFile, "exceeding", StandardCharsets.UTF_8);
+        assertTrue("The size of the temp file should have been recorded.", tempDir.recordSize(tempFile));
+        tempDir.acquireQuota();
+        assertEquals("The temp usage should have been recorded.", 9, tempDir.getTempUsage());
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread blocked = new Thread(() -> {
+            try {
+                tempDir.acquireQuota();
+                acquired.countDown();
+            } catch (InterruptedException ignore) {
+                //THE TEST FAILS, AS THE LEASE HAS NOT BEEN ACQUIRED.
+            }
+        });
+        blocked.start();
+        assertFalse("A source file exceeding the temp quota should have been blocked.", acquired.await(300, TimeUnit.MILLISECONDS));
+        tempDir.release(tempFile);
+        assertTrue("The source file should have been started, after the temp files have been released.", acquired.await(5, TimeUnit.SECONDS));
+        assertEquals("The released temp file should have been removed from the temp usage.", 0, tempDir.getTempUsage());
+        tempDir.releaseQuota();
+        tempDir.releaseQuota();
+        blocked.join();
+        tempDir.cleanTemp();
+    }
+
+    @Test
+    public void recordTempUsage() throws Exception {
+        TempDir tempDir = new TempDir();
+        File tempFile = tempDir.tryCreateTempFile();
+        FileUtils.writeStringToFile(tempFile, "larger", StandardCharsets.UTF_8);
+        assertEquals("The size of a temp file should not be known, before it has been recorded.", 0, tempDir.getTempUsage());
+        tempDir.recordSize(tempFile);
+        FileUtils.writeStringToFile(tempFile, "small", StandardCharsets.UTF_8);
+        tempDir.recordSize(tempFile);
+        assertEquals("A recorded size should have been replaced.", 5, tempDir.getTempUsage());
+        assertTrue("The temp file should have been retained.", tempDir.retain(tempFile));
+        tempDir.release(tempFile);
+        assertEquals("A retained temp file should still be counted.", 5, tempDir.getTempUsage());
+        tempDir.release(tempFile);
+        assertEquals("The temp file should have been removed from the temp usage.", 0, tempDir.getTempUsage());
+        assertFalse("The size of an unknown file should not have been recorded.", tempDir.recordSize(tempFile));
+        tempDir.cleanTemp();
+    }
 }
@@ -0,0 +1,76 @@
+package net.webpdf.ant.task.files;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class UpToDateManifestTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testTimestamp() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        File source = temporaryFolder.newFile("source.pdf");
+        File target = new File(directory, "target.pdf");
+        FileUtils.writeStringToFile(source, "source", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(target, "target", StandardCharsets.UTF_8);
+
+        UpToDateManifest manifest = new UpToDateManifest(directory, UpToDateMode.TIMESTAMP, "configuration");
+        String stamp = manifest.stamp(source);
+        assertFalse("An unrecorded source should not be up to date.", manifest.isUpToDate(source, stamp, target));
+        manifest.record(source, stamp, target);
+        assertTrue("A recorded source should be up to date.", manifest.isUpToDate(source, stamp, target));
+        manifest.save();
+        assertTrue("The manifest should have been written.", manifest.getManifestFile().isFile());
+
+        UpToDateManifest reloaded = new UpToDateManifest(directory, UpToDateMode.TIMESTAMP, "configuration");
+        assertTrue("The recorded source should have been loaded.", reloaded.isUpToDate(source, reloaded.stamp(source), target));
+        UpToDateManifest changedConfiguration = new UpToDateManifest(directory, UpToDateMode.TIMESTAMP, "changed");
+        assertFalse("A changed configuration should outdate the target.",
+            changedConfiguration.isUpToDate(source, changedConfiguration.stamp(source), target));
+
+        assertTrue("The modification time should have been changed.", source.setLastModified(source.lastModified() - 10000));
+        assertFalse("A changed source should outdate the target.", reloaded.isUpToDate(source, reloaded.stamp(source), target));
+    }
+
+    @Test
+    public void testContent() throws Exception {
+        File directory = temporaryFolder.newFolder();
+        File source = temporaryFolder.newFile("source.pdf");
+        File target = new File(directory, "target.pdf");
+        FileUtils.writeStringToFile(source, "source", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(target, "target", StandardCharsets.UTF_8);
+
+        UpToDateManifest manifest = new UpToDateManifest(directory, UpToDateMode.CONTENT, "configuration");
+        manifest.record(source, manifest.stamp(source), target);
+        assertTrue("The modification time should have been changed.", source.setLastModified(source.lastModified() - 10000));
+        assertTrue("An unchanged content should not outdate the target.", manifest.isUpToDate(source, manifest.stamp(source), target));
+
+        FileUtils.writeStringToFile(source, "SOURCE", StandardCharsets.UTF_8);
+        assertFalse("A changed content should outdate the target.", manifest.isUpToDate(source, manifest.stamp(source), target));
+        FileUtils.writeStringToFile(source, "source", StandardCharsets.UTF_8);
+        assertTrue("The original content should be up to date again.", manifest.isUpToDate(source, manifest.stamp(source), target));
+
+        FileUtils.writeStringToFile(target, "altered target", StandardCharsets.UTF_8);
+        assertFalse("An altered target should be outdated.", manifest.isUpToDate(source, manifest.stamp(source), target));
+        assertTrue("The target should have been deleted.", target.delete());
+        assertFalse("A missing target should be outdated.", manifest.isUpToDate(source, manifest.stamp(source), target));
+    }
+
+    @Test
+    public void testModeNames() {
+        for (UpToDateMode mode : UpToDateMode.values()) {
+            assertEquals("The mode should have been found by name.", mode, UpToDateMode.fromName(mode.getName().toUpperCase()));
+        }
+        assertNull("An unknown mode should not have been found.", UpToDateMode.fromName("always"));
+    }
+
+}
@@ -0,0 +1,98 @@
+package net.webpdf.ant.task.metrics;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testPercentiles() {
+        Metrics metrics = new Metrics();
+        for (int millis = 1; millis <= 100; millis++) {
+            metrics.recordPhase("operation:converter", System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        List<MetricsReport.PhaseReport> phases = metrics.createReport().getPhases();
+        assertEquals("One phase should have been reported.", 1, phases.size());
+        MetricsReport.PhaseReport phase = phases.get(0);
+        assertEquals("The phase should have been named.", "operation:converter", phase.getName());
+        assertEquals("All executions should have been counted.", 100, phase.getCount());
+        assertEquals("The median should have been reported.", 50, phase.getP50Millis(), 5);
+        assertEquals("The 95th percentile should have been reported.", 95, phase.getP95Millis(), 5);
+        assertEquals("The 99th percentile should have been reported.", 99, phase.getP99Millis(), 5);
+    }
+
+    @Test
+    public void testHistogramPrecision() {
+        PhaseMetrics phaseMetrics = new PhaseMetrics();
+        for (long duration = 1; duration <= 1000; duration++) {
+            phaseMetrics.record(TimeUnit.MICROSECONDS.toNanos(duration));
+        }
+        PhaseMetrics snapshot = phaseMetrics.snapshot();
+        phaseMetrics.record(TimeUnit.SECONDS.toNanos(1));
+        assertEquals("The snapshot should not have been altered by following recordings.", 1000, snapshot.getCount());
+        assertEquals("The maximum should have been kept exactly.", TimeUnit.MICROSECONDS.toNanos(1000), snapshot.getMax());
+        for (int percentage : new int[]{10, 50, 90, 99}) {
+            double expected = TimeUnit.MICROSECONDS.toNanos(percentage * 10);
+            assertEquals("The percentile should deviate by less than 2 percent.", expected,
+                snapshot.getPercentile(percentage), expected * 0.02);
+        }
+        PhaseMetrics shortDurations = new PhaseMetrics();
+        shortDurations.record(100);
+        assertEquals("Short durations should have been counted exactly.", 100, shortDurations.getPercentile(50));
+    }
+
+    @Test
+    public void testWriteJSON() throws Exception {
+        Metrics metrics = createMetrics();
+        File metricsFile = new File(temporaryFolder.getRoot(), "reports/metrics.json");
+        metrics.createReport().write(metricsFile);
+        JsonObject report = new JsonParser().parse(
+            FileUtils.readFileToString(metricsFile, StandardCharsets.UTF_8)).getAsJsonObject();
+        assertEquals("The documents should have been written.", 2, report.get("documents").getAsLong());
+        assertEquals("The sent bytes should have been written.", 300, report.get("bytesIn").getAsLong());
+        assertEquals("The received bytes should have been written.", 500, report.get("bytesOut").getAsLong());
+        assertEquals("The retries should have been written.", 1, report.get("retries").getAsLong());
+        assertEquals("The temporary bytes should have been written.", 400, report.get("tempBytes").getAsLong());
+        assertEquals("All phases should have been written.", 2, report.get("phases").getAsJsonArray().size());
+    }
+
+    @Test
+    public void testWriteCSV() throws Exception {
+        Metrics metrics = createMetrics();
+        File metricsFile = temporaryFolder.newFile("metrics.csv");
+        metrics.createReport().write(metricsFile);
+        List<String> lines = FileUtils.readLines(metricsFile, StandardCharsets.UTF_8);
+        assertEquals("The header should have been written.", "metric,value", lines.get(0));
+        assertTrue("The documents should have been written.", lines.contains("documents,2"));
+        assertTrue("The retries should have been written.", lines.contains("retries,1"));
+        assertTrue("The phases should have been written.", lines.contains("finalize.count,2"));
+    }
+
+    private static Metrics createMetrics() {
+        Metrics metrics = new Metrics();
+        metrics.recordPhase(Metrics.PHASE_OPERATION + "toolbox", System.nanoTime());
+        metrics.recordPhase(Metrics.PHASE_FINALIZE, System.nanoTime());
+        metrics.recordPhase(Metrics.PHASE_FINALIZE, System.nanoTime());
+        metrics.recordTransfer(100, 100, false);
+        metrics.recordTransfer(200, 400, true);
+        metrics.recordRetry();
+        metrics.recordDocument();
+        metrics.recordDocument();
+        return metrics;
+    }
+
+}
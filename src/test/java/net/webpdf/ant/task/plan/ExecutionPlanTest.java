@@ -0,0 +1,38 @@
+package net.webpdf.ant.task.plan;
+
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class ExecutionPlanTest {
+
+    private static final String SOURCE = "source";
+
+    @Test
+    public void testSequentialGraphIsNotConcurrent() {
+        TaskGraph<String> graph = new TaskGraph<>();
+        graph.add("convert", Collections.singletonList(SOURCE), Collections.singletonList(SOURCE));
+        graph.add("rotate", Collections.singletonList(SOURCE), Collections.singletonList(SOURCE));
+        ExecutionPlan<String> plan = new ExecutionPlan<>(graph, true, true);
+        assertFalse("A sequential plan should not have been executed concurrently.", plan.isConcurrent());
+        assertEquals("The plan should have contained all tasks.", 2, plan.size());
+        assertEquals("The plan should have kept the declaration order.", "rotate", plan.getTask(1));
+    }
+
+    @Test
+    public void testIndependentBranchesAreConcurrent() {
+        TaskGraph<String> graph = new TaskGraph<>();
+        int archive = graph.add("archive", Collections.singletonList(SOURCE), Collections.singletonList("archive"));
+        int preview = graph.add("preview", Collections.singletonList(SOURCE), Collections.singletonList("preview"));
+        ExecutionPlan<String> plan = new ExecutionPlan<>(graph, true, false);
+        assertTrue("Independent branches should have been executed concurrently.", plan.isConcurrent());
+        assertFalse("The error policy should have been kept.", plan.isFailOnError());
+        assertTrue("The branches should not depend on each other.", plan.getDependencies(preview).isEmpty());
+        assertTrue("The branches should not depend on each other.", plan.getDependents(archive).isEmpty());
+        assertFalse("Concurrency should not have been enabled, if it has not been requested.",
+            new ExecutionPlan<>(graph, false, true).isConcurrent());
+    }
+
+}
@@ -0,0 +1,85 @@
+package net.webpdf.ant.task.plan;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class TaskGraphTest {
+
+    private static final String SOURCE = "source";
+
+    @Test
+    public void testSourceChainIsSequential() {
+        TaskGraph<String> graph = new TaskGraph<>();
+        graph.add("convert", Collections.singletonList(SOURCE), Collections.singletonList(SOURCE));
+        graph.add("rotate", Collections.singletonList(SOURCE), Collections.singletonList(SOURCE));
+        graph.add("compress", Collections.singletonList(SOURCE), Collections.singletonList(SOURCE));
+        assertTrue("Groups altering the source should have been executed sequentially.", graph.isSequential());
+        assertEquals("The group should depend on it's predecessor.", Collections.singleton(1), graph.getDependencies(2));
+        assertTrue("The dependency should have been transitive.", graph.dependsOn(2, 0));
+    }
+
+    @Test
+    public void testIndependentBranches() {
+        TaskGraph<String> graph = new TaskGraph<>();
+        int convert = graph.add("convert", Collections.singletonList(SOURCE), Collections.singletonList(SOURCE));
+        int archive = graph.add("archive", Collections.singletonList(SOURCE), Collections.singletonList("archive"));
+        int preview = graph.add("preview", Collections.singletonList(SOURCE), Collections.singletonList("preview"));
+        int web = graph.add("web", Collections.singletonList(SOURCE), Collections.singletonList(SOURCE));
+
+        assertFalse("Independent branches should have been executable concurrently.", graph.isSequential());
+        assertEquals("The branch should depend on the preceding source.", Collections.singleton(convert),
+            graph.getDependencies(archive));
+        assertFalse("The branches should not depend on each other.", graph.dependsOn(preview, archive));
+        assertEquals("Altering the source should wait for all branches reading it.",
+            new HashSet<>(Arrays.asList(convert, archive, preview)), graph.getDependencies(web));
+        assertEquals("The dependents should have been recorded.",
+            new HashSet<>(Arrays.asList(archive, preview, web)), graph.getDependents(convert));
+    }
+
+    @Test
+    public void testVariableDependency() {
+        TaskGraph<String> graph = new TaskGraph<>();
+        int archive = graph.add("archive", Collections.singletonList(SOURCE), Collections.singletonList("archive"));
+        int preview = graph.add("preview", Collections.singletonList(SOURCE), Collections.singletonList("preview"));
+        int merge = graph.add("merge", Arrays.asList("archive", "preview"), Collections.singletonList("merged"));
+        int overwrite = graph.add("overwrite", Collections.singletonList(SOURCE), Collections.singletonList("archive"));
+
+        assertTrue("A group should depend on the variables it reads.", graph.dependsOn(merge, archive));
+        assertTrue("A group should depend on the variables it reads.", graph.dependsOn(merge, preview));
+        assertTrue("Overwriting a variable should wait for it's readers.", graph.dependsOn(overwrite, merge));
+        assertFalse("Reading the source should not depend on variable readers.", graph.dependsOn(preview, archive));
+    }
+
+    @Test
+    public void testBarrier() {
+        TaskGraph<String> graph = new TaskGraph<>();
+        graph.add("archive", Collections.singletonList(SOURCE), Collections.singletonList("archive"));
+        graph.add("preview", Collections.singletonList(SOURCE), Collections.singletonList("preview"));
+        int echo = graph.addBarrier("echo");
+        int web = graph.add("web", Collections.singletonList(SOURCE), Collections.singletonList("web"));
+        assertEquals("The barrier should depend on all preceding tasks.", 2, graph.getDependencies(echo).size());
+        assertEquals("Following tasks should depend on the barrier.", Collections.singleton(echo),
+            graph.getDependencies(web));
+    }
+
+    @Test
+    public void testCriticalPath() {
+        TaskGraph<String> graph = new TaskGraph<>();
+        graph.add("convert", Collections.singletonList(SOURCE), Collections.singletonList(SOURCE));
+        graph.add("archive", Collections.singletonList(SOURCE), Collections.singletonList("archive"));
+        graph.add("preview", Collections.singletonList(SOURCE), Collections.singletonList("preview"));
+        graph.add("merge", Arrays.asList("archive", "preview"), Collections.singletonList("merged"));
+        assertEquals("The slowest branch should have been on the critical path.", Arrays.asList(0, 2, 3),
+            graph.getCriticalPath(new long[]{10, 20, 50, 5}));
+        assertEquals("The slowest branch should have been on the critical path.", Arrays.asList(0, 1, 3),
+            graph.getCriticalPath(new long[]{10, 60, 50, 5}));
+        assertTrue("An empty graph should not have a critical path.",
+            new TaskGraph<String>().getCriticalPath(new long[0]).isEmpty());
+    }
+
+}
@@ -0,0 +1,107 @@
+package net.webpdf.ant.task.server;
+
+import net.webpdf.ant.task.logging.AntLogger;
+import net.webpdf.ant.task.session.CircuitBreaker;
+import net.webpdf.ant.task.session.SessionPool;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LoadBalancerTest {
+
+    @Test
+    public void testWeightedTurns() throws Exception {
+        Endpoint first = createEndpoint("http://first:8080/webPDF/", 2, null);
+        Endpoint second = createEndpoint("http://second:8080/webPDF/", 1, null);
+        try (LoadBalancer loadBalancer = new LoadBalancer(Arrays.asList(first, second))) {
+            Map<Endpoint, Integer> calls = new HashMap<>();
+            for (int call = 0; call < 30; call++) {
+                Endpoint endpoint = loadBalancer.acquire();
+                assertNotNull("An endpoint should have been selected.", endpoint);
+                calls.merge(endpoint, 1, Integer::sum);
+                endpoint.release(null);
+            }
+            assertEquals("The first endpoint should have received two thirds of the calls.", 20, (int) calls.get(first));
+            assertEquals("The second endpoint should have received one third of the calls.", 10, (int) calls.get(second));
+        }
+    }
+
+    @Test
+    public void testIdentity() throws Exception {
+        Endpoint first = createEndpoint("http://first:8080/webPDF/", 2, null);
+        Endpoint second = createEndpoint("http://second:8080/webPDF/", 1, null);
+        try (
+            LoadBalancer loadBalancer = new LoadBalancer(Arrays.asList(first, second));
+            LoadBalancer reordered = new LoadBalancer(Arrays.asList(second, first));
+            LoadBalancer single = new LoadBalancer(Arrays.asList(first))
+        ) {
+            assertEquals("The identity should not depend on the order of the servers.", loadBalancer.getIdentity(),
+                reordered.getIdentity());
+            assertNotEquals("Different servers should result in a different identity.", loadBalancer.getIdentity(),
+                single.getIdentity());
+        }
+    }
+
+    @Test
+    public void testLeastOutstandingCalls() throws Exception {
+        Endpoint first = createEndpoint("http://first:8080/webPDF/", 1, null);
+        Endpoint second = createEndpoint("http://second:8080/webPDF/", 1, null);
+        try (LoadBalancer loadBalancer = new LoadBalancer(Arrays.asList(first, second))) {
+            Endpoint busy = loadBalancer.acquire();
+            assertNotNull("An endpoint should have been selected.", busy);
+            Endpoint idle = busy == first ? second : first;
+            for (int call = 0; call < 3; call++) {
+                Endpoint endpoint = loadBalancer.acquire();
+                assertSame("The endpoint without outstanding calls should have been selected.", idle, endpoint);
+                endpoint.release(null);
+            }
+            busy.release(null);
+            assertEquals("No calls should be outstanding.", 0, busy.getOutstandingCalls());
+        }
+    }
+
+    @Test
+    public void testEjectUnreachableEndpoint() throws Exception {
+        AntLogger logger = createLogger();
+        Endpoint first = createEndpoint("http://first:8080/webPDF/", 1,
+            new CircuitBreaker("http://first:8080/webPDF/", 1, 60000, logger));
+        Endpoint second = createEndpoint("http://second:8080/webPDF/", 1,
+            new CircuitBreaker("http://second:8080/webPDF/", 1, 60000, logger));
+        try (LoadBalancer loadBalancer = new LoadBalancer(Arrays.asList(first, second))) {
+            assertTrue("The call should be permitted.", first.tryAcquire());
+            first.release(new BuildException("Connection refused", new ConnectException("Connection refused")));
+            assertFalse("The unreachable endpoint should have been ejected.", first.isAvailable());
+            for (int call = 0; call < 3; call++) {
+                Endpoint endpoint = loadBalancer.acquire();
+                assertSame("The ejected endpoint should have been skipped.", second, endpoint);
+                endpoint.release(null);
+            }
+            assertSame("The available endpoint should have been selected.", second, loadBalancer.select());
+            second.tryAcquire();
+            second.release(new BuildException("Connection refused", new ConnectException("Connection refused")));
+            assertNull("No endpoint should be available.", loadBalancer.acquire());
+        }
+    }
+
+    private static Endpoint createEndpoint(String url, int weight, CircuitBreaker circuitBreaker) throws Exception {
+        URL serverURL = new URL(url);
+        return new Endpoint(serverURL, weight, new SessionPool(serverURL, null, 1, 60000), circuitBreaker);
+    }
+
+    private static AntLogger createLogger() {
+        Task task = new Task() {
+        };
+        task.setProject(new Project());
+        return new AntLogger(task);
+    }
+
+}
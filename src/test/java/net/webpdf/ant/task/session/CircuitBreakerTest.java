@@ -0,0 +1,93 @@
+package net.webpdf.ant.task.session;
+
+import net.webpdf.ant.task.logging.AntLogger;
+import org.apache.tools.ant.BuildException;
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.ConnectException;
+
+import static org.junit.Assert.*;
+
+public class CircuitBreakerTest {
+
+    private static final String SERVER_URL = "http://localhost:8080/webPDF/";
+    private static final BuildException UNREACHABLE =
+        new BuildException("Connection refused", new ConnectException("Connection refused"));
+
+    private AntLogger logger;
+
+    @Before
+    public void setUp() {
+        Task task = new Task() {
+        };
+        task.setProject(new Project());
+        logger = new AntLogger(task);
+    }
+
+    @Test
+    public void testOpenAfterConsecutiveFailures() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(SERVER_URL, 3, 60000, logger);
+        for (int call = 0; call < 2; call++) {
+            assertTrue("The call should be permitted.", circuitBreaker.tryAcquire());
+            circuitBreaker.release(UNREACHABLE);
+        }
+        assertEquals("The breaker should still be closed.", CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue("The call should be permitted.", circuitBreaker.tryAcquire());
+        circuitBreaker.release(UNREACHABLE);
+        assertEquals("The breaker should have been opened.", CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse("The call should fail instantly.", circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void testResetOnSuccess() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(SERVER_URL, 2, 60000, logger);
+        circuitBreaker.tryAcquire();
+        circuitBreaker.release(UNREACHABLE);
+        circuitBreaker.tryAcquire();
+        circuitBreaker.release(new BuildException("The document is invalid. [EC -5]"));
+        circuitBreaker.tryAcquire();
+        circuitBreaker.release(UNREACHABLE);
+        assertEquals("A rejected document should have reset the consecutive failures.", CircuitBreaker.State.CLOSED,
+            circuitBreaker.getState());
+    }
+
+    @Test
+    public void testCloseAfterSuccessfulProbe() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(SERVER_URL, 1, 0, logger);
+        circuitBreaker.tryAcquire();
+        circuitBreaker.release(UNREACHABLE);
+        assertEquals("The breaker should have been opened.", CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertTrue("A probing call should be permitted.", circuitBreaker.tryAcquire());
+        assertEquals("The breaker should be half open.", CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse("Only a single probing call should be permitted.", circuitBreaker.tryAcquire());
+        circuitBreaker.release(null);
+        assertEquals("The breaker should have been closed.", CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue("The call should be permitted.", circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void testReopenAfterFailedProbe() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(SERVER_URL, 1, 0, logger);
+        circuitBreaker.tryAcquire();
+        circuitBreaker.release(UNREACHABLE);
+        assertTrue("A probing call should be permitted.", circuitBreaker.tryAcquire());
+        circuitBreaker.release(UNREACHABLE);
+        assertEquals("The breaker should have been opened again.", CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testInterruptedProbe() {
+        CircuitBreaker circuitBreaker = new CircuitBreaker(SERVER_URL, 1, 0, logger);
+        circuitBreaker.tryAcquire();
+        circuitBreaker.release(UNREACHABLE);
+        assertTrue("A probing call should be permitted.", circuitBreaker.tryAcquire());
+        circuitBreaker.release(new BuildException("Interrupted", new InterruptedException()));
+        assertEquals("The breaker should still be half open.", CircuitBreaker.State.HALF_OPEN,
+            circuitBreaker.getState());
+        assertTrue("Another probing call should be permitted.", circuitBreaker.tryAcquire());
+    }
+
+}
@@ -0,0 +1,141 @@
+package net.webpdf.ant.task.session;
+
+import org.apache.http.client.HttpResponseException;
+import org.junit.Test;
+
+import javax.xml.ws.WebServiceException;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class ConcurrencyLimiterTest {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void testIncreaseOnFlatLatency() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 4);
+        assertEquals("The limiter should start with the minimum limit.", 1, limiter.getLimit());
+        for (int call = 0; call < 20; call++) {
+            limiter.acquire(1);
+            limiter.release(1, System.nanoTime() - LATENCY, ConcurrencyLimiter.Outcome.SUCCESS);
+        }
+        assertEquals("The limit should have been raised to the maximum.", 4, limiter.getLimit());
+        assertEquals("No call should be in flight.", 0, limiter.getInFlight());
+    }
+
+    @Test
+    public void testDecreaseOnRisingLatency() throws Exception {
+        ConcurrencyLimiter limiter = raisedLimiter();
+        for (int call = 0; call < 5; call++) {
+            limiter.acquire(1);
+            limiter.release(1, System.nanoTime() - LATENCY * 10, ConcurrencyLimiter.Outcome.SUCCESS);
+        }
+        assertTrue("The limit should have been lowered.", limiter.getLimit() < 8);
+        assertTrue("The limit should not fall below the minimum.", limiter.getLimit() >= 2);
+    }
+
+    @Test
+    public void testDecreaseOnOverload() throws Exception {
+        ConcurrencyLimiter limiter = raisedLimiter();
+        limiter.acquire(1);
+        limiter.release(1, System.nanoTime(), ConcurrencyLimiter.Outcome.OVERLOAD);
+        assertEquals("The limit should have been halved.", 4, limiter.getLimit());
+        for (int call = 0; call < 5; call++) {
+            limiter.acquire(1);
+            limiter.release(1, System.nanoTime(), ConcurrencyLimiter.Outcome.OVERLOAD);
+        }
+        assertEquals("The limit should not fall below the minimum.", 2, limiter.getLimit());
+    }
+
+    @Test
+    public void testIgnoreUnrelatedFailure() throws Exception {
+        ConcurrencyLimiter limiter = raisedLimiter();
+        limiter.acquire(1);
+        limiter.release(1, System.nanoTime(), ConcurrencyLimiter.Outcome.IGNORED);
+        assertEquals("The limit should not have been changed.", 8, limiter.getLimit());
+    }
+
+    @Test
+    public void testWaitForPermit() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1);
+        long startTime = limiter.acquire(1);
+        AtomicBoolean acquired = new AtomicBoolean(false);
+        Thread thread = new Thread(() -> {
+            try {
+                limiter.acquire(1);
+                acquired.set(true);
+            } catch (InterruptedException ignore) {
+            }
+        });
+        thread.start();
+        Thread.sleep(50);
+        assertFalse("The second call should wait for the permit.", acquired.get());
+        limiter.release(1, startTime, ConcurrencyLimiter.Outcome.SUCCESS);
+        thread.join(1000);
+        assertTrue("The second call should have been permitted.", acquired.get());
+    }
+
+    @Test
+    public void testPermitExceedingCalls() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1);
+        limiter.acquire(3);
+        assertEquals("Calls exceeding the limit should be permitted, if no other calls are in flight.", 3,
+            limiter.getInFlight());
+    }
+
+    @Test
+    public void testIsOverload() {
+        assertTrue("A timeout should indicate an overload.",
+            ConcurrencyLimiter.isOverload(new IOException(new SocketTimeoutException("Read timed out"))));
+        assertTrue("An unavailable server should indicate an overload.",
+            ConcurrencyLimiter.isOverload(new IOException(new HttpResponseException(503, "Service Unavailable"))));
+        assertTrue("An unavailable SOAP server should indicate an overload.",
+            ConcurrencyLimiter.isOverload(new TransportException(503)));
+        assertFalse("Another HTTP status should not indicate an overload.",
+            ConcurrencyLimiter.isOverload(new TransportException(500)));
+        assertFalse("A rejected document should not indicate an overload.",
+            ConcurrencyLimiter.isOverload(new IOException("The document is invalid.")));
+        assertFalse("A message mentioning 503 should not indicate an overload.",
+            ConcurrencyLimiter.isOverload(new IOException("scan_1503.pdf could not be read.")));
+        assertFalse("A message mentioning an unavailable service should not indicate an overload.",
+            ConcurrencyLimiter.isOverload(new IOException("HTTP 503 Service Unavailable")));
+        assertFalse("A missing failure should not indicate an overload.", ConcurrencyLimiter.isOverload(null));
+    }
+
+    /**
+     * Mimics the exception the JAX-WS runtime reports an unexpected HTTP status with.
+     */
+    public static class TransportException extends WebServiceException {
+
+        private final int status;
+
+        TransportException(int status) {
+            super("The server sent HTTP status code " + status);
+            this.status = status;
+        }
+
+        public String getKey() {
+            return "http.status.code";
+        }
+
+        public Object[] getArguments() {
+            return new Object[]{status, "Service Unavailable"};
+        }
+
+    }
+
+    private static ConcurrencyLimiter raisedLimiter() throws InterruptedException {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 8);
+        for (int call = 0; call < 100 && limiter.getLimit() < 8; call++) {
+            limiter.acquire(1);
+            limiter.release(1, System.nanoTime() - LATENCY, ConcurrencyLimiter.Outcome.SUCCESS);
+        }
+        assertEquals("The limit should have been raised to the maximum.", 8, limiter.getLimit());
+        return limiter;
+    }
+
+}
@@ -0,0 +1,74 @@
+package net.webpdf.ant.task.session;
+
+import org.apache.tools.ant.BuildException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void testRetryTransientFailure() {
+        RetryPolicy retryPolicy = new RetryPolicy(3, 10, 100, 0, Collections.<Integer>emptySet());
+        BuildException failure = new BuildException("Read timed out", new SocketTimeoutException("Read timed out"));
+        assertTrue("The first attempt should be retried.", retryPolicy.shouldRetry(1, failure));
+        assertTrue("The second attempt should be retried.", retryPolicy.shouldRetry(2, failure));
+        assertFalse("The last attempt should not be retried.", retryPolicy.shouldRetry(3, failure));
+    }
+
+    @Test
+    public void testDoNotRetryPermanentFailure() {
+        RetryPolicy retryPolicy = new RetryPolicy(3, 10, 100, 0, Collections.<Integer>emptySet());
+        assertFalse("A rejected call should not be retried.",
+            retryPolicy.shouldRetry(1, new BuildException("The document is invalid.")));
+        assertFalse("An interrupted call should not be retried.",
+            retryPolicy.shouldRetry(1, new BuildException("Interrupted", new InterruptedException())));
+        assertFalse("A missing failure should not be retried.", retryPolicy.shouldRetry(1, null));
+    }
+
+    @Test
+    public void testNoRetriesByDefault() {
+        RetryPolicy retryPolicy = new RetryPolicy(RetryPolicy.DEFAULT_MAX_ATTEMPTS, RetryPolicy.DEFAULT_RETRY_DELAY,
+            RetryPolicy.DEFAULT_MAX_RETRY_DELAY, RetryPolicy.DEFAULT_RETRY_JITTER, Collections.<Integer>emptySet());
+        assertFalse("Calls should not be retried by default.",
+            retryPolicy.shouldRetry(1, new BuildException(new IOException("Connection reset"))));
+    }
+
+    @Test
+    public void testExponentialDelay() {
+        RetryPolicy retryPolicy = new RetryPolicy(10, 100, 1000, 0, Collections.<Integer>emptySet());
+        assertEquals("The first delay should be the retry delay.", 100, retryPolicy.getDelay(1));
+        assertEquals("The delay should double with each attempt.", 200, retryPolicy.getDelay(2));
+        assertEquals("The delay should double with each attempt.", 400, retryPolicy.getDelay(3));
+        assertEquals("The delay should be capped by the maximum delay.", 1000, retryPolicy.getDelay(5));
+        assertEquals("The delay should be capped by the maximum delay.", 1000, retryPolicy.getDelay(100));
+    }
+
+    @Test
+    public void testJitteredDelay() {
+        RetryPolicy retryPolicy = new RetryPolicy(10, 1000, 1000, 0.5, Collections.<Integer>emptySet());
+        for (int sample = 0; sample < 100; sample++) {
+            long delay = retryPolicy.getDelay(1);
+            assertTrue("The delay should be shortened by at most the jitter: " + delay, delay >= 500 && delay <= 1000);
+        }
+    }
+
+    @Test
+    public void testParseRetryCodes() {
+        assertEquals("The retry codes should have been parsed.", new HashSet<>(Arrays.asList(-5, 12, 40)),
+            RetryPolicy.parseRetryCodes(" -5, 12,,40 "));
+        assertTrue("No retry codes should have been parsed.", RetryPolicy.parseRetryCodes(null).isEmpty());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testParseInvalidRetryCodes() {
+        RetryPolicy.parseRetryCodes("5,abc");
+    }
+
+}
@@ -0,0 +1,125 @@
+package net.webpdf.ant.task.session;
+
+import net.webpdf.wsclient.WebServiceProtocol;
+import net.webpdf.wsclient.session.Session;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class SessionPoolTest {
+
+    private static final String SERVER_URL = "http://localhost:8080/webPDF/";
+
+    @Test
+    public void testReuseSession() throws Exception {
+        try (SessionPool sessionPool = new SessionPool(new URL(SERVER_URL), null, 2, 60000)) {
+            Session session = sessionPool.borrow();
+            sessionPool.release(session, true);
+            assertSame("The idle session should have been reused.", session, sessionPool.borrow());
+            assertEquals("Only one session should have been opened.", 1, sessionPool.getOpenSessions());
+        }
+    }
+
+    @Test
+    public void testDiscardSession() throws Exception {
+        try (SessionPool sessionPool = new SessionPool(new URL(SERVER_URL), null, 2, 60000)) {
+            Session session = sessionPool.borrow();
+            sessionPool.release(session, false);
+            assertEquals("The session should have been closed.", 0, sessionPool.getOpenSessions());
+            assertNotSame("A fresh session should have been opened.", session, sessionPool.borrow());
+        }
+    }
+
+    @Test
+    public void testEvictIdleSession() throws Exception {
+        try (SessionPool sessionPool = new SessionPool(new URL(SERVER_URL), null, 2, 0)) {
+            Session session = sessionPool.borrow();
+            sessionPool.release(session, true);
+            Thread.sleep(5);
+            assertNotSame("The idle session should have been evicted.", session, sessionPool.borrow());
+            assertEquals("Only one session should be open.", 1, sessionPool.getOpenSessions());
+        }
+    }
+
+    @Test
+    public void testWaitForSession() throws Exception {
+        try (SessionPool sessionPool = new SessionPool(new URL(SERVER_URL), null, 1, 60000)) {
+            Session session = sessionPool.borrow();
+            AtomicReference<Session> borrowed = new AtomicReference<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    borrowed.set(sessionPool.borrow());
+                } catch (IOException | InterruptedException ignore) {
+                }
+            });
+            thread.start();
+            Thread.sleep(50);
+            assertNull("The maximum number of sessions should not have been exceeded.", borrowed.get());
+            sessionPool.release(session, true);
+            thread.join(5000);
+            assertSame("The released session should have been handed to the waiting thread.", session, borrowed.get());
+        }
+    }
+
+    @Test
+    public void testBorrowSeveralSessions() throws Exception {
+        try (SessionPool sessionPool = new SessionPool(new URL(SERVER_URL), null, 3, 60000)) {
+            Session session = sessionPool.borrow();
+            AtomicReference<List<Session>> borrowed = new AtomicReference<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    borrowed.set(sessionPool.borrow(3));
+                } catch (IOException | InterruptedException ignore) {
+                }
+            });
+            thread.start();
+            Thread.sleep(50);
+            assertNull("The sessions should only have been borrowed, when all of them are available.", borrowed.get());
+            assertEquals("No session should have been opened for the waiting thread.", 1, sessionPool.getOpenSessions());
+            sessionPool.release(session, true);
+            thread.join(5000);
+            assertNotNull("The sessions should have been borrowed.", borrowed.get());
+            assertEquals("All requested sessions should have been borrowed.", 3, borrowed.get().size());
+            assertTrue("The released session should have been reused.", borrowed.get().contains(session));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testBorrowTooManySessions() throws Exception {
+        try (SessionPool sessionPool = new SessionPool(new URL(SERVER_URL), null, 2, 60000)) {
+            sessionPool.borrow(3);
+        }
+    }
+
+    @Test
+    public void testLoginRestSession() throws Exception {
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        URL serverURL = new URL("http://localhost:" + port + "/webPDF/");
+        try (SessionPool sessionPool = new SessionPool(serverURL, null, WebServiceProtocol.REST, 1, 60000)) {
+            try {
+                sessionPool.borrow();
+                fail("A REST session, that could not be logged in, should not have been borrowed.");
+            } catch (IOException ignore) {
+            }
+            assertEquals("The session, that could not be logged in, should have been discarded.", 0,
+                sessionPool.getOpenSessions());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testClosedPool() throws Exception {
+        SessionPool sessionPool = new SessionPool(new URL(SERVER_URL), null, 1, 60000);
+        sessionPool.close();
+        sessionPool.borrow();
+    }
+
+}
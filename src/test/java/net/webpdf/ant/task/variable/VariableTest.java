@@ -6,6 +6,10 @@ import org.apache.tools.ant.*;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
 import static org.junit.Assert.*;
 
 public class VariableTest {
@@ -55,4 +59,17 @@ public class VariableTest {
         assertEquals("Variable should have been published to project.", "value", owningProject.getProperty("name"));
     }
 
+    @Test
+    public void testReplaceReferences() {
+        Map<String, String> values = new HashMap<>();
+        values.put("out", "C:/temp/out.pdf");
+        assertEquals("Known references should have been replaced.", "file:///C:/temp/out.pdf",
+            Variable.replaceReferences("file:///${out}", values));
+        assertEquals("Unknown references should have been preserved.", "file:///${out2}",
+            Variable.replaceReferences("file:///${out2}", values));
+        assertEquals("Values should not have been altered without variables.", "${out}",
+            Variable.replaceReferences("${out}", Collections.<String, String>emptyMap()));
+        assertNull("Null should not be altered.", Variable.replaceReferences(null, values));
+    }
+
 }
@@ -0,0 +1,59 @@
+package net.webpdf.ant.task.xml;
+
+import org.apache.tools.ant.Project;
+import org.apache.tools.ant.RuntimeConfigurable;
+import org.apache.tools.ant.UnknownElement;
+import org.junit.Test;
+
+import javax.xml.namespace.QName;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class OperationTemplateTest {
+
+    private XMLElement createOperation(String attributeName, String attributeValue) {
+        UnknownElement unknownElement = new UnknownElement("operation");
+        RuntimeConfigurable rt = new RuntimeConfigurable(unknownElement, "operation");
+        unknownElement.setRuntimeConfigurableWrapper(rt);
+
+        UnknownElement child = new UnknownElement("child");
+        rt = new RuntimeConfigurable(child, "operation");
+        rt.setAttribute(attributeName, attributeValue);
+        child.setRuntimeConfigurableWrapper(rt);
+
+        unknownElement.addChild(child);
+        return XMLElement.parseUnknownElement(unknownElement);
+    }
+
+    @Test
+    public void testStaticOperation() throws Exception {
+        OperationTemplate template = new OperationTemplate(createOperation("degrees", "90"));
+        assertFalse("Operation should have been recognized as static.", template.isDynamic());
+        byte[] configuration = template.render(new Project(), Collections.<String, String>emptyMap());
+        assertTrue("Attribute should have been marshalled.",
+            new String(configuration, StandardCharsets.UTF_8).contains("degrees=\"90\""));
+        assertSame("Static configuration should have been reused.", configuration,
+            template.render(new Project(), Collections.<String, String>emptyMap()));
+    }
+
+    @Test
+    public void testDynamicOperation() throws Exception {
+        Project project = new Project();
+        project.setNewProperty("lang", "eng");
+        XMLElement xmlElement = createOperation("language", "${lang}");
+        OperationTemplate template = new OperationTemplate(xmlElement);
+        assertTrue("Operation should have been recognized as dynamic.", template.isDynamic());
+
+        String configuration = new String(template.render(project, Collections.<String, String>emptyMap()), StandardCharsets.UTF_8);
+        assertTrue("Property should have been resolved.", configuration.contains("language=\"eng\""));
+        configuration = new String(template.render(project, Collections.singletonMap("lang", "deu")), StandardCharsets.UTF_8);
+        assertTrue("Variable should have been resolved.", configuration.contains("language=\"deu\""));
+
+        XMLElement child = xmlElement.getChildren().get(0).getValue();
+        assertEquals("The compiled operation should not have been altered.", "${lang}",
+            child.getAttributes().get(new QName("language")));
+    }
+
+}
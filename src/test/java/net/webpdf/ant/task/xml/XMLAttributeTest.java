@@ -2,7 +2,7 @@ package net.webpdf.ant.task.xml;
 
 import org.junit.Test;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 public class XMLAttributeTest {
 
@@ -33,4 +33,10 @@ public class XMLAttributeTest {
         assertEquals(String.format("Unexpected value: %s", attribute.getValue()),
             "", attribute.getValue());
     }
+
+    @Test
+    public void attributeReferencesTest() {
+        assertTrue("Property reference should have been detected.", new XMLAttribute("key", "${value}").hasReferences());
+        assertFalse("Unexpected property reference.", new XMLAttribute("key", "value").hasReferences());
+    }
 }
@@ -1,6 +1,7 @@
 package net.webpdf.ant.task.xml;
 
 import junitparams.JUnitParamsRunner;
+import org.apache.tools.ant.BuildException;
 import org.apache.tools.ant.Project;
 import org.apache.tools.ant.RuntimeConfigurable;
 import org.apache.tools.ant.UnknownElement;
@@ -8,6 +9,13 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import javax.xml.namespace.QName;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.junit.Assert.*;
 
@@ -88,4 +96,137 @@ public class XMLElementTest {
         //lang should have been replaced according to project properties.
         assertEquals(String.format("Unexpected value for attribute language: %s", child.getAttributes().get(new QName("language"))), "eng", child.getAttributes().get(new QName("language")));
     }
+
+    @Test
+    public void testPrepareConfigurationWithVariables() throws Exception {
+        Project project = new Project();
+        project.setNewProperty("out", "project.pdf");
+
+        UnknownElement unknownElement = new UnknownElement("operation");
+        RuntimeConfigurable rt = new RuntimeConfigurable(unknownElement, "operation");
+        unknownElement.setRuntimeConfigurableWrapper(rt);
+
+        UnknownElement data = new UnknownElement("data");
+        rt = new RuntimeConfigurable(data, "operation");
+        rt.setAttribute("source", "uri");
+        rt.setAttribute("uri", "file:///${out}");
+        data.setRuntimeConfigurableWrapper(rt);
+
+        unknownElement.addChild(data);
+
+        XMLElement xmlElement = XMLElement.parseUnknownElement(unknownElement);
+        XMLElement child = xmlElement.getChildren().get(0).getValue();
+
+        xmlElement.prepareConfiguration(project, Collections.singletonMap("out", "variable.pdf"));
+        //the given variable value should be preferred over the project property.
+        assertEquals("Variable value should have been used.", "file:///variable.pdf", child.getAttributes().get(new QName("uri")));
+
+        xmlElement.prepareConfiguration(project);
+        assertEquals("Project property should have been used.", "file:///project.pdf", child.getAttributes().get(new QName("uri")));
+    }
+
+    @Test
+    public void testRepeatedPrepareConfiguration() throws Exception {
+        Project project = new Project();
+
+        UnknownElement unknownElement = new UnknownElement("operation");
+        RuntimeConfigurable rt = new RuntimeConfigurable(unknownElement, "operation");
+        unknownElement.setRuntimeConfigurableWrapper(rt);
+
+        UnknownElement rotate = new UnknownElement("rotate");
+        rt = new RuntimeConfigurable(rotate, "operation");
+        rt.setAttribute("degrees", "90");
+        rotate.setRuntimeConfigurableWrapper(rt);
+
+        unknownElement.addChild(rotate);
+
+        XMLElement xmlElement = XMLElement.parseUnknownElement(unknownElement);
+        String configuration = xmlElement.prepareConfiguration(project);
+        assertTrue("Attribute should have been marshalled.", configuration.contains("degrees=\"90\""));
+        //the cached marshaller must produce the same result again.
+        assertEquals("Unexpected configuration.", configuration, xmlElement.prepareConfiguration(project));
+    }
+
+    @Test
+    public void testConcurrentMarshal() throws Exception {
+        XMLElement rotate = createOperation("rotate", "degrees", "90");
+        byte[] expected = rotate.marshal();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<byte[]>> results = new ArrayList<>();
+            for (int call = 0; call < 64; call++) {
+                results.add(executor.submit(rotate::marshal));
+            }
+            for (Future<byte[]> result : results) {
+                assertArrayEquals("Pooled marshallers should have produced the same configuration.", expected, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    @Test
+    public void testMergeToolboxOperations() throws Exception {
+        XMLElement rotate = createOperation("rotate", "degrees", "90");
+        XMLElement watermark = createOperation("watermark", "angle", "45");
+        XMLElement converter = createOperation("converter", "pages", "1");
+        assertTrue("A rotation should have been recognized as toolbox operation.", rotate.isToolboxOperation());
+        assertTrue("A watermark should have been recognized as toolbox operation.", watermark.isToolboxOperation());
+        assertFalse("A conversion should not have been recognized as toolbox operation.", converter.isToolboxOperation());
+
+        XMLElement merged = XMLElement.mergeToolboxOperations(Arrays.asList(rotate, watermark));
+        assertTrue("The combined operation should have been a toolbox operation.", merged.isToolboxOperation());
+        assertEquals("All toolbox actions should have been combined.", 2, merged.getChildren().size());
+        assertEquals("The toolbox actions should have kept their order.", "rotate", merged.getChildren().get(0).getName().getLocalPart());
+        assertEquals("The toolbox actions should have kept their order.", "watermark", merged.getChildren().get(1).getName().getLocalPart());
+        String configuration = merged.prepareConfiguration(new Project());
+        assertTrue("The combined configuration should contain all actions.",
+            configuration.indexOf("rotate") > 0 && configuration.indexOf("watermark") > configuration.indexOf("rotate"));
+    }
+
+    @Test
+    public void testOperationType() {
+        assertEquals("A rotation should have been recognized as toolbox call.", "toolbox",
+            createOperation("rotate", "degrees", "90").getOperationType());
+        assertEquals("A conversion should have been recognized as converter call.", "converter",
+            createOperation("converter", "pages", "1").getOperationType());
+        assertEquals("An empty operation should not define a webservice call.", "unknown",
+            new XMLElement().getOperationType());
+    }
+
+    @Test
+    public void testReferencesVariable() {
+        UnknownElement operation = new UnknownElement("operation");
+        operation.setRuntimeConfigurableWrapper(new RuntimeConfigurable(operation, "operation"));
+        UnknownElement merge = new UnknownElement("merge");
+        merge.setRuntimeConfigurableWrapper(new RuntimeConfigurable(merge, "operation"));
+        UnknownElement data = new UnknownElement("data");
+        RuntimeConfigurable rt = new RuntimeConfigurable(data, "operation");
+        rt.setAttribute("value", "file:///${archive}");
+        data.setRuntimeConfigurableWrapper(rt);
+        merge.addChild(data);
+        operation.addChild(merge);
+        XMLElement xmlElement = XMLElement.parseUnknownElement(operation);
+
+        assertTrue("The reference of a child should have been found.", xmlElement.referencesVariable("archive"));
+        assertFalse("An unreferenced variable should not have been found.", xmlElement.referencesVariable("preview"));
+        assertFalse("A partial name should not have been matched.", xmlElement.referencesVariable("arch"));
+    }
+
+    @Test(expected = BuildException.class)
+    public void testMergeNonToolboxOperations() {
+        XMLElement.mergeToolboxOperations(Arrays.asList(
+            createOperation("rotate", "degrees", "90"), createOperation("converter", "pages", "1")));
+    }
+
+    private XMLElement createOperation(String action, String attribute, String value) {
+        UnknownElement operation = new UnknownElement("operation");
+        operation.setRuntimeConfigurableWrapper(new RuntimeConfigurable(operation, "operation"));
+        UnknownElement child = new UnknownElement(action);
+        RuntimeConfigurable rt = new RuntimeConfigurable(child, "operation");
+        rt.setAttribute(attribute, value);
+        child.setRuntimeConfigurableWrapper(rt);
+        operation.addChild(child);
+        return XMLElement.parseUnknownElement(operation);
+    }
+
 }